@@ -0,0 +1,67 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import challenge.cloudkitchen.Constants.*;
+
+/**
+ * Order fixtures shared by benchmarks. Orders are generated deterministically, so that runs of the same
+ * benchmark can be compared against each other.
+ */
+class BenchmarkOrders {
+
+    private static final Temperature[] TEMPERATURES = Temperature.values();
+
+    /**
+     * Create orders that stay fresh for as long as a benchmark runs.
+     *
+     * @param first sequence number of the first order, orders with different sequence numbers have different ids.
+     * @param count number of orders to create.
+     * @param temp temperature of all orders, null to cycle through all temperatures.
+     * @return orders arrived at time 0, picked up at the end of time.
+     */
+    static List<Order> longLived(int first, int count, Temperature temp) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            Order order = create(i, temp == null ? TEMPERATURES[i % TEMPERATURES.length] : temp,
+                    Integer.MAX_VALUE, 0);
+            order.arrive(0);
+            order.setTimePickedUp(Integer.MAX_VALUE);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    /**
+     * Create orders with a mix of temperatures, shelf lives and decay rates, close to the sample input.
+     * Some of them go to waste before pick-up.
+     *
+     * @param first sequence number of the first order.
+     * @param count number of orders to create.
+     * @return orders that haven't arrived yet.
+     */
+    static List<Order> mixed(int first, int count) {
+        List<Order> orders = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            orders.add(create(i, TEMPERATURES[i % TEMPERATURES.length], 5 + (i * 7) % 295, (i * 13) % 100 / 100.0));
+        }
+        return orders;
+    }
+
+    static Order create(int sequence, Temperature temp, double shelfLife, double decayRate) {
+        return new Order(new UUID(0, sequence).toString(), "Benchmark order", temp, shelfLife, decayRate);
+    }
+
+    /**
+     * Turn off events printed to console, so that benchmarks measure the shelves and not the terminal.
+     */
+    static void muteConsole() {
+        EventSink.CONSOLE.setLevel(EventSink.Level.OFF);
+    }
+
+    static void restoreConsole() {
+        EventSink.CONSOLE.setLevel(EventSink.Level.DEBUG);
+    }
+}
@@ -0,0 +1,135 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import challenge.cloudkitchen.Constants.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static challenge.cloudkitchen.Constants.MAX_TIME_PICK_UP;
+
+/**
+ * Benchmarks of the simulator's decisions and of a full simulated second.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrdersSimulatorBenchmark {
+
+    static final long BENCHMARK_SEED = 42;
+
+    /**
+     * Full overflow shelf, only the frozen shelf has room, so every order on overflow shelf has to be looked at.
+     */
+    @State(Scope.Thread)
+    public static class MovableOrderState {
+
+        @Param({"10", "1000", "100000"})
+        int capacity;
+
+        OrdersSimulator simulator;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            BenchmarkOrders.muteConsole();
+            simulator = newSimulator(capacity, capacity);
+            for (Order order : BenchmarkOrders.longLived(0, capacity, Temperature.HOT)) {
+                simulator.kitchen.hotShelf.add(order);
+            }
+            for (Order order : BenchmarkOrders.longLived(capacity, capacity, Temperature.COLD)) {
+                simulator.kitchen.coldShelf.add(order);
+            }
+            for (Order order : BenchmarkOrders.longLived(2 * capacity, capacity - 1, Temperature.FROZEN)) {
+                simulator.kitchen.frozenShelf.add(order);
+            }
+            for (Order order : BenchmarkOrders.longLived(3 * capacity, capacity, null)) {
+                simulator.kitchen.overflowShelf.add(order);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BenchmarkOrders.restoreConsole();
+        }
+    }
+
+    /**
+     * A kitchen in steady state, receiving as many orders per second as a single temperature shelf holds.
+     * Since orders wait 4 seconds for pick-up on average, shelves run full and overflow shelf has to make room
+     * every now and then.
+     *
+     * <p>Orders are recycled once they're certainly off shelves and out of the pick-up schedule, so that
+     * allocation reported by the GC profiler is the simulator's own.</p>
+     */
+    @State(Scope.Thread)
+    public static class TickState {
+
+        @Param({"10", "1000", "100000"})
+        int capacity;
+
+        OrdersSimulator simulator;
+        List<List<Order>> batches;
+        int time;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            BenchmarkOrders.muteConsole();
+            simulator = newSimulator(capacity, capacity);
+            batches = new ArrayList<>();
+            for (int i = 0; i < MAX_TIME_PICK_UP + 2; i++) {
+                batches.add(BenchmarkOrders.mixed(i * capacity, capacity));
+            }
+            time = 0;
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            BenchmarkOrders.restoreConsole();
+        }
+    }
+
+    static OrdersSimulator newSimulator(int ingestionRate, int capacity) {
+        KitchenConfig config = new KitchenConfig()
+                .setSingleTemperatureShelfCapacity(capacity)
+                .setOverflowShelfCapacity(capacity);
+        OrdersSimulator simulator = new OrdersSimulator(ingestionRate, new ListOrderSource(new ArrayList<>()), false,
+                config);
+        // Every trial sees the same pick-up times and discards
+        simulator.kitchen.setRandom(new SplittableRandom(BENCHMARK_SEED));
+        return simulator;
+    }
+
+    @Benchmark
+    public Order getMovableOrder(MovableOrderState state) {
+        return state.simulator.kitchen.getMovableOrder(1);
+    }
+
+    /**
+     * One simulated second: clean up wasted and delivered orders, then ingest a batch of new orders.
+     */
+    @Benchmark
+    public int ingestTick(TickState state) {
+        int time = ++state.time;
+        OrdersSimulator simulator = state.simulator;
+        simulator.kitchen.checkWastedOrder(time);
+        simulator.kitchen.checkDeliveredOrder(time);
+        simulator.kitchen.ingest(state.batches.get(time % state.batches.size()), time);
+        return simulator.kitchen.getNumDiscarded();
+    }
+}
@@ -0,0 +1,121 @@
+package challenge.cloudkitchen;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import challenge.cloudkitchen.Constants.*;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of shelf operations on a nearly full shelf.
+ *
+ * <p>Every benchmark leaves the shelf the way it found it, e.g. an order added is removed again in the same
+ * invocation, so that all invocations measure the same shelf size.</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ShelfBenchmark {
+
+    // Far enough in the future that every short lived order has gone to waste
+    private static final int NOW = 1_000_000;
+
+    @Param({"10", "1000", "100000"})
+    int capacity;
+
+    Shelf hotShelf;
+    OverflowShelf overflowShelf;
+    Order spareOrder;
+    Order expiringOrder;
+    List<Order> pickedUp;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        BenchmarkOrders.muteConsole();
+        hotShelf = new SingleTemperatureShelf(Temperature.HOT);
+        hotShelf.capacity = capacity;
+        for (Order order : BenchmarkOrders.longLived(0, capacity - 1, Temperature.HOT)) {
+            hotShelf.add(order);
+        }
+        overflowShelf = new OverflowShelf();
+        overflowShelf.capacity = capacity;
+        for (Order order : BenchmarkOrders.longLived(capacity, capacity, null)) {
+            overflowShelf.add(order);
+        }
+        spareOrder = BenchmarkOrders.longLived(2 * capacity, 1, Temperature.HOT).get(0);
+        expiringOrder = BenchmarkOrders.create(2 * capacity + 1, Temperature.HOT, 1, 0);
+        expiringOrder.arrive(0);
+        expiringOrder.setTimePickedUp(Integer.MAX_VALUE);
+        pickedUp = Collections.singletonList(spareOrder);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        BenchmarkOrders.restoreConsole();
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        hotShelf.add(spareOrder);
+        return hotShelf.remove(spareOrder);
+    }
+
+    /**
+     * A clean up tick in which no order goes to waste, the most common case.
+     */
+    @Benchmark
+    public int cleanUpWastedOrdersNoneExpired() {
+        return hotShelf.cleanUpWastedOrders(NOW);
+    }
+
+    /**
+     * A clean up tick in which one order goes to waste, including placing that order on shelf.
+     */
+    @Benchmark
+    public int cleanUpWastedOrdersOneExpired() {
+        hotShelf.add(expiringOrder);
+        return hotShelf.cleanUpWastedOrders(NOW);
+    }
+
+    /**
+     * Pick up one order whose pick-up time is known, including placing that order on shelf.
+     */
+    @Benchmark
+    public int cleanUpDeliveredOrders() {
+        hotShelf.add(spareOrder);
+        return hotShelf.cleanUpDeliveredOrders(pickedUp, NOW);
+    }
+
+    /**
+     * Look for delivered orders by walking through the shelf, when none is due.
+     */
+    @Benchmark
+    public Shelf cleanUpDeliveredOrdersByScan() {
+        hotShelf.cleanUpDeliveredOrders(NOW);
+        return hotShelf;
+    }
+
+    /**
+     * Discard a random order from a full overflow shelf and put it back.
+     */
+    @Benchmark
+    public boolean removeRandomOrder() {
+        return overflowShelf.add(overflowShelf.removeRandomOrder());
+    }
+}
@@ -0,0 +1,178 @@
+package challenge.cloudkitchen;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A compact binary log of orders, which could be replayed much faster than parsing orders from JSON.
+ * See {@link BinaryOrderSource} for reading a log.
+ *
+ * <p>File layout:
+ * <ul>
+ *     <li>Header ({@value #HEADER_SIZE} bytes): magic number, format version, record size, number of records and
+ *     offset of the string tables.</li>
+ *     <li>Fixed width records ({@value #RECORD_SIZE} bytes each): order id as two longs, shelf life, decay rate,
+ *     index of the order's name in the name table, or {@value #NO_NAME} if the order has no name, and index of its
+ *     temperature in the temperature table, or {@value #NO_TEMPERATURE} if the order has no temperature.</li>
+ *     <li>String tables: temperature names followed by order names, each table prefixed by its size.
+ *     Every distinct name is only stored once.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Order ids must be UUIDs in canonical form, since they're stored as two longs.</p>
+ */
+public class BinaryOrderLog {
+
+    static final int MAGIC = 0x4F52444C;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 40;
+
+    static final int OFFSET_ID_MOST_SIGNIFICANT_BITS = 0;
+    static final int OFFSET_ID_LEAST_SIGNIFICANT_BITS = 8;
+    static final int OFFSET_SHELF_LIFE = 16;
+    static final int OFFSET_DECAY_RATE = 24;
+    static final int OFFSET_NAME = 32;
+    static final int OFFSET_TEMPERATURE = 36;
+
+    static final int NO_NAME = -1;
+    static final int NO_TEMPERATURE = 0xFF;
+    static final int MAX_TEMPERATURES = NO_TEMPERATURE;
+
+    static final int WRITE_BUFFER_RECORDS = 4096;
+
+    /**
+     * Write all orders from an order source to a binary log.
+     *
+     * @param source source of orders to be written.
+     * @param output path of the log file, overwritten if it already exists.
+     * @return number of orders written.
+     * @throws IOException if the log couldn't be written.
+     * @throws IllegalArgumentException if an order id is not a UUID in canonical form, or if orders have more than
+     * {@value #MAX_TEMPERATURES} temperatures.
+     */
+    public static long write(OrderSource source, Path output) throws IOException {
+        Map<String, Integer> names = new HashMap<>();
+        List<String> nameTable = new ArrayList<>();
+        Map<String, Integer> temperatures = new HashMap<>();
+        List<String> temperatureTable = new ArrayList<>();
+        long count = 0;
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocate(RECORD_SIZE * WRITE_BUFFER_RECORDS);
+            channel.position(HEADER_SIZE);
+            while (source.hasNext()) {
+                Order order = source.next();
+                if (order == null) {
+                    continue;
+                }
+                UUID id = toUuid(order.getId());
+                int nameIndex = NO_NAME;
+                if (order.getName() != null) {
+                    nameIndex = names.computeIfAbsent(order.getName(), name -> {
+                        nameTable.add(name);
+                        return nameTable.size() - 1;
+                    });
+                }
+                int temperatureIndex = NO_TEMPERATURE;
+                if (order.getTempName() != null) {
+                    temperatureIndex = temperatures.computeIfAbsent(order.getTempName(), temp -> {
+                        temperatureTable.add(temp);
+                        return temperatureTable.size() - 1;
+                    });
+                    if (temperatureIndex >= MAX_TEMPERATURES) {
+                        throw new IllegalArgumentException(
+                                "More than " + MAX_TEMPERATURES + " temperatures in order log");
+                    }
+                }
+                int start = buffer.position();
+                buffer.putLong(start + OFFSET_ID_MOST_SIGNIFICANT_BITS, id.getMostSignificantBits());
+                buffer.putLong(start + OFFSET_ID_LEAST_SIGNIFICANT_BITS, id.getLeastSignificantBits());
+                buffer.putDouble(start + OFFSET_SHELF_LIFE, order.shelfLife);
+                buffer.putDouble(start + OFFSET_DECAY_RATE, order.decayRate);
+                buffer.putInt(start + OFFSET_NAME, nameIndex);
+                buffer.put(start + OFFSET_TEMPERATURE, (byte) temperatureIndex);
+                buffer.position(start + RECORD_SIZE);
+                count++;
+                if (!buffer.hasRemaining()) {
+                    flush(buffer, channel);
+                }
+            }
+            flush(buffer, channel);
+
+            long stringTableOffset = channel.position();
+            OutputStream out = Channels.newOutputStream(channel);
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+            writeStringTable(data, temperatureTable);
+            writeStringTable(data, nameTable);
+            data.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(MAGIC);
+            header.putShort(VERSION);
+            header.putShort((short) RECORD_SIZE);
+            header.putLong(count);
+            header.putLong(stringTableOffset);
+            header.flip();
+            channel.write(header, 0);
+        }
+        return count;
+    }
+
+    /**
+     * Check if a file is a binary order log.
+     *
+     * @param path path of the file.
+     * @return true if the file starts with the magic number of binary order logs, false otherwise.
+     * @throws IOException if the file couldn't be read.
+     */
+    public static boolean isOrderLog(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            while (magic.hasRemaining() && channel.read(magic) >= 0) {
+                // Keep reading until the magic number is complete or the file ends
+            }
+            return !magic.hasRemaining() && magic.getInt(0) == MAGIC;
+        }
+    }
+
+    static UUID toUuid(String id) {
+        UUID uuid;
+        try {
+            uuid = UUID.fromString(id);
+        } catch (IllegalArgumentException e) {
+            uuid = null;
+        }
+        if (uuid == null || !uuid.toString().equals(id)) {
+            throw new IllegalArgumentException("Order id is not a UUID in canonical form: " + id);
+        }
+        return uuid;
+    }
+
+    static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    static void writeStringTable(DataOutputStream data, List<String> table) throws IOException {
+        data.writeInt(table.size());
+        for (String str : table) {
+            data.writeUTF(str);
+        }
+    }
+}
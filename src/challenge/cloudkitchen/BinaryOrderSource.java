@@ -0,0 +1,147 @@
+package challenge.cloudkitchen;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+
+import static challenge.cloudkitchen.BinaryOrderLog.*;
+
+/**
+ * An order source replaying a binary order log written by {@link BinaryOrderLog#write(OrderSource, Path)}.
+ *
+ * <p>Records are read straight from a memory-mapped view of the file, an order is only decoded when it's pulled
+ * by the simulator. Names are decoded once from the string table and shared by all orders. Large logs are mapped
+ * one window of records at a time.</p>
+ */
+public class BinaryOrderSource implements OrderSource {
+
+    static final int WINDOW_RECORDS = 1 << 20;
+
+    FileChannel channel;
+    long numRecords;
+    String[] names;
+    String[] temperatures;
+    MappedByteBuffer window;
+    long windowStart;
+    long windowEnd;
+    long position;
+
+    public BinaryOrderSource(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a binary order log: " + path);
+            }
+            if (header.getShort(4) != VERSION || header.getShort(6) != RECORD_SIZE) {
+                throw new IOException("Unsupported binary order log version: " + header.getShort(4));
+            }
+            numRecords = header.getLong(8);
+            long stringTableOffset = header.getLong(16);
+            if (numRecords < 0 || stringTableOffset < HEADER_SIZE || stringTableOffset > channel.size()
+                    || (stringTableOffset - HEADER_SIZE) / RECORD_SIZE < numRecords) {
+                throw new IOException("Corrupt binary order log: " + path);
+            }
+
+            DataInputStream data = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel.position(stringTableOffset))));
+            long tableSize = channel.size() - stringTableOffset;
+            temperatures = readStringTable(data, tableSize, path);
+            names = readStringTable(data, tableSize, path);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        position = 0;
+        windowStart = 0;
+        windowEnd = 0;
+    }
+
+    public long size() {
+        return numRecords;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < numRecords;
+    }
+
+    @Override
+    public Order next() {
+        if (!hasNext()) {
+            return null;
+        }
+        if (position >= windowEnd) {
+            mapWindow(position);
+        }
+        int offset = (int) (position - windowStart) * RECORD_SIZE;
+        position++;
+        String id = new UUID(
+                window.getLong(offset + OFFSET_ID_MOST_SIGNIFICANT_BITS),
+                window.getLong(offset + OFFSET_ID_LEAST_SIGNIFICANT_BITS)).toString();
+        int nameIndex = window.getInt(offset + OFFSET_NAME);
+        int temperature = window.get(offset + OFFSET_TEMPERATURE) & 0xFF;
+        return new Order(
+                id,
+                nameIndex == NO_NAME ? null : names[nameIndex],
+                temperature == NO_TEMPERATURE ? null : temperatures[temperature],
+                window.getDouble(offset + OFFSET_SHELF_LIFE),
+                window.getDouble(offset + OFFSET_DECAY_RATE));
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void mapWindow(long start) {
+        long end = Math.min(start + WINDOW_RECORDS, numRecords);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start * RECORD_SIZE,
+                    (end - start) * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        windowStart = start;
+        windowEnd = end;
+    }
+
+    /**
+     * Read a string table written by {@link BinaryOrderLog#writeStringTable}. The size of
+     * the table is checked against the bytes left, so that a corrupt file fails to read instead of allocating a huge
+     * array.
+     *
+     * @param data stream positioned at the table.
+     * @param maxSize number of bytes left in the file from the table on.
+     * @param path path of the file, for errors.
+     * @return the strings of the table.
+     * @throws IOException if the table couldn't be read or is corrupt.
+     */
+    static String[] readStringTable(DataInputStream data, long maxSize, Path path) throws IOException {
+        int size = data.readInt();
+        // Every string takes at least the 2 bytes of its length
+        if (size < 0 || size > maxSize / 2) {
+            throw new IOException("Corrupt string table: " + path);
+        }
+        String[] table = new String[size];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = data.readUTF();
+        }
+        return table;
+    }
+}
@@ -0,0 +1,306 @@
+package challenge.cloudkitchen;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A snapshot of a simulation taken between two simulated seconds, from which the simulation could be resumed, see
+ * {@link OrdersSimulator#resume(Checkpoint)}.
+ *
+ * <p>A checkpoint holds the next simulated time to be processed, the number of orders taken from the order source,
+ * the counters of the kitchen and every order on the shelves with its arrival and pick-up time. Pick-ups and
+ * expiries still to come are derived from the orders on the shelves. The order source itself is not part of the
+ * checkpoint: a simulation must be resumed on the same input, whose first orders are skipped.</p>
+ *
+ * <p>The state of the random number generator can't be saved, so a resumed simulation draws different pick-up
+ * times than the original one would have from that point on. A seeded resumed run is still reproducible.</p>
+ *
+ * <p>File layout:
+ * <ul>
+ *     <li>Header ({@value #HEADER_SIZE} bytes): magic number, format version, simulated time, number of orders
+ *     taken from the source, numbers of orders delivered, discarded and wasted, and number of shelves.</li>
+ *     <li>Temperature table: number of temperatures followed by their names, see {@link Order#getTempName()}.
+ *     </li>
+ *     <li>For every shelf, in the order of the kitchen's {@link ShelfLayout}: number of orders followed by the
+ *     orders. An order is
+ *     its shelf life, decay rate, arrival time, pick-up time, index of its temperature in the table (-1 if none),
+ *     then its id and name.</li>
+ * </ul>
+ * Strings are UTF-8 prefixed by their length, -1 for no string, e.g. an order without a name.
+ * </p>
+ */
+public class Checkpoint {
+
+    static final int MAGIC = 0x4F524350;
+    static final short VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    // Smallest size of an order: numbers, temperature and the lengths of empty id and name
+    static final int MIN_ORDER_SIZE = 8 + 8 + 4 + 4 + 1 + 4 + 4;
+
+    int time;
+    int count;
+    int numDelivered;
+    int numDiscarded;
+    int numWasted;
+    // Orders on every shelf, in the order of the layout
+    List<List<Order>> shelves;
+
+    Checkpoint(int time, int count, int numDelivered, int numDiscarded, int numWasted, List<List<Order>> shelves) {
+        this.time = time;
+        this.count = count;
+        this.numDelivered = numDelivered;
+        this.numDiscarded = numDiscarded;
+        this.numWasted = numWasted;
+        this.shelves = shelves;
+    }
+
+    /**
+     * Take a checkpoint of a kitchen between two simulated seconds.
+     *
+     * @param kitchen the kitchen.
+     * @param time next simulated time to be processed.
+     * @param count number of orders taken from the order source so far.
+     * @return the checkpoint.
+     */
+    static Checkpoint capture(Kitchen kitchen, int time, int count) {
+        List<List<Order>> shelves = new ArrayList<>(kitchen.shelves.size());
+        for (Shelf shelf : kitchen.shelves) {
+            synchronized (shelf) {
+                shelves.add(new ArrayList<>(shelf.getCurrentOrders()));
+            }
+        }
+        return new Checkpoint(time, count, kitchen.getNumDelivered(), kitchen.getNumDiscarded(),
+                kitchen.getNumWasted(), shelves);
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Write the checkpoint to a file. The checkpoint is written to a temporary file next to the target first, then
+     * moved over the target, so that a crash while writing leaves the previous checkpoint intact.
+     *
+     * @param path path of the checkpoint file, replaced if it already exists.
+     * @throws IOException if the checkpoint couldn't be written.
+     */
+    public void write(Path path) throws IOException {
+        Map<String, Integer> temperatures = new HashMap<>();
+        List<byte[]> temperatureNames = new ArrayList<>();
+        List<byte[]> strings = new ArrayList<>();
+        int size = HEADER_SIZE + 4;
+        for (List<Order> orders : shelves) {
+            size += 4;
+            for (Order order : orders) {
+                if (order.getTempName() != null && !temperatures.containsKey(order.getTempName())) {
+                    byte[] temp = order.getTempName().getBytes(StandardCharsets.UTF_8);
+                    temperatures.put(order.getTempName(), temperatureNames.size());
+                    temperatureNames.add(temp);
+                    size += 4 + temp.length;
+                }
+                byte[] id = order.getId().getBytes(StandardCharsets.UTF_8);
+                byte[] name = order.getName() == null ? null : order.getName().getBytes(StandardCharsets.UTF_8);
+                strings.add(id);
+                strings.add(name);
+                size += MIN_ORDER_SIZE + id.length + (name == null ? 0 : name.length);
+            }
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(MAGIC);
+        buffer.putShort(VERSION);
+        buffer.putShort((short) 0);
+        buffer.putInt(time);
+        buffer.putInt(count);
+        buffer.putInt(numDelivered);
+        buffer.putInt(numDiscarded);
+        buffer.putInt(numWasted);
+        buffer.putInt(shelves.size());
+        if (temperatureNames.size() > Byte.MAX_VALUE) {
+            throw new IllegalStateException("More than " + Byte.MAX_VALUE + " temperatures on shelves");
+        }
+        buffer.putInt(temperatureNames.size());
+        for (byte[] temp : temperatureNames) {
+            putString(buffer, temp);
+        }
+        int next = 0;
+        for (List<Order> orders : shelves) {
+            buffer.putInt(orders.size());
+            for (Order order : orders) {
+                buffer.putDouble(order.shelfLife);
+                buffer.putDouble(order.decayRate);
+                buffer.putInt(order.getTimeArrived());
+                buffer.putInt(order.getTimePickedUp());
+                buffer.put((byte) (order.getTempName() == null ? -1 : temperatures.get(order.getTempName())));
+                putString(buffer, strings.get(next++));
+                putString(buffer, strings.get(next++));
+            }
+        }
+        buffer.flip();
+
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a checkpoint from a file.
+     *
+     * @param path path of the checkpoint file.
+     * @return the checkpoint.
+     * @throws IOException if the file couldn't be read, is not a checkpoint or is corrupt.
+     */
+    public static Checkpoint read(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Not a checkpoint: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is in the buffer
+            }
+        }
+        buffer.flip();
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a checkpoint: " + path);
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version + ": " + path);
+        }
+        buffer.getShort();
+        try {
+            return read(buffer, path);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Corrupt checkpoint: " + path, e);
+        }
+    }
+
+    /**
+     * Read a checkpoint after its magic number and version. Every count is checked against the bytes left, so that a
+     * corrupt file fails to read instead of allocating a huge list.
+     */
+    static Checkpoint read(ByteBuffer buffer, Path path) throws IOException {
+        int time = buffer.getInt();
+        int count = buffer.getInt();
+        int numDelivered = buffer.getInt();
+        int numDiscarded = buffer.getInt();
+        int numWasted = buffer.getInt();
+        int numShelves = checkCount(buffer.getInt(), buffer, 4, path);
+        String[] temps = new String[checkCount(buffer.getInt(), buffer, 4, path)];
+        for (int i = 0; i < temps.length; i++) {
+            temps[i] = getString(buffer, path);
+        }
+        List<List<Order>> shelves = new ArrayList<>(numShelves);
+        for (int i = 0; i < numShelves; i++) {
+            int numOrders = checkCount(buffer.getInt(), buffer, MIN_ORDER_SIZE, path);
+            List<Order> orders = new ArrayList<>(numOrders);
+            for (int j = 0; j < numOrders; j++) {
+                double shelfLife = buffer.getDouble();
+                double decayRate = buffer.getDouble();
+                int timeArrived = buffer.getInt();
+                int timePickedUp = buffer.getInt();
+                byte temp = buffer.get();
+                String id = getString(buffer, path);
+                String name = getString(buffer, path);
+                if (temp >= temps.length) {
+                    throw new IOException("Corrupt checkpoint: " + path);
+                }
+                Order order = new Order(id, name, temp < 0 ? null : temps[temp], shelfLife, decayRate);
+                order.arrive(timeArrived);
+                order.setTimePickedUp(timePickedUp);
+                orders.add(order);
+            }
+            shelves.add(orders);
+        }
+        return new Checkpoint(time, count, numDelivered, numDiscarded, numWasted, shelves);
+    }
+
+    /**
+     * Put the orders of the checkpoint back on the shelves of a kitchen and restore its counters. Orders are placed
+     * as they were, even on a shelf that has since become smaller, e.g. when forking a what-if run with different
+     * parameters; such a shelf takes no new order until enough orders have left it.
+     *
+     * @param kitchen a kitchen with empty shelves, laid out like the kitchen the checkpoint was taken from.
+     * @throws IllegalArgumentException if the kitchen doesn't have as many shelves as the checkpoint.
+     */
+    void restore(Kitchen kitchen) {
+        if (kitchen.shelves.size() != shelves.size()) {
+            throw new IllegalArgumentException("Checkpoint has " + shelves.size() + " shelves, the kitchen has "
+                    + kitchen.shelves.size());
+        }
+        kitchen.numDelivered = numDelivered;
+        kitchen.numDiscarded = numDiscarded;
+        kitchen.numWasted = numWasted;
+        kitchen.metrics.delivered.add(numDelivered);
+        kitchen.metrics.discarded.add(numDiscarded);
+        kitchen.metrics.wasted.add(numWasted);
+        kitchen.pickupWheel = new TimingWheel<>(time);
+        for (int i = 0; i < shelves.size(); i++) {
+            Shelf target = kitchen.shelves.get(i);
+            for (Order order : shelves.get(i)) {
+                target.currentOrders.add(order);
+                kitchen.pickupWheel.schedule(order, order.getTimePickedUp());
+                kitchen.onOrderDispatched(order);
+                kitchen.onOrderPlaced(order, target);
+            }
+        }
+    }
+
+    static void putString(ByteBuffer buffer, byte[] str) {
+        if (str == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(str.length);
+        buffer.put(str);
+    }
+
+    static String getString(ByteBuffer buffer, Path path) throws IOException {
+        int length = buffer.getInt();
+        if (length == -1) {
+            return null;
+        }
+        byte[] str = new byte[checkCount(length, buffer, 1, path)];
+        buffer.get(str);
+        return new String(str, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Check a count read from a checkpoint against the bytes left to read.
+     *
+     * @param count the count.
+     * @param buffer buffer positioned after the count.
+     * @param minSize smallest number of bytes taken by every counted item.
+     * @param path path of the checkpoint file, for the error message.
+     * @return the count.
+     * @throws IOException if the count is negative or more items than fit in the bytes left.
+     */
+    static int checkCount(int count, ByteBuffer buffer, int minSize, Path path) throws IOException {
+        if (count < 0 || count > buffer.remaining() / minSize) {
+            throw new IOException("Corrupt checkpoint: " + path);
+        }
+        return count;
+    }
+}
@@ -0,0 +1,263 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free overflow shelf which many threads could add orders to and remove orders from without serializing
+ * on a single monitor.
+ *
+ * <p>Orders are stored in a fixed array of {@code capacity} slots. A thread adding an order first reserves room
+ * by incrementing the occupancy counter with compare-and-set, then claims an empty slot with compare-and-set.
+ * Removing an order releases its slot and decrements the counter. Checking if the shelf has room only reads the
+ * counter, which is wait-free.</p>
+ *
+ * <p>Unlike {@link OverflowShelf}, orders are not indexed: removing an order, cleaning up wasted orders or finding
+ * an order to move scans the slots, which is cheap for the small capacity of an overflow shelf.
+ * {@link #getCurrentOrders()} returns a snapshot of the slots. The shelf doesn't check for duplicate order ids.
+ * Orders are never kept in {@link #currentOrders}, and the shelf has no index of movable orders nor eviction policy:
+ * every method of {@link OverflowShelf} using them is overridden to scan the slots instead.</p>
+ */
+public class ConcurrentOverflowShelf extends OverflowShelf {
+
+    AtomicReferenceArray<Order> slots;
+    AtomicInteger occupancy;
+
+    public ConcurrentOverflowShelf() {
+        this(Constants.OVERFLOW_SHELF_CAPACITY, Constants.SHELF_DECAY_MODIFIER_OVERFLOW);
+    }
+
+    public ConcurrentOverflowShelf(int capacity, int shelfDecayModifier) {
+        this(capacity, shelfDecayModifier, ShelfLayout.standard(new KitchenConfig()));
+    }
+
+    public ConcurrentOverflowShelf(int capacity, int shelfDecayModifier, ShelfLayout layout) {
+        super(capacity, shelfDecayModifier, layout);
+        slots = new AtomicReferenceArray<>(capacity);
+        occupancy = new AtomicInteger(0);
+    }
+
+    @Override
+    public List<Order> getCurrentOrders() {
+        List<Order> orders = new ArrayList<>(occupancy.get());
+        for (int i = 0; i < slots.length(); i++) {
+            Order order = slots.get(i);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    @Override
+    public int getNumOrders() {
+        return occupancy.get();
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return occupancy.get() < capacity;
+    }
+
+    @Override
+    public boolean add(Order order) {
+        if (!order.hasArrived() || !order.hasTimePickedUp()) {
+            return false;
+        }
+        int reserved;
+        do {
+            reserved = occupancy.get();
+            if (reserved >= capacity) {
+                return false;
+            }
+        } while (!occupancy.compareAndSet(reserved, reserved + 1));
+        // There's an empty slot for every reservation, although other threads could race for the same one. The
+        // shelf has at least one slot, since a shelf without any can't reserve room.
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int i = start; ; i = (i + 1) % slots.length()) {
+            if (slots.get(i) == null && slots.compareAndSet(i, null, order)) {
+                break;
+            }
+        }
+        eventSink.publish(EventSink.Type.ORDER_ADDED, this, order);
+        return true;
+    }
+
+    @Override
+    public boolean contains(Order order) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == order) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Order order) {
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) == order && release(i, order)) {
+                eventSink.publish(EventSink.Type.ORDER_REMOVED, this, order);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Order removeRandomOrder() {
+        if (slots.length() == 0) {
+            return null;
+        }
+        int start = ThreadLocalRandom.current().nextInt(slots.length());
+        for (int n = 0; n < slots.length(); n++) {
+            int i = (start + n) % slots.length();
+            Order order = slots.get(i);
+            if (order != null && release(i, order)) {
+                eventSink.publish(EventSink.Type.ORDER_DISCARDED, this, order);
+                return order;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Orders are not indexed, so whatever the eviction policy, a random order is removed.
+     *
+     * @return order that was removed, null if the shelf is empty.
+     */
+    @Override
+    public Order evictOrder() {
+        return removeRandomOrder();
+    }
+
+    /**
+     * Orders are not indexed, the shelf always evicts a random order.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override
+    public void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        throw new UnsupportedOperationException("Lock-free overflow shelf only evicts random orders");
+    }
+
+    @Override
+    public Order peekMovableOrder(int zone) {
+        Order pickedOrder = null;
+        double minZeroValueTime = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < slots.length(); i++) {
+            Order order = slots.get(i);
+            if (order != null && layout.getZone(order) == zone) {
+                double zeroValueTime = computeZeroValueTime(order);
+                if (pickedOrder == null || zeroValueTime < minZeroValueTime) {
+                    pickedOrder = order;
+                    minZeroValueTime = zeroValueTime;
+                }
+            }
+        }
+        return pickedOrder;
+    }
+
+    @Override
+    public int cleanUpWastedOrders(int time) {
+        int numRemoved = 0;
+        EventSink.Event wasted = null;
+        for (int i = 0; i < slots.length(); i++) {
+            Order order = slots.get(i);
+            if (order != null && computeInherentValue(order, time) <= 0 && release(i, order)) {
+                if (numRemoved == 0) {
+                    wasted = eventSink.claim(EventSink.Type.ORDERS_WASTED, this, time);
+                }
+                if (wasted != null) {
+                    wasted.add(order, time - order.timeArrived);
+                }
+                numRemoved++;
+            }
+        }
+        eventSink.publish(wasted);
+        return numRemoved;
+    }
+
+    @Override
+    public void cleanUpDeliveredOrders(int time) {
+        List<Order> delivered = new ArrayList<>();
+        for (Order order : getCurrentOrders()) {
+            if (order.getTimePickedUp() <= time) {
+                delivered.add(order);
+            }
+        }
+        cleanUpDeliveredOrders(delivered, time);
+    }
+
+    @Override
+    public int cleanUpDeliveredOrders(List<Order> pickedUp, int time) {
+        int numRemoved = 0;
+        EventSink.Event delivered = null;
+        for (Order order : pickedUp) {
+            for (int i = 0; i < slots.length(); i++) {
+                if (slots.get(i) == order && release(i, order)) {
+                    if (numRemoved == 0) {
+                        delivered = eventSink.claim(EventSink.Type.ORDERS_DELIVERED, this, time);
+                    }
+                    if (delivered != null) {
+                        delivered.add(order, time - order.timeArrived);
+                    }
+                    if (metrics != null) {
+                        metrics.recordPickUp(order, time, computeInherentValue(order, time));
+                    }
+                    numRemoved++;
+                    break;
+                }
+            }
+        }
+        eventSink.publish(delivered);
+        return numRemoved;
+    }
+
+    @Override
+    public String getShelfContent() {
+        List<Order> orders = getCurrentOrders();
+        StringBuilder str = new StringBuilder(getShelfName())
+                .append(" Occupancy (").append(orders.size()).append("/").append(capacity).append("): ");
+        for (Order order : orders) {
+            str.append(order.getShortId()).append(" ");
+        }
+        if (orders.isEmpty()) {
+            str.append("None");
+        }
+        return str.toString();
+    }
+
+    @Override
+    public void printShelfContent() {
+        EventSink.Event event = eventSink.claim(EventSink.Type.SHELF_CONTENT, this, 0);
+        if (event != null) {
+            event.capacity = capacity;
+            for (int i = 0; i < slots.length(); i++) {
+                Order order = slots.get(i);
+                if (order != null) {
+                    event.add(order);
+                }
+            }
+            eventSink.publish(event);
+        }
+    }
+
+    /**
+     * Release a slot holding given order.
+     *
+     * @param index index of the slot.
+     * @param order order expected in the slot.
+     * @return true if this thread released the slot, false if another thread removed the order first.
+     */
+    boolean release(int index, Order order) {
+        if (slots.compareAndSet(index, order, null)) {
+            occupancy.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+}
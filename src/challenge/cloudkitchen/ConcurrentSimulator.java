@@ -0,0 +1,375 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A real time simulator where order producers, the dispatcher, couriers and the shelf clean up run concurrently,
+ * contending for the shelves of a single kitchen.
+ *
+ * <ul>
+ *     <li>Producers pull orders from the order source every tick, each taking its share of the ingestion rate,
+ *     and place them on shelves.</li>
+ *     <li>The dispatcher assigns a pick-up time to each order and, once the order is on a shelf, schedules a
+ *     courier on the courier pool. A courier wakes up at the pick-up time and takes the order off whichever shelf
+ *     it's on.</li>
+ *     <li>The clean up thread removes wasted orders every tick.</li>
+ * </ul>
+ *
+ * <p>Every shelf has its own lock, see {@link Shelf}. Making room on overflow shelf happens while holding the lock
+ * of overflow shelf, so locks are always taken in the order overflow shelf, then single temperature shelf.
+ * Optionally, overflow shelf could be a {@link ConcurrentOverflowShelf}, in which case producers place orders and
+ * make room on it without any lock.</p>
+ *
+ * <p>Couriers don't take any lock besides the one of the shelf they pick up from. An order being moved off overflow
+ * shelf is on no shelf for a moment, so a courier marks the order as waiting before looking for it, and whoever
+ * moves an order delivers it on behalf of the courier if it finds the order waiting after placing it.</p>
+ *
+ * <p>Every producer thread draws pick-up times from its own stream split off the kitchen's random number generator,
+ * so producers share no random state. Runs are not reproducible even with a seed, since the interleaving of
+ * threads isn't.</p>
+ *
+ * <p>A tick lasts one second by default. It could be shortened to load test the shelves at higher rates.</p>
+ */
+public class ConcurrentSimulator implements Kitchen.OrderListener {
+
+    Kitchen kitchen;
+    OrderSource orderSource;
+    int ingestionRate;
+    int numProducers;
+    int numCouriers;
+    long tickMillis;
+    long startNanos;
+    boolean lockFreeOverflow;
+    ScheduledExecutorService couriers;
+    LongAdder delivered;
+    LongAdder discarded;
+    // Orders whose courier came but didn't find them on a shelf, either being moved or already gone
+    Set<Order> waitingCouriers = ConcurrentHashMap.newKeySet();
+    ThreadLocal<SplittableRandom> producerRandom = ThreadLocal.withInitial(this::splitRandom);
+
+    public ConcurrentSimulator(int ingestionRate, OrderSource orderSource, int numProducers, int numCouriers,
+                               long tickMillis) {
+        this(ingestionRate, orderSource, numProducers, numCouriers, tickMillis, false);
+    }
+
+    public ConcurrentSimulator(int ingestionRate, OrderSource orderSource, int numProducers, int numCouriers,
+                               long tickMillis, boolean lockFreeOverflow) {
+        this(ingestionRate, orderSource, numProducers, numCouriers, tickMillis, lockFreeOverflow,
+                new KitchenConfig());
+    }
+
+    public ConcurrentSimulator(int ingestionRate, OrderSource orderSource, int numProducers, int numCouriers,
+                               long tickMillis, boolean lockFreeOverflow, KitchenConfig config) {
+        // A lock-free overflow shelf has no index to promote from, orders are only moved off it to make room
+        this.kitchen = new Kitchen(lockFreeOverflow ? config.copy().setPromoteFromOverflow(false) : config);
+        this.kitchen.orderListener = this;
+        this.ingestionRate = ingestionRate;
+        this.orderSource = orderSource;
+        this.numProducers = numProducers;
+        this.numCouriers = numCouriers;
+        this.tickMillis = tickMillis;
+        this.lockFreeOverflow = lockFreeOverflow;
+        if (lockFreeOverflow) {
+            for (int i = 0; i < kitchen.overflowShelves.size(); i++) {
+                OverflowShelf shelf = kitchen.overflowShelves.get(i);
+                kitchen.replaceOverflowShelf(i, new ConcurrentOverflowShelf(shelf.capacity, shelf.shelfDecayModifier,
+                        kitchen.layout));
+            }
+        }
+        this.delivered = new LongAdder();
+        this.discarded = new LongAdder();
+    }
+
+    /**
+     * Executing the simulation and print the summary.
+     *
+     * @throws InterruptedException when the program is interrupted while waiting for producers and couriers.
+     */
+    public void run() throws InterruptedException {
+        simulate();
+        kitchen.printAnalytics();
+    }
+
+    /**
+     * Executing the simulation without printing the summary, see {@link #run()}. Returns once every order of the
+     * source has left the shelves.
+     *
+     * @throws InterruptedException when the program is interrupted while waiting for producers and couriers.
+     */
+    void simulate() throws InterruptedException {
+        startNanos = System.nanoTime();
+        couriers = new ScheduledThreadPoolExecutor(numCouriers);
+        ScheduledExecutorService cleanUp = Executors.newSingleThreadScheduledExecutor();
+        cleanUp.scheduleAtFixedRate(() -> {
+            long tickStartNanos = System.nanoTime();
+            int time = currentTime();
+            kitchen.checkWastedOrder(time);
+            kitchen.endTick(time, tickStartNanos);
+        }, 0, tickMillis, TimeUnit.MILLISECONDS);
+        ExecutorService producers = Executors.newFixedThreadPool(numProducers);
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < numProducers; i++) {
+            int share = ingestionRate / numProducers + (i < ingestionRate % numProducers ? 1 : 0);
+            results.add(producers.submit(() -> {
+                produce(share);
+                return null;
+            }));
+        }
+        producers.shutdown();
+        try {
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Order producer failed", e.getCause());
+        } finally {
+            // Couriers already dispatched still pick up their orders after shutdown
+            couriers.shutdown();
+            couriers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            cleanUp.shutdownNow();
+            cleanUp.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        }
+        kitchen.numDelivered = delivered.intValue();
+        kitchen.numDiscarded += discarded.intValue();
+        // Couriers of discarded and wasted orders are left waiting
+        waitingCouriers.clear();
+    }
+
+    /**
+     * Loop of an order producer: every tick, pull a share of the ingestion rate from the order source, dispatch
+     * couriers and place the orders on shelves.
+     *
+     * @param share number of orders pulled every tick.
+     * @throws InterruptedException when interrupted while waiting for the next tick.
+     */
+    void produce(int share) throws InterruptedException {
+        int tick = 0;
+        while (true) {
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(startNanos + tick * tickMillis * 1_000_000L
+                    - System.nanoTime());
+            if (waitMillis > 0) {
+                Thread.sleep(waitMillis);
+            }
+            List<Order> batch = new ArrayList<>(share);
+            synchronized (orderSource) {
+                if (!orderSource.hasNext()) {
+                    return;
+                }
+                while (batch.size() < share && orderSource.hasNext()) {
+                    Order order = orderSource.next();
+                    if (order != null) {
+                        batch.add(order);
+                    }
+                }
+            }
+            for (Order order : batch) {
+                order.arrive(tick);
+                dispatch(order, tick);
+                place(order, tick);
+                sendCourier(order);
+            }
+            tick++;
+        }
+    }
+
+    /**
+     * Place an order on its single temperature shelf, or on the first overflow shelf with room if there's none,
+     * making room on the first overflow shelf when they're all full. Like in {@link Kitchen#ingest(List, int)}, an
+     * order that still doesn't fit, e.g. when overflow shelves have no capacity at all, is discarded.
+     *
+     * @param order the order to be placed.
+     * @param time current simulated time.
+     */
+    void place(Order order, int time) {
+        Shelf shelf = kitchen.getShelf(order);
+        if (shelf != null && shelf.add(order)) {
+            return;
+        }
+        if (addToOverflowShelf(order)) {
+            return;
+        }
+        if (lockFreeOverflow) {
+            // Other producers could take the slot freed before this one does
+            while (makeRoomWithoutLock(time)) {
+                if (addToOverflowShelf(order)) {
+                    return;
+                }
+            }
+            discard(order);
+            return;
+        }
+        synchronized (kitchen.overflowShelf) {
+            if (!addToOverflowShelf(order)) {
+                kitchen.makeRoomOnOverflowShelf(time);
+                if (!addToOverflowShelf(order)) {
+                    discard(order);
+                }
+            }
+        }
+    }
+
+    /**
+     * Discard an order that couldn't be placed on any shelf.
+     *
+     * @param order the order.
+     */
+    void discard(Order order) {
+        discarded.increment();
+        kitchen.metrics.discarded.increment();
+        kitchen.eventSink.publish(EventSink.Type.ORDER_DISCARDED, kitchen.overflowShelf, order);
+    }
+
+    /**
+     * Add an order to the first overflow shelf with room.
+     *
+     * @param order the order to be placed.
+     * @return true if the order was placed, false if all overflow shelves are full.
+     */
+    boolean addToOverflowShelf(Order order) {
+        for (OverflowShelf overflow : kitchen.overflowShelves) {
+            if (overflow.add(order)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Make room on lock-free overflow shelves, by moving an order from any of them to its single temperature shelf
+     * or discarding a random order from the first one. Other producers could race for the freed slot, so the caller
+     * should retry adding its order.
+     *
+     * @param time current simulated time.
+     * @return false if room can't be made, there being no order to move and no slot on the first overflow shelf
+     * to discard from. true otherwise, even if another producer made room in the meantime.
+     */
+    boolean makeRoomWithoutLock(int time) {
+        Order movableOrder = kitchen.getMovableOrder(time);
+        OverflowShelf overflow = movableOrder != null ? kitchen.getOverflowShelf(movableOrder) : null;
+        if (overflow != null && overflow.remove(movableOrder)) {
+            Shelf nextShelf = kitchen.getShelf(movableOrder);
+            if (!nextShelf.add(movableOrder)) {
+                nextShelf = overflow;
+                if (!overflow.add(movableOrder)) {
+                    // Both shelves were filled by other producers in the meantime
+                    discarded.increment();
+                    kitchen.metrics.discarded.increment();
+                    return true;
+                }
+            } else {
+                kitchen.metrics.movedFromOverflow.increment();
+                kitchen.eventSink.publish(EventSink.Type.ORDER_MOVED, overflow, movableOrder);
+            }
+            kitchen.onOrderPlaced(movableOrder, nextShelf);
+            return true;
+        }
+        if (movableOrder == null && kitchen.overflowShelf.removeRandomOrder() != null) {
+            discarded.increment();
+            kitchen.metrics.discarded.increment();
+        }
+        return movableOrder != null || kitchen.overflowShelf.capacity > 0;
+    }
+
+    /**
+     * Deliver an order moved between shelves if its courier came while it was on no shelf.
+     *
+     * @param order the order that was placed.
+     * @param shelf shelf the order was placed on.
+     */
+    @Override
+    public void onOrderPlaced(Order order, Shelf shelf) {
+        if (waitingCouriers.contains(order)
+                && shelf.cleanUpDeliveredOrders(Collections.singletonList(order), order.getTimePickedUp()) > 0) {
+            waitingCouriers.remove(order);
+            delivered.increment();
+            kitchen.metrics.delivered.increment();
+        }
+    }
+
+    /**
+     * Couriers are sent by producers once their order is on a shelf, see {@link #sendCourier(Order)}.
+     *
+     * @param order the order to be picked up.
+     */
+    @Override
+    public void onOrderDispatched(Order order) {
+    }
+
+    /**
+     * Dispatch a courier to pick up an order, by assigning the order's pick-up time. The courier is sent by
+     * {@link #sendCourier(Order)} once the order is on a shelf.
+     *
+     * @param order the order to be picked up.
+     * @param time time that the order arrived on shelf.
+     */
+    void dispatch(Order order, int time) {
+        order.setTimePickedUp(kitchen.drawPickUpTime(time, producerRandom.get()));
+    }
+
+    /**
+     * Split a stream off the kitchen's random number generator for a producer thread.
+     */
+    synchronized SplittableRandom splitRandom() {
+        return kitchen.random.split();
+    }
+
+    /**
+     * Schedule the courier of an order on the courier pool, to wake up at the order's pick-up time. If the producer
+     * has fallen behind and the pick-up time has already passed, the courier picks up the order right away.
+     *
+     * @param order the order to be picked up, already placed on a shelf.
+     */
+    void sendCourier(Order order) {
+        long delayNanos = startNanos + order.getTimePickedUp() * tickMillis * 1_000_000L - System.nanoTime();
+        couriers.schedule(() -> pickUp(order), Math.max(delayNanos, 0), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Pick up an order from whichever shelf it's on. Does nothing if it was discarded or wasted.
+     *
+     * @param order the order to be picked up.
+     */
+    void pickUp(Order order) {
+        List<Order> pickedUp = Collections.singletonList(order);
+        int time = order.getTimePickedUp();
+        // Mark the order first: if it's being moved and we miss it on both shelves, the mover delivers it
+        waitingCouriers.add(order);
+        Shelf shelf = kitchen.getShelf(order);
+        if (shelf != null && shelf.cleanUpDeliveredOrders(pickedUp, time) > 0) {
+            waitingCouriers.remove(order);
+            delivered.increment();
+            kitchen.metrics.delivered.increment();
+            return;
+        }
+        for (OverflowShelf overflow : kitchen.overflowShelves) {
+            if (overflow.cleanUpDeliveredOrders(pickedUp, time) > 0) {
+                waitingCouriers.remove(order);
+                delivered.increment();
+                kitchen.metrics.delivered.increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Get current simulated time.
+     *
+     * @return number of ticks since the simulation started.
+     */
+    int currentTime() {
+        return (int) ((System.nanoTime() - startNanos) / (tickMillis * 1_000_000L));
+    }
+}
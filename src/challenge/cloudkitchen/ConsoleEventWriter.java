@@ -0,0 +1,122 @@
+package challenge.cloudkitchen;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+
+/**
+ * Write events as lines of text, e.g. <code>Order added to HOT shelf: a8cfcb76(HOT)</code>.
+ *
+ * <p>Lines are formatted into a buffer reused for every event, then written to a buffered writer which is flushed
+ * whenever the sink runs out of events. Errors writing to the output are ignored, like {@link System#out} does.</p>
+ */
+class ConsoleEventWriter implements EventConsumer {
+
+    private final Writer writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private char[] chars = new char[256];
+
+    ConsoleEventWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
+    }
+
+    @Override
+    public void accept(EventSink.Event event) {
+        if (event.getType() == EventSink.Type.ORDER_MOVED) {
+            // Already printed as removed from overflow shelf and added to the next one
+            return;
+        }
+        line.setLength(0);
+        format(event, line);
+        line.append(System.lineSeparator());
+        if (chars.length < line.length()) {
+            chars = new char[Math.max(line.length(), chars.length * 2)];
+        }
+        line.getChars(0, line.length(), chars, 0);
+        try {
+            writer.write(chars, 0, line.length());
+        } catch (IOException e) {
+            // Same as printing to System.out
+        }
+    }
+
+    @Override
+    public void flush() {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            // Same as printing to System.out
+        }
+    }
+
+    /**
+     * Format an event the same way the simulator has always printed it.
+     *
+     * @param event the event.
+     * @param str buffer to append the event to.
+     */
+    static void format(EventSink.Event event, StringBuilder str) {
+        switch (event.getType()) {
+            case TIMESTAMP:
+                str.append("Timestamp = ").append(event.getTime());
+                break;
+            case NEW_ORDERS:
+                str.append("New orders: ");
+                appendOrders(event, str, true);
+                break;
+            case ORDERS_WASTED:
+                str.append("Orders wasted and removed from ").append(event.getShelf().getShelfName()).append(": ");
+                appendOrdersWithAge(event, str);
+                break;
+            case ORDERS_DELIVERED:
+                str.append("Orders delivered and removed from ").append(event.getShelf().getShelfName())
+                        .append(": ");
+                appendOrdersWithAge(event, str);
+                break;
+            case ORDER_DISCARDED:
+                str.append("Order removed from ").append(event.getShelf().getShelfName())
+                        .append(" to clear space: ").append(event.getOrder(0).getShortId());
+                break;
+            case ORDER_ADDED:
+                str.append("Order added to ").append(event.getShelf().getShelfName()).append(": ");
+                appendShortIdWithTemp(event.getOrder(0), str);
+                break;
+            case ORDER_REMOVED:
+                str.append("Order removed from ").append(event.getShelf().getShelfName()).append(": ");
+                appendShortIdWithTemp(event.getOrder(0), str);
+                break;
+            case SHELF_CONTENT:
+                str.append(event.getShelf().getShelfName())
+                        .append(" Occupancy (").append(event.size()).append("/").append(event.getCapacity())
+                        .append("): ");
+                appendOrders(event, str, false);
+                break;
+        }
+    }
+
+    private static void appendOrders(EventSink.Event event, StringBuilder str, boolean withTemp) {
+        for (int i = 0; i < event.size(); i++) {
+            if (withTemp) {
+                appendShortIdWithTemp(event.getOrder(i), str);
+            } else {
+                str.append(event.getOrder(i).getShortId());
+            }
+            str.append(' ');
+        }
+        if (event.size() == 0) {
+            str.append("None");
+        }
+    }
+
+    private static void appendOrdersWithAge(EventSink.Event event, StringBuilder str) {
+        for (int i = 0; i < event.size(); i++) {
+            str.append(event.getOrder(i).getShortId()).append("(after ").append(event.getValue(i)).append("s) ");
+        }
+    }
+
+    static void appendShortIdWithTemp(Order order, StringBuilder str) {
+        str.append(order.getShortId()).append('(').append(order.getTempName()).append(')');
+    }
+}
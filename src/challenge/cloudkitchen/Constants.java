@@ -7,15 +7,38 @@ public class Constants {
     public static final int SINGLE_TEMPERATURE_SHELF_CAPACITY = 10;
     public static final int MIN_TIME_PICK_UP = 2;
     public static final int MAX_TIME_PICK_UP = 6;
+    public static final int MIN_TIME_COURIER_TRIP = 10;
+    public static final int MAX_TIME_COURIER_TRIP = 30;
 
+    /**
+     * Temperature of an order. Orders of any other temperature keep its name as their temperature zone, see
+     * {@link Order#getTempName()}, and go on the shelf of that zone if the kitchen's {@link ShelfLayout} has one.
+     */
     enum Temperature {
         HOT,
         COLD,
-        FROZEN
+        FROZEN;
+
+        static final Temperature[] VALUES = values();
+
+        /**
+         * Get a temperature by its name, in any case.
+         *
+         * @param name name of the temperature, e.g. <code>hot</code>.
+         * @return the temperature, null if it's not hot, cold or frozen.
+         */
+        static Temperature forName(String name) {
+            for (Temperature temp : VALUES) {
+                if (temp.name().equalsIgnoreCase(name)) {
+                    return temp;
+                }
+            }
+            return null;
+        }
     }
 
     enum ShelfType {
         SINGLE_TEMPERATURE,
         OVERFLOW
     }
-}
\ No newline at end of file
+}
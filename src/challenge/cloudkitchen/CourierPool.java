@@ -0,0 +1,118 @@
+package challenge.cloudkitchen;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.function.ToIntFunction;
+
+/**
+ * A finite pool of couriers serving one kitchen, replacing the unlimited supply of couriers that come for every
+ * order on their own.
+ *
+ * <p>When an order is dispatched, it's matched right away with the pickup that takes it off its shelf soonest:
+ * either a pickup already planned that still has room for more orders, which then takes several orders in one
+ * trip, or a new pickup by the courier free first. A courier needs a travel time to get to the kitchen once free,
+ * and a trip time after a pickup to deliver its orders and be free again. Couriers are kept in a priority queue by
+ * the time they're free, open pickups in a priority queue by pickup time, so matching an order doesn't look at
+ * every courier or pickup.</p>
+ *
+ * <p>Pickup times are decided at dispatch, so the rest of the simulation is unchanged: an order is picked up at
+ * its pick-up time from whichever shelf it's on, if it's still there. The pool is thread safe.</p>
+ */
+public class CourierPool {
+
+    static class Courier {
+
+        int id;
+        // Time the courier is back from its last trip and could head to the kitchen
+        int timeFree;
+
+        Courier(int id) {
+            this.id = id;
+            this.timeFree = Integer.MIN_VALUE;
+        }
+    }
+
+    /**
+     * A planned visit of a courier to the kitchen, taking one or more orders.
+     */
+    static class Pickup {
+
+        int time;
+        int numOrders;
+
+        Pickup(int time) {
+            this.time = time;
+            this.numOrders = 1;
+        }
+    }
+
+    int batchSize;
+    // Draws the time a free courier takes to get to the kitchen
+    ToIntFunction<SplittableRandom> travelTime;
+    // Draws the time from a pickup to the courier being free again
+    Distribution tripTime;
+    PriorityQueue<Courier> couriers;
+    // Pickups that could still take more orders, by time
+    PriorityQueue<Pickup> openPickups;
+    Metrics metrics;
+
+    /**
+     * @param numCouriers number of couriers, at least 1.
+     * @param batchSize largest number of orders a courier picks up at once, at least 1.
+     * @param travelTime draws the number of seconds a free courier takes to get to the kitchen.
+     * @param tripTime distribution of the number of seconds from a pickup to the courier being free again.
+     * @param metrics metrics trips are recorded in.
+     */
+    public CourierPool(int numCouriers, int batchSize, ToIntFunction<SplittableRandom> travelTime,
+                       Distribution tripTime, Metrics metrics) {
+        if (numCouriers < 1 || batchSize < 1) {
+            throw new IllegalArgumentException(
+                    "Invalid courier pool: " + numCouriers + " couriers, batches of " + batchSize);
+        }
+        this.batchSize = batchSize;
+        this.travelTime = travelTime;
+        this.tripTime = tripTime;
+        this.couriers = new PriorityQueue<>(numCouriers,
+                Comparator.<Courier>comparingInt(courier -> courier.timeFree).thenComparingInt(courier -> courier.id));
+        for (int i = 0; i < numCouriers; i++) {
+            couriers.add(new Courier(i));
+        }
+        this.openPickups = new PriorityQueue<>(Comparator.comparingInt(pickup -> pickup.time));
+        this.metrics = metrics;
+    }
+
+    /**
+     * Match an order with a pickup.
+     *
+     * @param time time the order arrived on shelf.
+     * @param random random number generator to draw travel and trip times from.
+     * @return time the order is picked up, after its arrival.
+     */
+    public synchronized int assign(int time, SplittableRandom random) {
+        // Pickups already done can't take more orders
+        while (!openPickups.isEmpty() && openPickups.peek().time <= time) {
+            openPickups.poll();
+        }
+        Courier courier = couriers.peek();
+        int newPickupTime = Math.max(time, courier.timeFree) + travelTime.applyAsInt(random);
+        Pickup pickup = openPickups.peek();
+        if (pickup != null && pickup.time <= newPickupTime) {
+            pickup.numOrders++;
+            if (pickup.numOrders >= batchSize) {
+                openPickups.poll();
+            }
+            metrics.courierOrders.increment();
+            return pickup.time;
+        }
+        couriers.poll();
+        courier.timeFree = newPickupTime + (int) Math.max(0, Math.round(tripTime.sample(random)));
+        couriers.add(courier);
+        if (batchSize > 1) {
+            openPickups.add(new Pickup(newPickupTime));
+        }
+        metrics.courierTrips.increment();
+        metrics.courierOrders.increment();
+        return newPickupTime;
+    }
+}
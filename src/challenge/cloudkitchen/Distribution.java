@@ -0,0 +1,155 @@
+package challenge.cloudkitchen;
+
+import java.util.SplittableRandom;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A probability distribution of real values, sampled with a given random number generator so that the caller
+ * controls seeding and thread confinement.
+ *
+ * <p>Distributions could be written as text, e.g. in a properties file: <code>constant(v)</code>,
+ * <code>uniform(min,max)</code>, <code>exponential(mean)</code>, <code>normal(mean,sd)</code> and
+ * <code>poisson(mean)</code>, see {@link #parse(String)}. The text is also what {@link Object#toString()}
+ * returns.</p>
+ */
+public interface Distribution {
+
+    /**
+     * Draw a value.
+     *
+     * @param random random number generator to draw from.
+     * @return the value.
+     */
+    double sample(SplittableRandom random);
+
+    /**
+     * A distribution known by its text form.
+     */
+    class Named implements Distribution {
+
+        String spec;
+        ToDoubleFunction<SplittableRandom> sampler;
+
+        Named(String spec, ToDoubleFunction<SplittableRandom> sampler) {
+            this.spec = spec;
+            this.sampler = sampler;
+        }
+
+        @Override
+        public double sample(SplittableRandom random) {
+            return sampler.applyAsDouble(random);
+        }
+
+        @Override
+        public String toString() {
+            return spec;
+        }
+    }
+
+    static Distribution constant(double value) {
+        return new Named("constant(" + value + ")", random -> value);
+    }
+
+    static Distribution uniform(double min, double max) {
+        if (max < min) {
+            throw new IllegalArgumentException("Invalid uniform distribution: " + min + " > " + max);
+        }
+        return new Named("uniform(" + min + "," + max + ")",
+                random -> min + random.nextDouble() * (max - min));
+    }
+
+    static Distribution exponential(double mean) {
+        checkPositive("Mean", mean);
+        return new Named("exponential(" + mean + ")", random -> -mean * Math.log(1 - random.nextDouble()));
+    }
+
+    static Distribution normal(double mean, double sd) {
+        checkPositive("Standard deviation", sd);
+        return new Named("normal(" + mean + "," + sd + ")", random -> mean + sd * nextGaussian(random));
+    }
+
+    /**
+     * Number of events in a unit of time when they occur independently at a given mean rate. Counts are drawn
+     * exactly for small means and from the normal approximation above {@value Poisson#EXACT_LIMIT}, where it's
+     * within a fraction of a percent and doesn't cost time proportional to the mean.
+     */
+    static Distribution poisson(double mean) {
+        if (mean < 0) {
+            throw new IllegalArgumentException("Mean must not be negative: " + mean);
+        }
+        return new Named("poisson(" + mean + ")", random -> Poisson.sample(mean, random));
+    }
+
+    class Poisson {
+
+        static final double EXACT_LIMIT = 30;
+
+        static long sample(double mean, SplittableRandom random) {
+            if (mean > EXACT_LIMIT) {
+                return Math.max(0, Math.round(mean + Math.sqrt(mean) * nextGaussian(random)));
+            }
+            // Knuth: count uniform draws until their product drops below e^-mean
+            double limit = Math.exp(-mean);
+            double product = random.nextDouble();
+            long count = 0;
+            while (product > limit) {
+                product *= random.nextDouble();
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Parse the text form of a distribution.
+     *
+     * @param spec text form, e.g. <code>uniform(2,6)</code>. A bare number is a constant.
+     * @return the distribution.
+     * @throws IllegalArgumentException if the text is not a known distribution.
+     */
+    static Distribution parse(String spec) {
+        String text = spec.trim();
+        int open = text.indexOf('(');
+        if (open < 0) {
+            return constant(Double.parseDouble(text));
+        }
+        if (!text.endsWith(")")) {
+            throw new IllegalArgumentException("Invalid distribution: " + spec);
+        }
+        String name = text.substring(0, open).trim();
+        String[] args = text.substring(open + 1, text.length() - 1).split(",");
+        double[] values = new double[args.length];
+        for (int i = 0; i < args.length; i++) {
+            values[i] = Double.parseDouble(args[i].trim());
+        }
+        if (name.equals("constant") && values.length == 1) {
+            return constant(values[0]);
+        }
+        if (name.equals("uniform") && values.length == 2) {
+            return uniform(values[0], values[1]);
+        }
+        if (name.equals("exponential") && values.length == 1) {
+            return exponential(values[0]);
+        }
+        if (name.equals("normal") && values.length == 2) {
+            return normal(values[0], values[1]);
+        }
+        if (name.equals("poisson") && values.length == 1) {
+            return poisson(values[0]);
+        }
+        throw new IllegalArgumentException("Invalid distribution: " + spec);
+    }
+
+    /**
+     * Draw from the standard normal distribution with the Box-Muller transform.
+     */
+    static double nextGaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    static void checkPositive(String name, double value) {
+        if (!(value > 0)) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package challenge.cloudkitchen;
+
+/**
+ * Consumer of simulation events, called from the background thread of an {@link EventSink}.
+ */
+interface EventConsumer {
+
+    /**
+     * Consume an event. The event is reused once this method returns, so it must not be kept.
+     *
+     * @param event the event.
+     */
+    void accept(EventSink.Event event);
+
+    /**
+     * Called whenever there's no more event to consume for now.
+     */
+    void flush();
+}
@@ -0,0 +1,297 @@
+package challenge.cloudkitchen;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Structured events of a simulation, e.g. an order added to a shelf or a list of orders gone to waste, handed to an
+ * {@link EventConsumer} on a background thread.
+ *
+ * <p>Events are passed through a ring buffer of preallocated events, which are reused once consumed. Any thread
+ * could publish events: a publisher claims the next sequence number, fills in the event in the slot of that
+ * sequence number and publishes it. A single background thread hands published events to the consumer in sequence
+ * order. When the ring buffer is full, publishers wait for the consumer to catch up. Once it has run out of events
+ * for a while, the consumer parks until a publisher unparks it after publishing, instead of polling the ring.</p>
+ *
+ * <p>Every type of event has a level, events above the level of the sink are dropped before being claimed.
+ * Publishers should check {@link #isEnabled(Type)} before doing any work for an event, so that nothing is
+ * allocated or formatted when events are turned off.</p>
+ */
+public class EventSink {
+
+    enum Level {
+        OFF,
+        INFO,
+        DEBUG
+    }
+
+    enum Type {
+        TIMESTAMP(Level.INFO),
+        NEW_ORDERS(Level.INFO),
+        ORDERS_WASTED(Level.INFO),
+        ORDERS_DELIVERED(Level.INFO),
+        ORDER_DISCARDED(Level.INFO),
+        ORDER_ADDED(Level.DEBUG),
+        ORDER_REMOVED(Level.DEBUG),
+        // Moved off an overflow shelf, published after it's removed from the overflow shelf and added to its
+        // single temperature shelf
+        ORDER_MOVED(Level.DEBUG),
+        SHELF_CONTENT(Level.DEBUG);
+
+        final Level level;
+
+        Type(Level level) {
+            this.level = level;
+        }
+    }
+
+    static final int DEFAULT_RING_SIZE = 1 << 12;
+    private static final long MAX_IDLE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    // Number of times a waiting thread spins or yields before parking
+    private static final int MAX_BUSY_IDLE_COUNT = 200;
+
+    // Sink shared by all kitchens and shelves unless they're given another one
+    static final EventSink CONSOLE = new EventSink(new ConsoleEventWriter(System.out), DEFAULT_RING_SIZE, Level.DEBUG);
+    // Sink dropping all events
+    static final EventSink NONE = new EventSink(new ConsoleEventWriter(System.out), 1, Level.OFF);
+
+    /**
+     * An event, reused for another event once consumed. Consumers must not keep a reference to it.
+     */
+    static final class Event {
+
+        Type type;
+        // Shelf the event happened on, null for events of the whole kitchen
+        Shelf shelf;
+        int time;
+        int capacity;
+        int size;
+        Order[] orders = new Order[16];
+        int[] values = new int[16];
+        // Sequence number of the event while claimed, written to published once filled in
+        long claimed;
+        volatile long published = -1;
+
+        /**
+         * Add an order to the event.
+         *
+         * @param order the order.
+         * @param value a value attached to the order, e.g. its age.
+         */
+        void add(Order order, int value) {
+            if (size == orders.length) {
+                orders = Arrays.copyOf(orders, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            orders[size] = order;
+            values[size] = value;
+            size++;
+        }
+
+        void add(Order order) {
+            add(order, 0);
+        }
+
+        Type getType() {
+            return type;
+        }
+
+        Shelf getShelf() {
+            return shelf;
+        }
+
+        int getTime() {
+            return time;
+        }
+
+        int getCapacity() {
+            return capacity;
+        }
+
+        int size() {
+            return size;
+        }
+
+        Order getOrder(int index) {
+            return orders[index];
+        }
+
+        int getValue(int index) {
+            return values[index];
+        }
+
+        void clear() {
+            Arrays.fill(orders, 0, size, null);
+            shelf = null;
+            size = 0;
+        }
+    }
+
+    private final EventConsumer consumer;
+    private final Event[] ring;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    // Events before this sequence number have been consumed, their slots are free
+    private volatile long consumed;
+    // Events before this sequence number have been consumed and the consumer was flushed
+    private volatile long flushed;
+    private volatile Level level;
+    private volatile Thread consumerThread;
+    // Whether the consumer is parked, or about to park, until the next event is published
+    volatile boolean consumerParked;
+
+    /**
+     * @param consumer consumer of events.
+     * @param ringSize number of events that could wait for the consumer, a power of 2.
+     * @param level level of events to be published.
+     */
+    EventSink(EventConsumer consumer, int ringSize, Level level) {
+        if (Integer.bitCount(ringSize) != 1) {
+            throw new IllegalArgumentException("Ring size must be a power of 2: " + ringSize);
+        }
+        this.consumer = consumer;
+        this.ring = new Event[ringSize];
+        for (int i = 0; i < ringSize; i++) {
+            ring[i] = new Event();
+        }
+        this.mask = ringSize - 1;
+        this.level = level;
+    }
+
+    Level getLevel() {
+        return level;
+    }
+
+    void setLevel(Level level) {
+        this.level = level;
+    }
+
+    boolean isEnabled(Type type) {
+        return type.level.compareTo(level) <= 0 && level != Level.OFF;
+    }
+
+    /**
+     * Claim an event to be filled in and published with {@link #publish(Event)}. Every claimed event must be
+     * published, the consumer doesn't get past an event until it is.
+     *
+     * @param type type of the event.
+     * @param shelf shelf the event happened on, null if none.
+     * @param time current simulated time.
+     * @return the event, null if events of given type are turned off.
+     */
+    Event claim(Type type, Shelf shelf, int time) {
+        if (!isEnabled(type)) {
+            return null;
+        }
+        if (consumerThread == null) {
+            startConsumer();
+        }
+        long sequence = nextSequence.getAndIncrement();
+        int idleCount = 0;
+        while (sequence - consumed >= ring.length) {
+            idle(idleCount++);
+        }
+        Event event = ring[(int) sequence & mask];
+        event.claimed = sequence;
+        event.type = type;
+        event.shelf = shelf;
+        event.time = time;
+        event.capacity = 0;
+        return event;
+    }
+
+    /**
+     * Publish an event claimed with {@link #claim(Type, Shelf, int)}.
+     *
+     * @param event the event, null is ignored.
+     */
+    void publish(Event event) {
+        if (event != null) {
+            event.published = event.claimed;
+            // Written after published, and read before it by the consumer, so that either the consumer sees the
+            // event or the publisher sees the consumer parked
+            if (consumerParked) {
+                LockSupport.unpark(consumerThread);
+            }
+        }
+    }
+
+    /**
+     * Publish an event about a single order.
+     */
+    void publish(Type type, Shelf shelf, Order order) {
+        Event event = claim(type, shelf, 0);
+        if (event != null) {
+            event.add(order);
+            publish(event);
+        }
+    }
+
+    /**
+     * Wait until every event published so far has been consumed and the consumer has been flushed.
+     */
+    public void flush() {
+        long target = nextSequence.get();
+        int idleCount = 0;
+        while (flushed < target) {
+            idle(idleCount++);
+        }
+    }
+
+    private synchronized void startConsumer() {
+        if (consumerThread == null) {
+            consumerThread = new Thread(this::consume, "event-sink");
+            consumerThread.setDaemon(true);
+            consumerThread.start();
+        }
+    }
+
+    private void consume() {
+        long sequence = 0;
+        int idleCount = 0;
+        while (true) {
+            Event event = ring[(int) sequence & mask];
+            if (event.published != sequence) {
+                if (flushed < sequence) {
+                    consumer.flush();
+                    flushed = sequence;
+                }
+                if (idleCount < MAX_BUSY_IDLE_COUNT) {
+                    idle(idleCount++);
+                    continue;
+                }
+                consumerParked = true;
+                if (event.published != sequence) {
+                    LockSupport.park(this);
+                }
+                consumerParked = false;
+                continue;
+            }
+            idleCount = 0;
+            try {
+                consumer.accept(event);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            event.clear();
+            sequence++;
+            consumed = sequence;
+        }
+    }
+
+    /**
+     * Back off while waiting for another thread: spin first, then yield, then park for increasingly long. The
+     * consumer parks until it's unparked instead, see {@link #consume()}.
+     */
+    private static void idle(int idleCount) {
+        if (idleCount < MAX_BUSY_IDLE_COUNT / 2) {
+            Thread.onSpinWait();
+        } else if (idleCount < MAX_BUSY_IDLE_COUNT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(MAX_IDLE_NANOS, 1000L << Math.min(idleCount - MAX_BUSY_IDLE_COUNT, 10)));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package challenge.cloudkitchen;
+
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A policy choosing which order to discard from overflow shelf when room is needed and no order could be moved to
+ * a single temperature shelf.
+ *
+ * <p>A policy is an {@link OrderIndex} registered with the orders of one overflow shelf, so it always knows the
+ * orders on the shelf and could pick its victim without looking at all of them. The built-in policies are listed
+ * in {@link Type}; other policies could be set with {@link OverflowShelf#setEvictionPolicy(EvictionPolicy)}.</p>
+ */
+public interface EvictionPolicy extends OrderIndex {
+
+    /**
+     * Get the order to be discarded next, without removing it. The shelf removes it, which updates the index.
+     *
+     * @return order to be discarded, null if the shelf is empty.
+     */
+    Order selectVictim();
+
+    /**
+     * Built-in policies.
+     */
+    enum Type {
+        /**
+         * Any order, picked uniformly at random (as required by the challenge description).
+         */
+        RANDOM,
+        /**
+         * The order whose inherent value at its pick-up time is lowest. Orders going to waste before their courier
+         * comes have a value of 0 or below and are discarded first, as they would never be delivered anyway.
+         */
+        LOWEST_VALUE,
+        /**
+         * The order going to waste first on overflow shelf.
+         */
+        SOONEST_EXPIRY,
+        /**
+         * The order picked up last, which would take up a slot on the shelf the longest.
+         */
+        LATEST_PICK_UP;
+
+        /**
+         * Create a policy of this type for an overflow shelf.
+         *
+         * @param shelf the overflow shelf the policy picks victims from.
+         * @return the policy, to be registered with the orders of the shelf.
+         */
+        EvictionPolicy create(OverflowShelf shelf) {
+            switch (this) {
+                case LOWEST_VALUE:
+                    return new Indexed(order -> shelf.computeInherentValue(order, order.getTimePickedUp()));
+                case SOONEST_EXPIRY:
+                    return new Indexed(shelf::computeZeroValueTime);
+                case LATEST_PICK_UP:
+                    return new Indexed(order -> -order.getTimePickedUp());
+                default:
+                    return new Random(shelf);
+            }
+        }
+
+        /**
+         * Parse a policy type from the command line, e.g. <code>lowest-value</code> or <code>LOWEST_VALUE</code>.
+         *
+         * @param name name of the policy, case insensitive, with dashes or underscores.
+         * @return the policy type.
+         * @throws IllegalArgumentException if there's no such policy.
+         */
+        static Type parse(String name) {
+            return valueOf(name.trim().replace('-', '_').toUpperCase());
+        }
+
+        @Override
+        public String toString() {
+            return name().toLowerCase().replace('_', '-');
+        }
+    }
+
+    /**
+     * A policy discarding the order with smallest key, kept in a heap. The key of an order only depends on the
+     * order and the shelf, so it's computed once when the order is placed, and the victim is found in constant time
+     * and removed in O(log n) time.
+     */
+    class Indexed extends OrderHeap implements EvictionPolicy {
+
+        Indexed(ToDoubleFunction<Order> keyFunction) {
+            super(keyFunction);
+        }
+
+        @Override
+        public Order selectVictim() {
+            return peek();
+        }
+    }
+
+    /**
+     * A policy discarding a random order. It needs no index, any position of the shelf's dense array of orders
+     * is a victim.
+     */
+    class Random implements EvictionPolicy {
+
+        OverflowShelf shelf;
+
+        Random(OverflowShelf shelf) {
+            this.shelf = shelf;
+        }
+
+        @Override
+        public Order selectVictim() {
+            int size = shelf.currentOrders.size();
+            return size == 0 ? null : shelf.currentOrders.get(shelf.random.nextInt(size));
+        }
+
+        @Override
+        public void onAdd(Order order) {
+        }
+
+        @Override
+        public void onRemove(Order order) {
+        }
+
+        @Override
+        public void onClear() {
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A simulator for a fleet of kitchens, each with its own shelves and counters, simulated in parallel.
+ *
+ * <p>Incoming orders are sharded by kitchen based on their id, so an order always goes to the same kitchen.
+ * Each kitchen is driven by its own {@link OrdersSimulator} on a dedicated thread and pulls its shard from a
+ * bounded queue, which the calling thread fills while reading the order source. Counters of all kitchens are
+ * merged when every kitchen has finished.</p>
+ */
+public class FleetSimulator {
+
+    static final int SHARD_QUEUE_CAPACITY = 4096;
+
+    List<OrdersSimulator> simulators;
+    // Kitchens driven by the simulators, in the same order
+    List<Kitchen> kitchens;
+    List<QueueOrderSource> shards;
+
+    int numDelivered;
+    int numDiscarded;
+    int numWasted;
+
+    public FleetSimulator(int numKitchens, int ingestionRate, boolean virtualClock) {
+        this(numKitchens, ingestionRate, virtualClock, new KitchenConfig());
+    }
+
+    public FleetSimulator(int numKitchens, int ingestionRate, boolean virtualClock, KitchenConfig config) {
+        simulators = new ArrayList<>(numKitchens);
+        kitchens = new ArrayList<>(numKitchens);
+        shards = new ArrayList<>(numKitchens);
+        for (int i = 0; i < numKitchens; i++) {
+            QueueOrderSource shard = new QueueOrderSource(SHARD_QUEUE_CAPACITY);
+            shards.add(shard);
+            OrdersSimulator simulator = new OrdersSimulator(ingestionRate, shard, virtualClock, config);
+            simulators.add(simulator);
+            kitchens.add(simulator.kitchen);
+        }
+        numDelivered = 0;
+        numDiscarded = 0;
+        numWasted = 0;
+    }
+
+    /**
+     * Seed the random number generators of all kitchens. Every kitchen gets its own stream split from the seed, so
+     * kitchens don't share random state and a run is reproducible as long as each kitchen gets the same orders.
+     *
+     * @param seed seed of the fleet.
+     */
+    public void setSeed(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        for (Kitchen kitchen : kitchens) {
+            kitchen.setRandom(random.split());
+        }
+    }
+
+    /**
+     * Executing the simulation of all kitchens and print the merged summary.
+     *
+     * @param source source of orders for all kitchens.
+     * @throws InterruptedException when the program is interrupted while waiting for kitchens.
+     */
+    public void run(OrderSource source) throws InterruptedException {
+        simulate(source);
+        printAnalytics();
+    }
+
+    /**
+     * Executing the simulation of all kitchens without printing the summary, see {@link #run(OrderSource)}.
+     *
+     * @param source source of orders for all kitchens.
+     * @throws InterruptedException when the program is interrupted while waiting for kitchens.
+     */
+    void simulate(OrderSource source) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(simulators.size());
+        List<Future<?>> results = new ArrayList<>();
+        for (int i = 0; i < simulators.size(); i++) {
+            OrdersSimulator simulator = simulators.get(i);
+            QueueOrderSource shard = shards.get(i);
+            results.add(executor.submit(() -> {
+                try {
+                    simulator.simulate();
+                } catch (InterruptedException | RuntimeException e) {
+                    shard.abandon();
+                    throw e;
+                }
+                return null;
+            }));
+        }
+        try {
+            while (source.hasNext()) {
+                Order order = source.next();
+                if (order != null) {
+                    shards.get(getKitchenIndex(order)).put(order);
+                }
+            }
+        } finally {
+            for (QueueOrderSource shard : shards) {
+                shard.finish();
+            }
+            executor.shutdown();
+        }
+        for (Future<?> result : results) {
+            try {
+                result.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Kitchen simulation failed", e.getCause());
+            }
+        }
+        for (Kitchen kitchen : kitchens) {
+            numDelivered += kitchen.getNumDelivered();
+            numDiscarded += kitchen.getNumDiscarded();
+            numWasted += kitchen.getNumWasted();
+        }
+    }
+
+    /**
+     * Get the kitchen an order is sent to.
+     *
+     * @param order the order.
+     * @return index of the kitchen.
+     */
+    int getKitchenIndex(Order order) {
+        return Math.floorMod(order.getId().hashCode(), kitchens.size());
+    }
+
+    void printAnalytics() {
+        for (Kitchen kitchen : kitchens) {
+            kitchen.eventSink.flush();
+        }
+        System.out.println("=========================================================");
+        System.out.println("SUMMARY (" + kitchens.size() + " kitchens):");
+        System.out.println("Overflow eviction policy: " + kitchens.get(0).getConfig().getEvictionPolicy());
+        System.out.println("Number of orders picked up: " + numDelivered);
+        System.out.println("Number of orders discarded to make room: " + numDiscarded);
+        System.out.println("Number of orders wasted and discarded: " + numWasted);
+        if (kitchens.get(0).courierPool != null) {
+            long numTrips = 0;
+            long numOrders = 0;
+            for (Kitchen kitchen : kitchens) {
+                numTrips += kitchen.metrics.courierTrips.sum();
+                numOrders += kitchen.metrics.courierOrders.sum();
+            }
+            Kitchen.printCourierTrips(numTrips, numOrders);
+        }
+    }
+}
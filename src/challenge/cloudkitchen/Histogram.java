@@ -0,0 +1,139 @@
+package challenge.cloudkitchen;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of non-negative long values with bounded relative error, in the manner of HdrHistogram.
+ *
+ * <p>Values below {@code 2^SUB_BUCKET_BITS} are counted exactly. Above, every power of 2 is split into
+ * {@code 2^(SUB_BUCKET_BITS - 1)} buckets of equal width, so a value is reported within about 3% of what was
+ * recorded, whatever its magnitude. The whole range of long values takes a fixed array of less than 2000
+ * counts.</p>
+ *
+ * <p>Recording is lock-free and could be done from many threads. Statistics read while values are being recorded
+ * are approximate.</p>
+ */
+public class Histogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    static final int HALF_SUB_BUCKET_COUNT = SUB_BUCKET_COUNT >> 1;
+
+    AtomicLongArray counts;
+    LongAdder count;
+    LongAdder sum;
+    AtomicLong min;
+    AtomicLong max;
+
+    public Histogram() {
+        counts = new AtomicLongArray(getIndex(Long.MAX_VALUE) + 1);
+        count = new LongAdder();
+        sum = new LongAdder();
+        min = new AtomicLong(Long.MAX_VALUE);
+        max = new AtomicLong(0);
+    }
+
+    /**
+     * Record a value. Negative values are recorded as 0.
+     *
+     * @param value the value.
+     */
+    public void record(long value) {
+        value = Math.max(value, 0);
+        counts.incrementAndGet(getIndex(value));
+        count.increment();
+        sum.add(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Add all values recorded by another histogram, e.g. to merge histograms filled in by separate threads.
+     *
+     * @param other the other histogram, which must not be recording at the same time.
+     */
+    public void add(Histogram other) {
+        for (int i = 0; i < counts.length(); i++) {
+            long n = other.counts.get(i);
+            if (n != 0) {
+                counts.addAndGet(i, n);
+            }
+        }
+        if (other.getCount() != 0) {
+            count.add(other.count.sum());
+            sum.add(other.sum.sum());
+            min.accumulateAndGet(other.min.get(), Math::min);
+            max.accumulateAndGet(other.max.get(), Math::max);
+        }
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return smallest value recorded, 0 if none.
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return mean of values recorded, 0 if none.
+     */
+    public double getMean() {
+        long n = getCount();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Get the value below which given percentage of recorded values fall.
+     *
+     * @param percentile percentage between 0 and 100.
+     * @return highest value equivalent to the recorded value at given percentile, 0 if no value was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long n = getCount();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100 * n));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(getHighestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Get the index of the bucket a value is counted in.
+     */
+    static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return shift * HALF_SUB_BUCKET_COUNT + (int) (value >>> shift);
+    }
+
+    /**
+     * Get the highest value counted in a bucket.
+     */
+    static long getHighestValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / HALF_SUB_BUCKET_COUNT - 1;
+        long subBucket = index - (long) shift * HALF_SUB_BUCKET_COUNT;
+        return ((subBucket + 1) << shift) - 1;
+    }
+}
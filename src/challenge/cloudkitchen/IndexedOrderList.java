@@ -0,0 +1,192 @@
+package challenge.cloudkitchen;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * A list of orders indexed by order id, used by shelves to keep track of the orders currently on them.
+ *
+ * <p>Orders are kept in a dense array so that they could be accessed by position, e.g. to pick a random order.
+ * A hash map from order id to position allows looking up, checking and removing an order in constant time.
+ * Removing an order moves the last order of the list into the freed position, hence the list doesn't preserve
+ * insertion order after removals.</p>
+ *
+ * <p>An order id could only appear once in the list.</p>
+ *
+ * <p>Secondary indexes, e.g. orders sorted by expiry time, could be registered with {@link #addIndex(OrderIndex)}
+ * and are kept up to date on every change to the list.</p>
+ */
+public class IndexedOrderList extends AbstractList<Order> implements RandomAccess {
+
+    Order[] orders;
+    int size;
+    Map<String, Integer> positions;
+    List<OrderIndex> indexes;
+
+    public IndexedOrderList() {
+        this(10);
+    }
+
+    public IndexedOrderList(int initialCapacity) {
+        orders = new Order[Math.max(initialCapacity, 1)];
+        size = 0;
+        positions = new HashMap<>();
+        indexes = new ArrayList<>();
+    }
+
+    /**
+     * Register a secondary index. Orders already in the list are added to the index right away.
+     *
+     * @param index the index to be kept up to date with this list.
+     */
+    public void addIndex(OrderIndex index) {
+        indexes.add(index);
+        for (int i = 0; i < size; i++) {
+            index.onAdd(orders[i]);
+        }
+    }
+
+    /**
+     * Unregister a secondary index, which is no longer kept up to date.
+     *
+     * @param index the index registered with {@link #addIndex(OrderIndex)}.
+     */
+    public void removeIndex(OrderIndex index) {
+        indexes.remove(index);
+    }
+
+    @Override
+    public Order get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return orders[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Append an order to the list.
+     *
+     * @param order the order to be added.
+     * @return true
+     * @throws IllegalArgumentException if an order with the same id is already in the list.
+     */
+    @Override
+    public boolean add(Order order) {
+        if (positions.putIfAbsent(order.getId(), size) != null) {
+            throw new IllegalArgumentException("Order already in list: " + order.getId());
+        }
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+        }
+        orders[size++] = order;
+        modCount++;
+        for (OrderIndex index : indexes) {
+            index.onAdd(order);
+        }
+        return true;
+    }
+
+    /**
+     * Remove the order at given position. The last order of the list takes its place.
+     *
+     * @param index position of the order to be removed.
+     * @return the removed order.
+     */
+    @Override
+    public Order remove(int index) {
+        Order order = get(index);
+        positions.remove(order.getId());
+        int last = --size;
+        if (index != last) {
+            orders[index] = orders[last];
+            positions.put(orders[index].getId(), index);
+        }
+        orders[last] = null;
+        modCount++;
+        for (OrderIndex orderIndex : indexes) {
+            orderIndex.onRemove(order);
+        }
+        return order;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        int index = indexOf(o);
+        if (index < 0) {
+            return false;
+        }
+        remove(index);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        boolean changed = false;
+        for (Object o : c) {
+            changed |= remove(o);
+        }
+        return changed;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        if (!(o instanceof Order)) {
+            return -1;
+        }
+        Integer index = positions.get(((Order)o).getId());
+        return index != null && orders[index] == o ? index : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o) >= 0;
+    }
+
+    /**
+     * Check if an order with given id is in the list.
+     *
+     * @param id id of the order.
+     * @return true if the list has an order with given id, false otherwise.
+     */
+    public boolean containsId(String id) {
+        return positions.containsKey(id);
+    }
+
+    /**
+     * Get an order by its id.
+     *
+     * @param id id of the order.
+     * @return the order with given id, null if it's not in the list.
+     */
+    public Order getById(String id) {
+        Integer index = positions.get(id);
+        return index == null ? null : orders[index];
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(orders, 0, size, null);
+        size = 0;
+        positions.clear();
+        modCount++;
+        for (OrderIndex index : indexes) {
+            index.onClear();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package challenge.cloudkitchen;
+
+import org.json.simple.JSONObject;
+import org.json.simple.parser.ContentHandler;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+
+/**
+ * An order source streaming orders from a JSON array of orders, in the format parsed by
+ * {@link Order#fromJsonObject(JSONObject)}.
+ *
+ * <p>The input is tokenized incrementally with json-simple's SAX-like parser. Parsing pauses after each order
+ * and resumes when the next one is requested, so only one order is held in memory at a time, no matter how large
+ * the input is.</p>
+ */
+public class JsonOrderSource implements OrderSource, ContentHandler {
+
+    Reader reader;
+    JSONParser parser;
+    boolean started;
+    boolean finished;
+    // Depth of nested JSON objects, orders are the objects at depth 1
+    int depth;
+    JSONObject currentObject;
+    String currentKey;
+    Order nextOrder;
+
+    public JsonOrderSource(Reader reader) {
+        this.reader = reader;
+        this.parser = new JSONParser();
+        this.started = false;
+        this.finished = false;
+        this.depth = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextOrder == null && !finished) {
+            fetch();
+        }
+        return nextOrder != null;
+    }
+
+    @Override
+    public Order next() {
+        if (!hasNext()) {
+            return null;
+        }
+        Order order = nextOrder;
+        nextOrder = null;
+        return order;
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resume parsing until the next order is complete or the input ends.
+     */
+    void fetch() {
+        try {
+            while (nextOrder == null && !finished) {
+                parser.parse(reader, this, started);
+                started = true;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid order input: " + e, e);
+        }
+    }
+
+    @Override
+    public void startJSON() {
+    }
+
+    @Override
+    public void endJSON() {
+        finished = true;
+    }
+
+    @Override
+    public boolean startObject() {
+        depth++;
+        if (depth == 1) {
+            currentObject = new JSONObject();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean endObject() {
+        depth--;
+        if (depth == 0) {
+            nextOrder = Order.fromJsonObject(currentObject);
+            currentObject = null;
+            // Pause parsing until the next order is requested
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public boolean startObjectEntry(String key) {
+        currentKey = key;
+        return true;
+    }
+
+    @Override
+    public boolean endObjectEntry() {
+        return true;
+    }
+
+    @Override
+    public boolean startArray() {
+        return true;
+    }
+
+    @Override
+    public boolean endArray() {
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean primitive(Object value) {
+        if (depth == 1) {
+            currentObject.put(currentKey, value);
+        }
+        return true;
+    }
+}
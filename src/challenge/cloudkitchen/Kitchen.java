@@ -0,0 +1,748 @@
+package challenge.cloudkitchen;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import javax.management.JMException;
+
+import challenge.cloudkitchen.Constants.*;
+
+/**
+ * A kitchen owns a set of shelves, places incoming orders on them and keeps count of how orders leave them:
+ * picked up, discarded to make room or wasted.
+ *
+ * <p>Shelves are laid out by the {@link ShelfLayout} of the config: by default, one shelf each for hot, cold and
+ * frozen orders plus an overflow shelf. Orders are routed to the shelf of their temperature through a table
+ * indexed by the temperature zones of the layout.</p>
+ *
+ * <p>A kitchen doesn't keep time by itself. It's driven by the {@link OrdersSimulator} holding it, which tells it
+ * when orders arrive and when to check for wasted and delivered orders, and follows its orders through an
+ * {@link OrderListener}. A kitchen is not thread safe, but separate kitchens
+ * don't share any state and could be simulated in parallel, see {@link FleetSimulator}.</p>
+ */
+public class Kitchen {
+
+    KitchenConfig config;
+    ShelfLayout layout;
+    // All shelves, in the order of the layout
+    List<Shelf> shelves;
+    // Single temperature shelves by temperature zone, null for zones without a shelf
+    Shelf[] shelvesByTemp;
+    // Overflow shelves in the order they're filled, the first one is where orders are discarded to make room
+    List<OverflowShelf> overflowShelves;
+    // Shelves of the standard temperatures, null if not in the layout
+    Shelf hotShelf;
+    Shelf coldShelf;
+    Shelf frozenShelf;
+    OverflowShelf overflowShelf;
+    // Number of orders on all shelves, kept up to date by an index on every shelf
+    AtomicInteger numOrdersOnShelves = new AtomicInteger();
+    // Orders bucketed by pick-up time, shared by all shelves
+    TimingWheel<Order> pickupWheel = new TimingWheel<>();
+    List<Order> pickedUpOrders = new ArrayList<>();
+    EventSink eventSink = EventSink.CONSOLE;
+    // Draws pick-up times, not thread-safe, see setRandom(SplittableRandom)
+    SplittableRandom random = new SplittableRandom();
+    Metrics metrics = new Metrics();
+    // Writes snapshots of metrics, null if not exported to a file
+    MetricsReporter metricsReporter;
+    // Writes events to a binary trace instead of the console, null if not traced
+    TraceWriter traceWriter;
+    // Slots freed on single temperature shelves since the last promotion, by temperature zone. Null if orders
+    // are not promoted from overflow shelf. Updated by whichever thread cleans up a shelf.
+    AtomicIntegerArray freedSlots;
+    // Couriers orders are matched with, null if a courier comes for every order
+    CourierPool courierPool;
+    // Notified of orders dispatched and placed, e.g. by the simulator driving the kitchen, null if none
+    OrderListener orderListener;
+
+    int numDelivered;
+    int numDiscarded;
+    int numWasted;
+
+    /**
+     * Listener notified of what happens to orders in a kitchen, e.g. to schedule the events of a simulator's clock.
+     */
+    interface OrderListener {
+
+        /**
+         * Called after a courier has been dispatched to pick up an order.
+         *
+         * @param order the order to be picked up.
+         */
+        void onOrderDispatched(Order order);
+
+        /**
+         * Called after an order has been placed on a shelf, either on arrival or when moved from overflow shelf.
+         *
+         * @param order the order that was placed.
+         * @param shelf shelf the order was placed on.
+         */
+        void onOrderPlaced(Order order, Shelf shelf);
+    }
+
+    public Kitchen() {
+        this(new KitchenConfig());
+    }
+
+    public Kitchen(KitchenConfig config) {
+        this.config = config.copy();
+        this.layout = this.config.getShelfLayout();
+        this.shelves = new ArrayList<>();
+        this.shelvesByTemp = new Shelf[layout.getNumZones()];
+        this.overflowShelves = new ArrayList<>();
+        for (ShelfLayout.ShelfSpec spec : layout.getShelves()) {
+            Shelf shelf;
+            if (spec.isOverflow()) {
+                OverflowShelf overflow = new OverflowShelf(spec.capacity, spec.decayModifier,
+                        this.config.getEvictionPolicy(), layout);
+                overflow.name = spec.name;
+                overflowShelves.add(overflow);
+                shelf = overflow;
+            } else {
+                shelf = createSingleTemperatureShelf(spec.temp, spec.capacity, spec.decayModifier);
+                shelvesByTemp[spec.zone] = shelf;
+            }
+            shelves.add(shelf);
+            addShelf(shelf, spec.name);
+        }
+        this.hotShelf = getShelf(Temperature.HOT);
+        this.coldShelf = getShelf(Temperature.COLD);
+        this.frozenShelf = getShelf(Temperature.FROZEN);
+        this.overflowShelf = overflowShelves.get(0);
+        if (this.config.isPromoteFromOverflow()) {
+            freedSlots = new AtomicIntegerArray(shelvesByTemp.length);
+            for (Shelf shelf : shelvesByTemp) {
+                if (shelf instanceof SingleTemperatureShelf) {
+                    ((SingleTemperatureShelf) shelf).freeSlotListener = this::onSlotsFreed;
+                }
+            }
+        }
+        if (this.config.getNumCouriers() > 0) {
+            courierPool = new CourierPool(this.config.getNumCouriers(), this.config.getCourierBatchSize(),
+                    this::drawTimeToPickUp, this.config.getCourierTripTime(), metrics);
+        }
+        this.numDelivered = 0;
+        this.numDiscarded = 0;
+        this.numWasted = 0;
+    }
+
+    Shelf createSingleTemperatureShelf(String temp, int capacity, int decayModifier) {
+        return new SingleTemperatureShelf(temp, capacity, decayModifier);
+    }
+
+    /**
+     * Wire a shelf into the kitchen: metrics, occupancy gauge and count of orders on shelves.
+     *
+     * @param shelf the shelf, already in the list of shelves.
+     * @param name name of the shelf in the layout.
+     */
+    void addShelf(Shelf shelf, String name) {
+        shelf.metrics = metrics;
+        shelf.eventSink = eventSink;
+        shelf.currentOrders.addIndex(new OrderIndex() {
+            int count = 0;
+
+            @Override
+            public void onAdd(Order order) {
+                count++;
+                numOrdersOnShelves.incrementAndGet();
+            }
+
+            @Override
+            public void onRemove(Order order) {
+                count--;
+                numOrdersOnShelves.decrementAndGet();
+            }
+
+            @Override
+            public void onClear() {
+                numOrdersOnShelves.addAndGet(-count);
+                count = 0;
+            }
+        });
+        metrics.gauge("shelf." + name + ".occupancy", shelf::getNumOrders);
+    }
+
+    /**
+     * Replace an overflow shelf of the layout, e.g. by one that's safe to share between threads, before any order
+     * is placed. Orders on a shelf that doesn't keep its orders in an {@link IndexedOrderList} are not counted by
+     * {@link #countNumOrdersOnShelves()}.
+     *
+     * @param index index of the overflow shelf, 0 for the one room is made on.
+     * @param shelf the new shelf.
+     */
+    void replaceOverflowShelf(int index, OverflowShelf shelf) {
+        OverflowShelf previous = overflowShelves.set(index, shelf);
+        shelf.name = previous.name;
+        shelves.set(shelves.indexOf(previous), shelf);
+        addShelf(shelf, shelf.name);
+        if (index == 0) {
+            overflowShelf = shelf;
+        }
+    }
+
+    public KitchenConfig getConfig() {
+        return config;
+    }
+
+    public int getNumDelivered() {
+        return numDelivered;
+    }
+
+    public int getNumDiscarded() {
+        return numDiscarded;
+    }
+
+    public int getNumWasted() {
+        return numWasted;
+    }
+
+    /**
+     * Set the sink events of this kitchen and its shelves are published to.
+     *
+     * @param eventSink the event sink.
+     */
+    void setEventSink(EventSink eventSink) {
+        this.eventSink = eventSink;
+        for (Shelf shelf : shelves) {
+            shelf.eventSink = eventSink;
+        }
+    }
+
+    /**
+     * Set the random number generator of this kitchen, e.g. a seeded one to make runs reproducible. Every overflow
+     * shelf gets its own stream split from it, so that they don't share state.
+     *
+     * @param random random number generator, only used by the thread driving the kitchen.
+     */
+    void setRandom(SplittableRandom random) {
+        this.random = random;
+        for (OverflowShelf shelf : overflowShelves) {
+            shelf.random = random.split();
+        }
+    }
+
+    /**
+     * Export metrics of this kitchen through JMX and, optionally, to a file.
+     *
+     * @param name name of the kitchen among the kitchens of this process.
+     * @param file path of the file snapshots of metrics are written to, null if none.
+     * @param interval number of simulated seconds between snapshots.
+     * @throws JMException if the metrics couldn't be registered with JMX.
+     * @throws IOException if the file couldn't be created.
+     */
+    void exportMetrics(String name, Path file, int interval) throws JMException, IOException {
+        MetricsDynamicMBean.register(metrics, name);
+        if (file != null) {
+            metricsReporter = new MetricsReporter(metrics, file, interval);
+        }
+    }
+
+    /**
+     * Write every event of this kitchen to a binary trace instead of the console, see {@link TraceWriter}.
+     *
+     * @param file path of the trace, overwritten if it already exists.
+     * @throws IOException if the file couldn't be created.
+     */
+    void traceEvents(Path file) throws IOException {
+        traceWriter = new TraceWriter(file);
+        setEventSink(new EventSink(traceWriter, EventSink.DEFAULT_RING_SIZE, EventSink.Level.DEBUG));
+    }
+
+    void closeMetrics() throws IOException {
+        if (metricsReporter != null) {
+            metricsReporter.close();
+        }
+        if (traceWriter != null) {
+            eventSink.flush();
+            traceWriter.close();
+        }
+    }
+
+    /**
+     * Called at the end of every simulated second that was processed.
+     *
+     * @param time current simulated time.
+     * @param startNanos value of System.nanoTime() when processing of the second started.
+     */
+    void endTick(int time, long startNanos) {
+        metrics.tickTime.record((System.nanoTime() - startNanos) / 1000);
+        if (metricsReporter != null) {
+            metricsReporter.onTick(time);
+        }
+    }
+
+    void printAnalytics() {
+        eventSink.flush();
+        System.out.println("=========================================================");
+        System.out.println("SUMMARY:");
+        System.out.println("Overflow eviction policy: " + config.getEvictionPolicy());
+        System.out.println("Number of orders picked up: " + numDelivered);
+        System.out.println("Number of orders discarded to make room: " + numDiscarded);
+        System.out.println("Number of orders wasted and discarded: " + numWasted);
+        if (courierPool != null) {
+            printCourierTrips(metrics.courierTrips.sum(), metrics.courierOrders.sum());
+        }
+    }
+
+    static void printCourierTrips(long numTrips, long numOrders) {
+        System.out.printf("Number of courier trips: %d (%.2f orders per trip)%n",
+                numTrips, numTrips == 0 ? 0 : (double) numOrders / numTrips);
+    }
+
+    /**
+     * Check if the kitchen can't place any order without discarding another one.
+     *
+     * @return true if all shelves are full, false otherwise.
+     */
+    boolean isSaturated() {
+        for (Shelf shelf : shelves) {
+            if (shelf.isAvailable()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    boolean hasNonEmptyShelf() {
+        return countNumOrdersOnShelves() > 0;
+    }
+
+    /**
+     * Print contents of all shelves to console.
+     */
+    void printShelfContent() {
+        for (Shelf shelf : shelves) {
+            shelf.printShelfContent();
+        }
+    }
+
+    /**
+     * Check and clean up orders whose inherent values reach 0.
+     *
+     * @param time current simulated time.
+     */
+    void checkWastedOrder(int time) {
+        int wasted = 0;
+        for (Shelf shelf : shelves) {
+            wasted += shelf.cleanUpWastedOrders(time);
+        }
+        numWasted += wasted;
+        metrics.wasted.add(wasted);
+        promoteFromOverflow(time);
+    }
+
+    /**
+     * Check and clean up delivered orders. Only orders whose pick-up time is due are looked at, they're removed
+     * from whichever shelf they're on. Orders which were discarded or wasted before pick-up are ignored.
+     *
+     * @param time current simulated time.
+     */
+    void checkDeliveredOrder(int time) {
+        pickupWheel.advance(time, pickedUpOrders);
+        if (pickedUpOrders.isEmpty()) {
+            return;
+        }
+        int delivered = 0;
+        for (Shelf shelf : shelves) {
+            delivered += shelf.cleanUpDeliveredOrders(pickedUpOrders, time);
+        }
+        numDelivered += delivered;
+        metrics.delivered.add(delivered);
+        promoteFromOverflow(time);
+    }
+
+    /**
+     * Count total number of orders currently on all shelves. The count is kept up to date as orders are added to
+     * and removed from shelves, nothing is walked through.
+     *
+     * @return total number of orders currently on all shelves.
+     */
+    int countNumOrdersOnShelves() {
+        return numOrdersOnShelves.get();
+    }
+
+    /**
+     * Ingest orders to correct shelves.
+     *
+     * <p>The batch is placed in one pass: orders are grouped by temperature and each group is added to its single
+     * temperature shelf at once. Orders that don't fit, or whose temperature has no shelf, go to overflow shelves
+     * together, and the room they need on overflow shelf is made for all of them at once, see
+     * {@link #makeRoomOnOverflowShelf(int, int)}.</p>
+     *
+     * @param orders list of orders to be ingested.
+     * @param time current simulated time.
+     */
+    void ingest(List<Order> orders, int time) {
+        EventSink.Event newOrders = eventSink.claim(EventSink.Type.NEW_ORDERS, null, time);
+        if (newOrders != null) {
+            for (Order order : orders) {
+                newOrders.add(order);
+            }
+            eventSink.publish(newOrders);
+        }
+        List<List<Order>> batches = new ArrayList<>(shelvesByTemp.length);
+        for (int i = 0; i < shelvesByTemp.length; i++) {
+            batches.add(new ArrayList<>());
+        }
+        List<Order> overflowBatch = new ArrayList<>();
+        for (Order order : orders) {
+            order.arrive(time);
+            dispatch(order, time);
+            onOrderDispatched(order);
+            int zone = layout.getZone(order);
+            if (zone < 0 || shelvesByTemp[zone] == null) {
+                overflowBatch.add(order);
+            } else {
+                batches.get(zone).add(order);
+            }
+        }
+        for (int i = 0; i < shelvesByTemp.length; i++) {
+            List<Order> batch = batches.get(i);
+            if (!batch.isEmpty()) {
+                overflowBatch.addAll(placeAll(batch, shelvesByTemp[i]));
+            }
+        }
+        if (!overflowBatch.isEmpty()) {
+            placeOnOverflowShelf(overflowBatch, time);
+        }
+    }
+
+    /**
+     * Add a batch of orders to a shelf and notify the orders that were placed.
+     *
+     * @param orders orders to be added.
+     * @param shelf the shelf.
+     * @return orders that were not added, in the order of the batch.
+     */
+    List<Order> placeAll(List<Order> orders, Shelf shelf) {
+        List<Order> rejected = shelf.addAll(orders);
+        int next = 0;
+        for (Order order : orders) {
+            if (next < rejected.size() && rejected.get(next) == order) {
+                next++;
+            } else {
+                onOrderPlaced(order, shelf);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Place a batch of orders on overflow shelves, in order, making room for the orders that don't fit on any and
+     * placing them again. When more orders arrive at once than overflow shelves could ever hold, the orders left
+     * over are discarded right away.
+     *
+     * @param orders orders to be placed.
+     * @param time current simulated time.
+     */
+    void placeOnOverflowShelf(List<Order> orders, int time) {
+        List<Order> rejected = placeOnOverflowShelves(orders);
+        if (rejected.isEmpty()) {
+            return;
+        }
+        makeRoomOnOverflowShelf(time, rejected.size());
+        for (Order order : placeOnOverflowShelves(rejected)) {
+            numDiscarded++;
+            metrics.discarded.increment();
+            eventSink.publish(EventSink.Type.ORDER_DISCARDED, overflowShelf, order);
+        }
+    }
+
+    List<Order> placeOnOverflowShelves(List<Order> orders) {
+        List<Order> rejected = orders;
+        for (OverflowShelf shelf : overflowShelves) {
+            rejected = placeAll(rejected, shelf);
+            if (rejected.isEmpty()) {
+                break;
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Dispatch a courier to pick up an order.
+     *
+     * @param order the order to be picked up.
+     * @param time time that the order arrived on shelf.
+     */
+    void dispatch(Order order, int time) {
+        order.setTimePickedUp(drawPickUpTime(time, random));
+        pickupWheel.schedule(order, order.getTimePickedUp());
+    }
+
+    /**
+     * Draw the time an order is picked up: a courier of the pool is matched with it if the kitchen has one,
+     * otherwise its own courier comes after {@link #drawTimeToPickUp(SplittableRandom)}.
+     *
+     * @param time time that the order arrived on shelf.
+     * @param random random number generator to draw from.
+     * @return time of pick-up.
+     */
+    int drawPickUpTime(int time, SplittableRandom random) {
+        if (courierPool != null) {
+            return courierPool.assign(time, random);
+        }
+        return time + drawTimeToPickUp(random);
+    }
+
+    /**
+     * Draw the time a courier takes to pick up an order, from the distribution of the config if set, uniformly
+     * from its range otherwise.
+     *
+     * @param random random number generator to draw from.
+     * @return number of seconds before pick-up.
+     */
+    int drawTimeToPickUp(SplittableRandom random) {
+        Distribution pickUpDelay = config.getPickUpDelay();
+        if (pickUpDelay == null) {
+            return random.nextInt(config.getMinTimePickUp(), config.getMaxTimePickUp() + 1);
+        }
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE / 2, Math.round(pickUpDelay.sample(random))));
+    }
+
+    /**
+     * Move an order from an overflow shelf to a single temperature shelf or discard an order from the first overflow
+     * shelf to make room.
+     * When shelves are shared between threads, the caller must hold the lock of the first overflow shelf.
+     */
+    void makeRoomOnOverflowShelf(int time) {
+        makeRoomOnOverflowShelf(time, 1);
+    }
+
+    /**
+     * Make room for several orders on overflow shelves. Orders are moved from any overflow shelf to single
+     * temperature shelves as long as one could be, then orders chosen by the eviction policy of the first overflow
+     * shelf are discarded from it for the rest of the room needed, all at once.
+     * When shelves are shared between threads, the caller must hold the lock of the first overflow shelf.
+     *
+     * @param time current simulated time.
+     * @param numSlots number of orders to make room for.
+     */
+    void makeRoomOnOverflowShelf(int time, int numSlots) {
+        int numMoved = 0;
+        while (numMoved < numSlots) {
+            Order movableOrder = getMovableOrder(time);
+            if (movableOrder == null || !moveFromOverflow(movableOrder)) {
+                break;
+            }
+            numMoved++;
+        }
+        if (numMoved < numSlots) {
+            int numRemoved = overflowShelf.evictOrders(numSlots - numMoved).size();
+            numDiscarded += numRemoved;
+            metrics.discarded.add(numRemoved);
+        }
+    }
+
+    /**
+     * Move an order from an overflow shelf to its single temperature shelf.
+     * When shelves are shared between threads, the caller must hold the lock of the first overflow shelf.
+     *
+     * @param order an order on an overflow shelf.
+     * @return true if the order was moved, false if it's back on its overflow shelf or no longer on any.
+     */
+    boolean moveFromOverflow(Order order) {
+        OverflowShelf overflow = getOverflowShelf(order);
+        if (overflow == null || !overflow.remove(order)) {
+            // Picked up by a courier in the meantime
+            return false;
+        }
+        Shelf nextShelf = getShelf(order);
+        if (!nextShelf.add(order)) {
+            // The single temperature shelf was filled by another thread in the meantime
+            overflow.add(order);
+            onOrderPlaced(order, overflow);
+            return false;
+        }
+        metrics.movedFromOverflow.increment();
+        eventSink.publish(EventSink.Type.ORDER_MOVED, overflow, order);
+        onOrderPlaced(order, nextShelf);
+        return true;
+    }
+
+    /**
+     * Take note of slots freed on a single temperature shelf, to be filled by {@link #promoteFromOverflow(int)}.
+     *
+     * @param shelf the shelf.
+     * @param numSlots number of slots freed.
+     */
+    void onSlotsFreed(SingleTemperatureShelf shelf, int numSlots) {
+        freedSlots.addAndGet(layout.getZone(shelf.temperature), numSlots);
+    }
+
+    /**
+     * Fill the slots freed on single temperature shelves since the last call with orders from overflow shelves,
+     * where they decay faster. For each temperature that had slots freed, the orders going to waste first are
+     * moved, taken from the heads of the overflow shelves' indexes of that temperature without looking at other
+     * orders. Does nothing unless promotion is enabled in the config.
+     *
+     * <p>Holds the lock of the first overflow shelf while promoting, like {@link ConcurrentSimulator}'s producers
+     * making room do, so it could run on a clean up thread.</p>
+     *
+     * @param time current simulated time.
+     */
+    void promoteFromOverflow(int time) {
+        if (freedSlots == null) {
+            return;
+        }
+        synchronized (overflowShelf) {
+            for (int zone = 0; zone < shelvesByTemp.length; zone++) {
+                Shelf shelf = shelvesByTemp[zone];
+                if (shelf == null) {
+                    continue;
+                }
+                int numSlots = freedSlots.getAndSet(zone, 0);
+                for (int i = 0; i < numSlots && shelf.isAvailable(); i++) {
+                    Order order = peekMovableOrder(zone);
+                    if (order == null || !moveFromOverflow(order)) {
+                        break;
+                    }
+                    metrics.promotedFromOverflow.increment();
+                }
+            }
+        }
+    }
+
+    /**
+     * Get a string representation of all orders in a list.
+     *
+     * @param orders list of orders.
+     * @return string representation of all orders, in the format order_id1(order_temp1) order_id2(order_temp2)
+     */
+    String getOrdersIdsStr(List<Order> orders) {
+        StringBuilder str = new StringBuilder();
+        for (Order order : orders) {
+            ConsoleEventWriter.appendShortIdWithTemp(order, str);
+            str.append(" ");
+        }
+        return str.toString();
+    }
+
+    /**
+     * Get an order from overflow shelves that could be moved to a single temperature shelf.
+     * Among the eligible orders, the one going to waste first will be selected. Only the first order of each
+     * temperature on each overflow shelf is looked at.
+     *
+     * @return an order to be moved if possible. null if not possible.
+     */
+    Order getMovableOrder(int time) {
+        Order pickedOrder = null;
+        double minZeroValueTime = Double.POSITIVE_INFINITY;
+        for (int zone = 0; zone < shelvesByTemp.length; zone++) {
+            Shelf shelf = shelvesByTemp[zone];
+            if (shelf == null || !shelf.isAvailable()) {
+                continue;
+            }
+            for (OverflowShelf overflow : overflowShelves) {
+                Order order = overflow.peekMovableOrder(zone);
+                if (order != null) {
+                    double zeroValueTime = overflow.computeZeroValueTime(order);
+                    if (pickedOrder == null || zeroValueTime < minZeroValueTime) {
+                        pickedOrder = order;
+                        minZeroValueTime = zeroValueTime;
+                    }
+                }
+            }
+        }
+        return pickedOrder;
+    }
+
+    /**
+     * Get the order of a temperature zone that goes to waste first on any overflow shelf.
+     *
+     * @param zone temperature zone of the layout.
+     * @return the order, null if there's no order of given zone on overflow shelves.
+     */
+    Order peekMovableOrder(int zone) {
+        Order pickedOrder = null;
+        double minZeroValueTime = Double.POSITIVE_INFINITY;
+        for (OverflowShelf overflow : overflowShelves) {
+            Order order = overflow.peekMovableOrder(zone);
+            if (order != null) {
+                double zeroValueTime = overflow.computeZeroValueTime(order);
+                if (pickedOrder == null || zeroValueTime < minZeroValueTime) {
+                    pickedOrder = order;
+                    minZeroValueTime = zeroValueTime;
+                }
+            }
+        }
+        return pickedOrder;
+    }
+
+    /**
+     * Get the overflow shelf an order is on.
+     *
+     * @param order the order.
+     * @return the overflow shelf, null if the order is on none.
+     */
+    OverflowShelf getOverflowShelf(Order order) {
+        for (OverflowShelf overflow : overflowShelves) {
+            if (overflow.contains(order)) {
+                return overflow;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get shelf to put an order in based on order's temperature.
+     *
+     * @param order
+     * @return shelf to put the order in, null if the order should go to overflow shelf.
+     */
+    Shelf getShelf(Order order) {
+        int zone = layout.getZone(order);
+        return zone < 0 ? null : shelvesByTemp[zone];
+    }
+
+    /**
+     * Get the single temperature shelf of a temperature.
+     *
+     * @param temp
+     * @return shelf of given temperature, null if there's none.
+     */
+    Shelf getShelf(Temperature temp) {
+        return shelvesByTemp[temp.ordinal()];
+    }
+
+    /**
+     * Get the single temperature shelf of a temperature zone of the layout.
+     *
+     * @param temp name of the temperature in upper case, e.g. <code>AMBIENT</code>.
+     * @return shelf of given temperature, null if there's none.
+     */
+    Shelf getShelf(String temp) {
+        int zone = layout.getZone(temp);
+        return zone < 0 ? null : shelvesByTemp[zone];
+    }
+
+    /**
+     * Notify the order listener, if any, that a courier has been dispatched to pick up an order.
+     *
+     * @param order the order to be picked up.
+     */
+    void onOrderDispatched(Order order) {
+        if (orderListener != null) {
+            orderListener.onOrderDispatched(order);
+        }
+    }
+
+    /**
+     * Notify the order listener, if any, that an order has been placed on a shelf.
+     *
+     * @param order the order that was placed.
+     * @param shelf shelf the order was placed on.
+     */
+    void onOrderPlaced(Order order, Shelf shelf) {
+        if (orderListener != null) {
+            orderListener.onOrderPlaced(order, shelf);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package challenge.cloudkitchen;
+
+import static challenge.cloudkitchen.Constants.MAX_TIME_COURIER_TRIP;
+import static challenge.cloudkitchen.Constants.MAX_TIME_PICK_UP;
+import static challenge.cloudkitchen.Constants.MIN_TIME_COURIER_TRIP;
+import static challenge.cloudkitchen.Constants.MIN_TIME_PICK_UP;
+import static challenge.cloudkitchen.Constants.OVERFLOW_SHELF_CAPACITY;
+import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_OVERFLOW;
+import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE;
+import static challenge.cloudkitchen.Constants.SINGLE_TEMPERATURE_SHELF_CAPACITY;
+
+/**
+ * Parameters of a kitchen: shelf capacities, shelf decay modifiers and the range of pick-up times. A new config
+ * has the default values defined in {@link Constants}.
+ *
+ * <p>Setters return the config itself so that they could be chained. A config is read when a kitchen is created,
+ * changing it afterwards doesn't affect the kitchen.</p>
+ */
+public class KitchenConfig {
+
+    int singleTemperatureShelfCapacity;
+    int overflowShelfCapacity;
+    int singleTemperatureDecayModifier;
+    int overflowDecayModifier;
+    int minTimePickUp;
+    int maxTimePickUp;
+    // Distribution of pick-up times replacing the range, null if not set
+    Distribution pickUpDelay;
+    boolean promoteFromOverflow;
+    EvictionPolicy.Type evictionPolicy;
+    // Layout of shelves replacing the capacities and decay modifiers above, null if not set
+    ShelfLayout shelfLayout;
+    // Size of the courier pool, 0 for a courier per order
+    int numCouriers;
+    int courierBatchSize;
+    Distribution courierTripTime;
+
+    public KitchenConfig() {
+        singleTemperatureShelfCapacity = SINGLE_TEMPERATURE_SHELF_CAPACITY;
+        overflowShelfCapacity = OVERFLOW_SHELF_CAPACITY;
+        singleTemperatureDecayModifier = SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE;
+        overflowDecayModifier = SHELF_DECAY_MODIFIER_OVERFLOW;
+        minTimePickUp = MIN_TIME_PICK_UP;
+        maxTimePickUp = MAX_TIME_PICK_UP;
+        evictionPolicy = EvictionPolicy.Type.RANDOM;
+        numCouriers = 0;
+        courierBatchSize = 1;
+        courierTripTime = Distribution.uniform(MIN_TIME_COURIER_TRIP, MAX_TIME_COURIER_TRIP);
+    }
+
+    public KitchenConfig copy() {
+        return new KitchenConfig()
+                .setSingleTemperatureShelfCapacity(singleTemperatureShelfCapacity)
+                .setOverflowShelfCapacity(overflowShelfCapacity)
+                .setSingleTemperatureDecayModifier(singleTemperatureDecayModifier)
+                .setOverflowDecayModifier(overflowDecayModifier)
+                .setPickUpTimeRange(minTimePickUp, maxTimePickUp)
+                .setPickUpDelay(pickUpDelay)
+                .setPromoteFromOverflow(promoteFromOverflow)
+                .setEvictionPolicy(evictionPolicy)
+                .setShelfLayout(shelfLayout)
+                .setCourierPool(numCouriers, courierBatchSize)
+                .setCourierTripTime(courierTripTime);
+    }
+
+    public int getSingleTemperatureShelfCapacity() {
+        return singleTemperatureShelfCapacity;
+    }
+
+    public KitchenConfig setSingleTemperatureShelfCapacity(int capacity) {
+        checkNotNegative("Single temperature shelf capacity", capacity);
+        this.singleTemperatureShelfCapacity = capacity;
+        return this;
+    }
+
+    public int getOverflowShelfCapacity() {
+        return overflowShelfCapacity;
+    }
+
+    public KitchenConfig setOverflowShelfCapacity(int capacity) {
+        checkNotNegative("Overflow shelf capacity", capacity);
+        this.overflowShelfCapacity = capacity;
+        return this;
+    }
+
+    public int getSingleTemperatureDecayModifier() {
+        return singleTemperatureDecayModifier;
+    }
+
+    public KitchenConfig setSingleTemperatureDecayModifier(int modifier) {
+        this.singleTemperatureDecayModifier = modifier;
+        return this;
+    }
+
+    public int getOverflowDecayModifier() {
+        return overflowDecayModifier;
+    }
+
+    public KitchenConfig setOverflowDecayModifier(int modifier) {
+        this.overflowDecayModifier = modifier;
+        return this;
+    }
+
+    public int getMinTimePickUp() {
+        return minTimePickUp;
+    }
+
+    public int getMaxTimePickUp() {
+        return maxTimePickUp;
+    }
+
+    /**
+     * Set the range orders are picked up in, counted from their arrival.
+     *
+     * @param minTimePickUp shortest time before pick-up, at least 1.
+     * @param maxTimePickUp longest time before pick-up.
+     * @return this config.
+     */
+    public KitchenConfig setPickUpTimeRange(int minTimePickUp, int maxTimePickUp) {
+        if (minTimePickUp < 1 || maxTimePickUp < minTimePickUp) {
+            throw new IllegalArgumentException(
+                    "Invalid pick-up time range: " + minTimePickUp + "s - " + maxTimePickUp + "s");
+        }
+        this.minTimePickUp = minTimePickUp;
+        this.maxTimePickUp = maxTimePickUp;
+        return this;
+    }
+
+    public Distribution getPickUpDelay() {
+        return pickUpDelay;
+    }
+
+    /**
+     * Draw pick-up times from a distribution instead of uniformly from the range. Drawn times are rounded to a
+     * second and are at least 1 second, the range is ignored.
+     *
+     * @param pickUpDelay distribution of the time before pick-up, null to use the range again.
+     * @return this config.
+     */
+    public KitchenConfig setPickUpDelay(Distribution pickUpDelay) {
+        this.pickUpDelay = pickUpDelay;
+        return this;
+    }
+
+    public boolean isPromoteFromOverflow() {
+        return promoteFromOverflow;
+    }
+
+    /**
+     * Move orders from overflow shelf to their single temperature shelf as soon as the latter has room again,
+     * instead of only when room is needed on overflow shelf. Off by default.
+     *
+     * @param promoteFromOverflow true to promote orders whenever slots are freed.
+     * @return this config.
+     */
+    public KitchenConfig setPromoteFromOverflow(boolean promoteFromOverflow) {
+        this.promoteFromOverflow = promoteFromOverflow;
+        return this;
+    }
+
+    public EvictionPolicy.Type getEvictionPolicy() {
+        return evictionPolicy;
+    }
+
+    /**
+     * Set the policy choosing which order is discarded from overflow shelf when room is needed and no order could
+     * be moved. Random by default.
+     *
+     * @param evictionPolicy the policy.
+     * @return this config.
+     */
+    public KitchenConfig setEvictionPolicy(EvictionPolicy.Type evictionPolicy) {
+        this.evictionPolicy = evictionPolicy;
+        return this;
+    }
+
+    /**
+     * Get the layout of shelves, the standard layout sized by this config if none was set.
+     *
+     * @return the layout.
+     */
+    public ShelfLayout getShelfLayout() {
+        return shelfLayout != null ? shelfLayout : ShelfLayout.standard(this);
+    }
+
+    /**
+     * Lay out shelves differently than the standard hot, cold, frozen and overflow shelves. The layout sets the
+     * capacity and decay modifier of every shelf, shelf capacities and decay modifiers of this config are
+     * ignored.
+     *
+     * @param shelfLayout the layout, null to use the standard layout again.
+     * @return this config.
+     */
+    public KitchenConfig setShelfLayout(ShelfLayout shelfLayout) {
+        this.shelfLayout = shelfLayout;
+        return this;
+    }
+
+    public int getNumCouriers() {
+        return numCouriers;
+    }
+
+    public int getCourierBatchSize() {
+        return courierBatchSize;
+    }
+
+    /**
+     * Dispatch orders to a finite pool of couriers, each of them picking up up to a batch of orders at once,
+     * instead of sending a courier per order. See {@link CourierPool}. Couriers take a pick-up time to get to the
+     * kitchen once free, and a trip time to be free again after a pickup.
+     *
+     * @param numCouriers number of couriers, 0 for a courier per order (the default).
+     * @param batchSize largest number of orders picked up at once, at least 1.
+     * @return this config.
+     */
+    public KitchenConfig setCourierPool(int numCouriers, int batchSize) {
+        checkNotNegative("Number of couriers", numCouriers);
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Courier batch size must be positive: " + batchSize);
+        }
+        this.numCouriers = numCouriers;
+        this.courierBatchSize = batchSize;
+        return this;
+    }
+
+    public Distribution getCourierTripTime() {
+        return courierTripTime;
+    }
+
+    /**
+     * Set the distribution of the time from a pickup to the courier being free again, i.e. delivering the orders
+     * and coming back. Only used with a courier pool.
+     *
+     * @param courierTripTime distribution of the trip time in seconds.
+     * @return this config.
+     */
+    public KitchenConfig setCourierTripTime(Distribution courierTripTime) {
+        this.courierTripTime = courierTripTime;
+        return this;
+    }
+
+    static void checkNotNegative(String name, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative: " + value);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return (shelfLayout != null ? "shelves " + shelfLayout
+                : "shelves " + singleTemperatureShelfCapacity + "/" + overflowShelfCapacity
+                        + ", decay modifiers " + singleTemperatureDecayModifier + "/" + overflowDecayModifier)
+                + ", pick-up " + (pickUpDelay == null ? minTimePickUp + "s - " + maxTimePickUp + "s" : pickUpDelay)
+                + (promoteFromOverflow ? ", promote from overflow" : "")
+                + (evictionPolicy != EvictionPolicy.Type.RANDOM ? ", eviction " + evictionPolicy : "")
+                + (numCouriers > 0 ? ", " + numCouriers + " couriers taking up to " + courierBatchSize
+                        + " orders, trip " + courierTripTime : "");
+    }
+}
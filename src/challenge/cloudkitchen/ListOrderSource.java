@@ -0,0 +1,27 @@
+package challenge.cloudkitchen;
+
+import java.util.List;
+
+/**
+ * An order source backed by a list of orders already in memory.
+ */
+public class ListOrderSource implements OrderSource {
+
+    List<Order> orders;
+    int position;
+
+    public ListOrderSource(List<Order> orders) {
+        this.orders = orders;
+        this.position = 0;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return position < orders.size();
+    }
+
+    @Override
+    public Order next() {
+        return hasNext() ? orders.get(position++) : null;
+    }
+}
@@ -0,0 +1,64 @@
+package challenge.cloudkitchen;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * An order source fed with orders arriving live, e.g. from an {@link OrderServer}, through a bounded queue.
+ *
+ * <p>Unlike {@link QueueOrderSource}, neither side ever blocks: producers are told when the queue is full and
+ * decide what to do with the order, and the simulator takes whatever orders have arrived by the time of its tick.
+ * The source stays open, with {@link #next()} returning null while no order is queued, until it's closed.</p>
+ */
+public class LiveOrderSource implements OrderSource {
+
+    BlockingQueue<Order> queue;
+    volatile boolean closed;
+
+    public LiveOrderSource(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        closed = false;
+    }
+
+    /**
+     * Add an order to the queue if there's room.
+     *
+     * @param order the order to be added.
+     * @return true if the order was queued, false if the queue is full or the source is closed.
+     */
+    public boolean offer(Order order) {
+        return !closed && queue.offer(order);
+    }
+
+    /**
+     * @return number of orders queued.
+     */
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * @return number of orders that could be queued before the queue is full.
+     */
+    public int remainingCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !closed || !queue.isEmpty();
+    }
+
+    @Override
+    public Order next() {
+        return queue.poll();
+    }
+
+    /**
+     * Stop accepting orders. Orders already queued are still handed out.
+     */
+    @Override
+    public void close() {
+        closed = true;
+    }
+}
@@ -0,0 +1,110 @@
+package challenge.cloudkitchen;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * A registry of named metrics of a kitchen: gauges read on demand, counters and histograms.
+ *
+ * <p>The metrics every kitchen records are created up front and exposed as fields, so that recording doesn't
+ * look anything up. Metrics are kept sorted by name. A snapshot flattens all of them into numbers: a histogram
+ * becomes its count, mean, median, 99th percentile and max. Snapshots are exported through JMX by
+ * {@link MetricsDynamicMBean} and to a file by {@link MetricsReporter}.</p>
+ */
+public class Metrics {
+
+    static final String DELIVERED = "orders.delivered";
+    static final String WASTED = "orders.wasted";
+    static final String DISCARDED = "orders.discarded";
+    static final String MOVED_FROM_OVERFLOW = "orders.movedFromOverflow";
+    static final String PROMOTED_FROM_OVERFLOW = "orders.promotedFromOverflow";
+    static final String COURIER_TRIPS = "courier.trips";
+    static final String COURIER_ORDERS = "courier.orders";
+    static final String DWELL_TIME = "order.dwellTime";
+    static final String VALUE_AT_PICK_UP = "order.valueAtPickUp";
+    static final String TICK_TIME = "tick.processingMicros";
+    // Inherent values are between 0 and 1, they're recorded in thousandths
+    static final int VALUE_SCALE = 1000;
+
+    Map<String, LongSupplier> gauges = new ConcurrentSkipListMap<>();
+    Map<String, LongAdder> counters = new ConcurrentSkipListMap<>();
+    Map<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    LongAdder delivered = counter(DELIVERED);
+    LongAdder wasted = counter(WASTED);
+    LongAdder discarded = counter(DISCARDED);
+    LongAdder movedFromOverflow = counter(MOVED_FROM_OVERFLOW);
+    // Orders moved as soon as their single temperature shelf had room, see KitchenConfig#setPromoteFromOverflow
+    LongAdder promotedFromOverflow = counter(PROMOTED_FROM_OVERFLOW);
+    // Trips of a courier pool and orders they took, see CourierPool
+    LongAdder courierTrips = counter(COURIER_TRIPS);
+    LongAdder courierOrders = counter(COURIER_ORDERS);
+    // Seconds between arrival and pick-up
+    Histogram dwellTime = histogram(DWELL_TIME);
+    Histogram valueAtPickUp = histogram(VALUE_AT_PICK_UP);
+    Histogram tickTime = histogram(TICK_TIME);
+
+    /**
+     * Register a gauge, replacing any gauge of the same name.
+     *
+     * @param name name of the gauge.
+     * @param gauge function reading the current value.
+     */
+    public void gauge(String name, LongSupplier gauge) {
+        gauges.put(name, gauge);
+    }
+
+    /**
+     * Get a counter, created if it doesn't exist.
+     *
+     * @param name name of the counter.
+     * @return the counter.
+     */
+    public LongAdder counter(String name) {
+        return counters.computeIfAbsent(name, key -> new LongAdder());
+    }
+
+    /**
+     * Get a histogram, created if it doesn't exist.
+     *
+     * @param name name of the histogram.
+     * @return the histogram.
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Record an order being picked up.
+     *
+     * @param order the order.
+     * @param time current simulated time.
+     * @param inherentValue inherent value of the order at pick-up.
+     */
+    void recordPickUp(Order order, int time, double inherentValue) {
+        dwellTime.record(time - order.timeArrived);
+        valueAtPickUp.record(Math.round(inherentValue * VALUE_SCALE));
+    }
+
+    /**
+     * Take a snapshot of all metrics.
+     *
+     * @return values of all metrics by name, gauges first, then counters, then histograms.
+     */
+    public Map<String, Number> snapshot() {
+        Map<String, Number> snapshot = new LinkedHashMap<>();
+        gauges.forEach((name, gauge) -> snapshot.put(name, gauge.getAsLong()));
+        counters.forEach((name, counter) -> snapshot.put(name, counter.sum()));
+        histograms.forEach((name, histogram) -> {
+            snapshot.put(name + ".count", histogram.getCount());
+            snapshot.put(name + ".mean", histogram.getMean());
+            snapshot.put(name + ".p50", histogram.getValueAtPercentile(50));
+            snapshot.put(name + ".p99", histogram.getValueAtPercentile(99));
+            snapshot.put(name + ".max", histogram.getMax());
+        });
+        return snapshot;
+    }
+}
@@ -0,0 +1,92 @@
+package challenge.cloudkitchen;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ObjectName;
+
+/**
+ * Exposes the metrics of a kitchen as read-only JMX attributes, one per value of a {@link Metrics#snapshot()}, so
+ * that a running simulation could be watched with JConsole or VisualVM.
+ */
+public class MetricsDynamicMBean implements DynamicMBean {
+
+    static final String DOMAIN = "challenge.cloudkitchen";
+
+    Metrics metrics;
+
+    public MetricsDynamicMBean(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Register metrics with the platform MBean server.
+     *
+     * @param metrics metrics of a kitchen.
+     * @param kitchen name of the kitchen.
+     * @return name the metrics were registered under.
+     * @throws JMException if the metrics couldn't be registered, e.g. the name is already taken.
+     */
+    static ObjectName register(Metrics metrics, String kitchen) throws JMException {
+        ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,kitchen=" + ObjectName.quote(kitchen));
+        ManagementFactory.getPlatformMBeanServer().registerMBean(new MetricsDynamicMBean(metrics), name);
+        return name;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        Number value = metrics.snapshot().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        Map<String, Number> snapshot = metrics.snapshot();
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (snapshot.containsKey(attribute)) {
+                list.add(new Attribute(attribute, snapshot.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) {
+        throw new UnsupportedOperationException("No operation on metrics: " + actionName);
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        Map<String, Number> snapshot = metrics.snapshot();
+        MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[snapshot.size()];
+        int i = 0;
+        for (Map.Entry<String, Number> entry : snapshot.entrySet()) {
+            attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                    entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "Metrics of a kitchen", attributes, null,
+                new MBeanOperationInfo[0], null);
+    }
+}
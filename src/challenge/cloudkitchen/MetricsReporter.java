@@ -0,0 +1,77 @@
+package challenge.cloudkitchen;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes snapshots of a kitchen's metrics to a CSV file every given number of simulated seconds, one row per
+ * snapshot, so that a long run could be followed with <code>tail -f</code> or plotted afterwards.
+ *
+ * <p>The first row names the columns: the simulated time, then every metric of the first snapshot. Metrics
+ * registered later are left out. Every row is flushed as soon as it's written.</p>
+ */
+public class MetricsReporter implements Closeable {
+
+    Metrics metrics;
+    int interval;
+    BufferedWriter writer;
+    List<String> columns;
+    int nextReportTime;
+
+    /**
+     * @param metrics metrics to be reported.
+     * @param path path of the file, which is overwritten.
+     * @param interval number of simulated seconds between snapshots.
+     * @throws IOException if the file couldn't be created.
+     */
+    public MetricsReporter(Metrics metrics, Path path, int interval) throws IOException {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Metrics interval must be at least 1s: " + interval);
+        }
+        this.metrics = metrics;
+        this.interval = interval;
+        this.writer = Files.newBufferedWriter(path);
+        this.nextReportTime = 0;
+    }
+
+    /**
+     * Called at the end of every simulated second, writes a snapshot if one is due.
+     *
+     * @param time current simulated time.
+     */
+    public synchronized void onTick(int time) {
+        if (time < nextReportTime) {
+            return;
+        }
+        nextReportTime = (time / interval + 1) * interval;
+        Map<String, Number> snapshot = metrics.snapshot();
+        try {
+            if (columns == null) {
+                columns = new ArrayList<>(snapshot.keySet());
+                writer.write("time," + String.join(",", columns));
+                writer.newLine();
+            }
+            StringBuilder row = new StringBuilder().append(time);
+            for (String column : columns) {
+                row.append(',').append(snapshot.get(column));
+            }
+            writer.write(row.toString());
+            writer.newLine();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+}
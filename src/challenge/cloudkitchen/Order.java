@@ -6,45 +6,50 @@ import challenge.cloudkitchen.Constants.*;
 /**
  * This class contains metadata of an order when it's placed by clients. The order
  * is identified by a UUID (<i>id</i>) or a short version of it (<i>shortId</i>),
- * which is the last segment of the UUID. Upon being initiated, the order's constructor
- * will create the <i>shortId</i>.
+ * which is the last segment of the UUID. The <i>shortId</i> is only created when it's
+ * first needed, e.g. to print the order.
  *
- * Currently support orders of three temperatures: hot, cold and frozen.
+ * Arrival and pick-up times are {@link #NO_TIME} until they're set.
+ *
+ * Orders are hot, cold or frozen, see {@link Temperature}. An order of any other temperature keeps its name as
+ * its temperature zone, e.g. <code>AMBIENT</code>.
  */
 public class Order {
+    static final int NO_TIME = Integer.MIN_VALUE;
+
     String id;
     // shortId is the last segment of the full ID. We could use it for identifying an order on output console
     // for better readability
     String shortId;
     String name;
     Temperature temp;
+    // Name of the temperature in upper case if it's not hot, cold or frozen, null otherwise
+    String zone;
     double shelfLife;
     double decayRate;
-    Integer timeArrived;
-    Integer timePickedUp;
+    int timeArrived;
+    int timePickedUp;
 
     public Order(String id, String name, String temp, double shelfLife, double decayRate) {
+        this(id, name, (Temperature) null, shelfLife, decayRate);
+        this.temp = getOrderTemperature(temp);
+        if (this.temp == null && temp != null) {
+            this.zone = temp.toUpperCase();
+        }
+    }
+
+    Order(String id, String name, Temperature temp, double shelfLife, double decayRate) {
         this.id = id;
         this.name = name;
-        this.temp = getOrderTemperature(temp);
+        this.temp = temp;
         this.shelfLife = shelfLife;
         this.decayRate = decayRate;
-        this.shortId = id.split("-")[4];
-        timeArrived = null;
-        timePickedUp = null;
+        timeArrived = NO_TIME;
+        timePickedUp = NO_TIME;
     }
 
     Temperature getOrderTemperature(String temp) {
-        if (temp.equals("hot")) {
-            return Temperature.HOT;
-        }
-        if (temp.equals("cold")) {
-            return Temperature.COLD;
-        }
-        if (temp.equals("frozen")) {
-            return Temperature.FROZEN;
-        }
-        return null;
+        return Temperature.forName(temp);
     }
 
     public String getId() {
@@ -52,25 +57,49 @@ public class Order {
     }
 
     public String getShortId() {
-        return this.shortId;
+        if (shortId == null) {
+            shortId = id.substring(id.lastIndexOf('-') + 1);
+        }
+        return shortId;
+    }
+
+    public String getName() {
+        return name;
     }
 
     public Temperature getTemp() {
         return temp;
     }
 
+    /**
+     * Get the name of the order's temperature, like {@link Temperature#name()} for hot, cold and frozen orders.
+     *
+     * @return name of the temperature in upper case, null if the order has no temperature.
+     */
+    public String getTempName() {
+        return temp != null ? temp.name() : zone;
+    }
+
     public String getShortIdWithTemp() {
-        return this.shortId + "(" + this.temp + ")";
+        return getShortId() + "(" + getTempName() + ")";
     }
 
-    public Integer getTimeArrived() {
+    public int getTimeArrived() {
         return timeArrived;
     }
 
-    public Integer getTimePickedUp() {
+    public int getTimePickedUp() {
         return timePickedUp;
     }
 
+    public boolean hasArrived() {
+        return timeArrived != NO_TIME;
+    }
+
+    public boolean hasTimePickedUp() {
+        return timePickedUp != NO_TIME;
+    }
+
     public void setTimePickedUp(int timePickedUp) {
         this.timePickedUp = timePickedUp;
     }
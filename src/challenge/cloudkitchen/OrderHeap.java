@@ -0,0 +1,189 @@
+package challenge.cloudkitchen;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A binary min-heap of orders, ordered by a key computed from each order when it's added.
+ *
+ * <p>The heap keeps track of the position of every order, so that besides peeking and polling the order with
+ * smallest key, an arbitrary order could be removed in O(log n) time. The key of an order is computed only once,
+ * when the order is added. An order whose key changes has to be removed and added again.</p>
+ *
+ * <p>As an {@link OrderIndex}, the heap could be registered with a shelf's list of orders to be kept up to date
+ * with the shelf's content.</p>
+ */
+public class OrderHeap implements OrderIndex {
+
+    ToDoubleFunction<Order> keyFunction;
+    Order[] orders;
+    double[] keys;
+    int size;
+    Map<Order, Integer> positions;
+
+    public OrderHeap(ToDoubleFunction<Order> keyFunction) {
+        this.keyFunction = keyFunction;
+        orders = new Order[16];
+        keys = new double[16];
+        size = 0;
+        positions = new HashMap<>();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public boolean contains(Order order) {
+        return positions.containsKey(order);
+    }
+
+    /**
+     * Get the order with smallest key without removing it.
+     *
+     * @return order with smallest key, null if heap is empty.
+     */
+    public Order peek() {
+        return size == 0 ? null : orders[0];
+    }
+
+    /**
+     * Get the smallest key in heap.
+     *
+     * @return smallest key, Double.POSITIVE_INFINITY if heap is empty.
+     */
+    public double peekKey() {
+        return size == 0 ? Double.POSITIVE_INFINITY : keys[0];
+    }
+
+    /**
+     * Remove the order with smallest key.
+     *
+     * @return order that was removed, null if heap is empty.
+     */
+    public Order poll() {
+        if (size == 0) {
+            return null;
+        }
+        Order order = orders[0];
+        removeAt(0);
+        return order;
+    }
+
+    /**
+     * Add an order to heap. If the order is already in heap, it won't be added again.
+     *
+     * @param order the order to be added.
+     * @return true if order was added successfully, false otherwise.
+     */
+    public boolean add(Order order) {
+        if (positions.containsKey(order)) {
+            return false;
+        }
+        if (size == orders.length) {
+            orders = Arrays.copyOf(orders, size * 2);
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        orders[size] = order;
+        keys[size] = keyFunction.applyAsDouble(order);
+        positions.put(order, size);
+        siftUp(size++);
+        return true;
+    }
+
+    /**
+     * Remove an order from heap.
+     *
+     * @param order the order to be removed.
+     * @return true if order was removed successfully, false otherwise.
+     */
+    public boolean remove(Order order) {
+        Integer index = positions.get(order);
+        if (index == null) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(orders, 0, size, null);
+        size = 0;
+        positions.clear();
+    }
+
+    @Override
+    public void onAdd(Order order) {
+        add(order);
+    }
+
+    @Override
+    public void onRemove(Order order) {
+        remove(order);
+    }
+
+    @Override
+    public void onClear() {
+        clear();
+    }
+
+    void removeAt(int index) {
+        positions.remove(orders[index]);
+        int last = --size;
+        if (index != last) {
+            move(last, index);
+            orders[last] = null;
+            siftDown(index);
+            siftUp(index);
+        } else {
+            orders[last] = null;
+        }
+    }
+
+    void siftUp(int index) {
+        Order order = orders[index];
+        double key = keys[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (keys[parent] <= key) {
+                break;
+            }
+            move(parent, index);
+            index = parent;
+        }
+        set(index, order, key);
+    }
+
+    void siftDown(int index) {
+        Order order = orders[index];
+        double key = keys[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child]) {
+                child++;
+            }
+            if (key <= keys[child]) {
+                break;
+            }
+            move(child, index);
+            index = child;
+        }
+        set(index, order, key);
+    }
+
+    private void move(int from, int to) {
+        set(to, orders[from], keys[from]);
+    }
+
+    private void set(int index, Order order, double key) {
+        orders[index] = order;
+        keys[index] = key;
+        positions.put(order, index);
+    }
+}
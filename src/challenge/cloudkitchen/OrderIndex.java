@@ -0,0 +1,28 @@
+package challenge.cloudkitchen;
+
+/**
+ * A secondary index over the orders of an {@link IndexedOrderList}. Once registered with
+ * {@link IndexedOrderList#addIndex(OrderIndex)}, the index is notified of every change to the list so it always
+ * covers exactly the orders in the list, even when the list is modified directly.
+ */
+public interface OrderIndex {
+
+    /**
+     * Called after an order was added to the list.
+     *
+     * @param order the added order.
+     */
+    void onAdd(Order order);
+
+    /**
+     * Called after an order was removed from the list.
+     *
+     * @param order the removed order.
+     */
+    void onRemove(Order order);
+
+    /**
+     * Called after all orders were removed from the list.
+     */
+    void onClear();
+}
@@ -0,0 +1,197 @@
+package challenge.cloudkitchen;
+
+import org.json.simple.JSONArray;
+import org.json.simple.JSONObject;
+import org.json.simple.parser.JSONParser;
+import org.json.simple.parser.ParseException;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A TCP endpoint accepting orders from other services and feeding them to a {@link LiveOrderSource}.
+ *
+ * <p>The protocol is line based. Every line sent by a client is either an order as a JSON object, in the format
+ * parsed by {@link Order#fromJsonObject(JSONObject)}, or a JSON array of such orders. Every line gets a response
+ * line:
+ * <ul>
+ *     <li><code>OK &lt;n&gt;</code>: all n orders were accepted.</li>
+ *     <li><code>BUSY &lt;n&gt;</code>: only the first n orders were accepted because the kitchen is saturated.
+ *     The client should send the other orders again later.</li>
+ *     <li><code>ERROR &lt;message&gt;</code>: the line couldn't be parsed, no order was accepted.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>The kitchen is saturated when the queue of the source is full, or when the given saturation check says so,
+ * e.g. when shelves are full and enough orders are already queued for the next tick. Orders are never dropped
+ * silently: whatever isn't accepted is reported back to the client, which decides whether to retry.</p>
+ *
+ * <p>Every connection is served by its own thread, so a slow client doesn't hold back the others.</p>
+ */
+public class OrderServer implements Closeable {
+
+    LiveOrderSource source;
+    BooleanSupplier saturated;
+    ServerSocket serverSocket;
+    ExecutorService connections;
+    List<Socket> sockets;
+    volatile boolean closed;
+
+    /**
+     * @param source source the accepted orders are queued on.
+     * @param saturated check telling whether the kitchen can't take more orders for now, besides a full queue.
+     */
+    public OrderServer(LiveOrderSource source, BooleanSupplier saturated) {
+        this.source = source;
+        this.saturated = saturated;
+        this.sockets = new ArrayList<>();
+        this.closed = false;
+    }
+
+    /**
+     * Start listening for connections on the loopback interface.
+     *
+     * @param port port to listen on, 0 for any free port.
+     * @throws IOException if the port couldn't be bound.
+     */
+    public void start(int port) throws IOException {
+        serverSocket = new ServerSocket(port, 0, InetAddress.getLoopbackAddress());
+        connections = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "order-server");
+            thread.setDaemon(true);
+            return thread;
+        });
+        connections.execute(this::accept);
+    }
+
+    /**
+     * @return port the server listens on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    void accept() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                synchronized (sockets) {
+                    sockets.add(socket);
+                }
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Failed to accept connection: " + e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Read lines from a client and answer each of them, until the client disconnects or the server is closed.
+     *
+     * @param socket connection to the client.
+     */
+    void serve(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8))) {
+            JSONParser parser = new JSONParser();
+            String line;
+            while (!closed && (line = in.readLine()) != null) {
+                if (line.isBlank()) {
+                    continue;
+                }
+                out.write(handle(line, parser));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // The client disconnected or the server was closed
+        } catch (IOException e) {
+            System.err.println("Failed to serve connection: " + e);
+        } finally {
+            synchronized (sockets) {
+                sockets.remove(socket);
+            }
+        }
+    }
+
+    /**
+     * Parse a line of orders and queue as many of them as the kitchen takes.
+     *
+     * @param line a JSON object or array of orders.
+     * @param parser parser of the connection.
+     * @return response to the line.
+     */
+    String handle(String line, JSONParser parser) {
+        List<Order> orders = new ArrayList<>();
+        try {
+            Object json = parser.parse(line);
+            if (json instanceof JSONArray) {
+                for (Object item : (JSONArray) json) {
+                    orders.add(parseOrder(item));
+                }
+            } else {
+                orders.add(parseOrder(json));
+            }
+        } catch (ParseException | RuntimeException e) {
+            return "ERROR " + e;
+        }
+        int accepted = 0;
+        for (Order order : orders) {
+            if (saturated.getAsBoolean() || !source.offer(order)) {
+                return "BUSY " + accepted;
+            }
+            accepted++;
+        }
+        return "OK " + accepted;
+    }
+
+    static Order parseOrder(Object json) {
+        if (!(json instanceof JSONObject)) {
+            throw new IllegalArgumentException("Order is not a JSON object: " + json);
+        }
+        JSONObject object = (JSONObject) json;
+        if (!(object.get("id") instanceof String) || !(object.get("temp") instanceof String)) {
+            throw new IllegalArgumentException("Order without id or temp: " + object);
+        }
+        return Order.fromJsonObject(object);
+    }
+
+    /**
+     * Stop accepting connections and close all open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        if (serverSocket != null) {
+            serverSocket.close();
+        }
+        synchronized (sockets) {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+        }
+        if (connections != null) {
+            connections.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package challenge.cloudkitchen;
+
+import java.io.Closeable;
+
+/**
+ * A source of incoming orders, which the simulator pulls orders from one batch at a time. Orders are read
+ * lazily, so a source doesn't need to hold all of its orders in memory.
+ */
+public interface OrderSource extends Closeable {
+
+    /**
+     * Check if more orders could come from this source.
+     *
+     * @return false once the source is exhausted, true otherwise.
+     */
+    boolean hasNext();
+
+    /**
+     * Get the next order.
+     *
+     * @return next order, null if there's no order available at the moment.
+     */
+    Order next();
+
+    @Override
+    default void close() {
+    }
+}
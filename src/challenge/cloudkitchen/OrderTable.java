@@ -0,0 +1,192 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.Constants.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * A compact in-memory store of orders, with one array per field instead of one object per order.
+ *
+ * <p>An order in the table is identified by its handle, the position it was added at. Ids are stored as the two
+ * halves of their UUID, so like {@link BinaryOrderLog}, the table only accepts ids which are UUIDs in canonical
+ * form. Names and temperatures are stored once and referred to by index, -1 for an order without temperature.
+ * A stored order takes 37 bytes and no object at all, a fraction of an {@link Order} with its id and name
+ * strings.</p>
+ *
+ * <p>The table only holds what's known of an order before it arrives, so that it could be loaded once and replayed
+ * by many simulations, see {@link #openSource()}. There are no arrival or pick-up columns: an {@link Order} is
+ * created when an order is pulled from the table and carries the state of the order in a simulation, and shelves,
+ * their indexes and couriers hold those objects, not handles. Only orders in flight are objects, and they're
+ * bounded by the capacity of the shelves. {@link SweepRunner} is the only user of the table.</p>
+ */
+public class OrderTable {
+
+    long[] idMostSignificantBits;
+    long[] idLeastSignificantBits;
+    double[] shelfLives;
+    double[] decayRates;
+    int[] nameIndexes;
+    byte[] temperatures;
+    int size;
+    List<String> names;
+    Map<String, Integer> nameIndex;
+    List<String> temperatureNames;
+    Map<String, Integer> temperatureIndex;
+
+    public OrderTable() {
+        this(16);
+    }
+
+    public OrderTable(int initialCapacity) {
+        initialCapacity = Math.max(initialCapacity, 1);
+        idMostSignificantBits = new long[initialCapacity];
+        idLeastSignificantBits = new long[initialCapacity];
+        shelfLives = new double[initialCapacity];
+        decayRates = new double[initialCapacity];
+        nameIndexes = new int[initialCapacity];
+        temperatures = new byte[initialCapacity];
+        size = 0;
+        names = new ArrayList<>();
+        nameIndex = new HashMap<>();
+        temperatureNames = new ArrayList<>();
+        temperatureIndex = new HashMap<>();
+    }
+
+    /**
+     * Load all orders of an order source into a table.
+     *
+     * @param source source of orders, which is read until exhausted.
+     * @return table of all orders.
+     */
+    static OrderTable load(OrderSource source) {
+        OrderTable table = new OrderTable(source instanceof BinaryOrderSource
+                ? (int) Math.min(((BinaryOrderSource) source).size(), Integer.MAX_VALUE - 8) : 16);
+        while (source.hasNext()) {
+            Order order = source.next();
+            if (order != null) {
+                table.add(order);
+            }
+        }
+        return table;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Add an order to the table.
+     *
+     * @param order the order, only its id, name, temperature, shelf life and decay rate are stored.
+     * @return handle of the order in the table.
+     */
+    public int add(Order order) {
+        UUID id = BinaryOrderLog.toUuid(order.getId());
+        if (size == shelfLives.length) {
+            grow();
+        }
+        idMostSignificantBits[size] = id.getMostSignificantBits();
+        idLeastSignificantBits[size] = id.getLeastSignificantBits();
+        shelfLives[size] = order.shelfLife;
+        decayRates[size] = order.decayRate;
+        nameIndexes[size] = nameIndex.computeIfAbsent(order.getName(), name -> {
+            names.add(name);
+            return names.size() - 1;
+        });
+        int temperature = -1;
+        if (order.getTempName() != null) {
+            temperature = temperatureIndex.computeIfAbsent(order.getTempName(), temp -> {
+                temperatureNames.add(temp);
+                return temperatureNames.size() - 1;
+            });
+            if (temperature > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("More than " + (Byte.MAX_VALUE + 1) + " temperatures in table");
+            }
+        }
+        temperatures[size] = (byte) temperature;
+        return size++;
+    }
+
+    /**
+     * Create an order from the table, which hasn't arrived yet.
+     *
+     * @param handle handle of the order.
+     * @return a new order.
+     */
+    public Order get(int handle) {
+        checkHandle(handle);
+        return new Order(getId(handle).toString(), names.get(nameIndexes[handle]), getTempName(handle),
+                shelfLives[handle], decayRates[handle]);
+    }
+
+    public UUID getId(int handle) {
+        checkHandle(handle);
+        return new UUID(idMostSignificantBits[handle], idLeastSignificantBits[handle]);
+    }
+
+    public Temperature getTemp(int handle) {
+        return Temperature.forName(getTempName(handle));
+    }
+
+    /**
+     * @param handle handle of the order.
+     * @return name of the order's temperature, see {@link Order#getTempName()}. null if the order has none.
+     */
+    public String getTempName(int handle) {
+        checkHandle(handle);
+        return temperatures[handle] < 0 ? null : temperatureNames.get(temperatures[handle]);
+    }
+
+    public double getShelfLife(int handle) {
+        checkHandle(handle);
+        return shelfLives[handle];
+    }
+
+    public double getDecayRate(int handle) {
+        checkHandle(handle);
+        return decayRates[handle];
+    }
+
+    /**
+     * Open a source pulling all orders of the table in the order they were added. The table must not change
+     * while the source is used, any number of sources could read the same table concurrently.
+     *
+     * @return a new order source.
+     */
+    public OrderSource openSource() {
+        return new OrderSource() {
+            int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Order next() {
+                return hasNext() ? get(next++) : null;
+            }
+        };
+    }
+
+    void checkHandle(int handle) {
+        if (handle < 0 || handle >= size) {
+            throw new IndexOutOfBoundsException("Order handle " + handle + " out of bounds for size " + size);
+        }
+    }
+
+    void grow() {
+        int capacity = shelfLives.length + (shelfLives.length >> 1) + 1;
+        idMostSignificantBits = Arrays.copyOf(idMostSignificantBits, capacity);
+        idLeastSignificantBits = Arrays.copyOf(idLeastSignificantBits, capacity);
+        shelfLives = Arrays.copyOf(shelfLives, capacity);
+        decayRates = Arrays.copyOf(decayRates, capacity);
+        nameIndexes = Arrays.copyOf(nameIndexes, capacity);
+        temperatures = Arrays.copyOf(temperatures, capacity);
+    }
+}
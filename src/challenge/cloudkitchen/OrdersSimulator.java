@@ -2,308 +2,672 @@ package challenge.cloudkitchen;
 
 import org.apache.commons.cli.*;
 
-import org.json.simple.JSONArray;
-import org.json.simple.JSONObject;
-import org.json.simple.parser.JSONParser;
-
+import java.io.BufferedReader;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
-import java.util.logging.Logger;
-
-import challenge.cloudkitchen.Constants.*;
+import java.util.PriorityQueue;
+import java.util.Properties;
+import java.util.SplittableRandom;
 
-import static challenge.cloudkitchen.Constants.MAX_TIME_PICK_UP;
-import static challenge.cloudkitchen.Constants.MIN_TIME_PICK_UP;
+import javax.management.JMException;
 
 /**
  * A simulator that simulate life cycle of orders from the time they're ready to be delivered to the time they're
- * picked up by couriers.
+ * picked up by couriers. The simulator drives a single {@link Kitchen} with its clock.
  *
  * <p>Required argument:
  *   - input file path
  *
  * <p>Optional argument:
  *   - ingestion rate (default value: 2)
+ *   - seed: seed of the random number generator, to make runs reproducible
+ *   - virtual clock: jump straight to the next event instead of sleeping one second per tick
+ *   - convert: write the input orders to a binary order log instead of running the simulation
+ *   - kitchens: number of kitchens to simulate in parallel (default value: 1)
+ *   - checkpoint: write a checkpoint to given file every given number of seconds (default value: 60), and resume
+ *     from a checkpoint. Single kitchen only.
+ *   - layout: lay out shelves as given in a properties file, see {@link ShelfLayout}, e.g. to add temperature
+ *     zones or overflow shelves
+ *   - promote: move orders from overflow shelf to their single temperature shelf as soon as it has room
+ *   - eviction: policy choosing the order discarded from overflow shelf to make room (default value: random)
+ *   - courierPool: match orders with given number of couriers, see {@link CourierPool}, each picking up to given
+ *     number of orders at once (default value: 1) and free again after a trip of given distribution (default value:
+ *     uniform(10,30)). Without it, a courier comes for every order.
+ *   - concurrent: run producers, couriers and shelf clean up on concurrent threads, with given number of producers
+ *     (default value: 2), couriers (default value: 8) and tick length in milliseconds (default value: 1000),
+ *     optionally with a lock-free overflow shelf
+ *   - generate: simulate synthetic orders instead of the input file, with parameters from given properties file,
+ *     see {@link SyntheticOrderSource}. Without an ingestion rate, the kitchen takes every order generated.
+ *   - listen: take orders from a TCP endpoint on given port instead of the input file, queuing up to given number
+ *     of orders (default value: 1024) between ticks
+ *   - metrics: write snapshots of metrics to given CSV file every given number of seconds (default value: 1),
+ *     metrics are exported through JMX in any case
+ *   - trace: write every event to given binary trace instead of the console, to be analyzed with
+ *     {@link TraceAnalyzer}
+ *
+ * <p>The input file could either be a JSON array of orders or a binary order log. Instead of an input file, orders
+ * could be taken live from a TCP endpoint, see {@link OrderServer}.</p>
  */
-public class OrdersSimulator {
+public class OrdersSimulator implements Kitchen.OrderListener {
 
-    private final static Logger LOGGER = Logger.getLogger(OrdersSimulator.class.getName());
-
-    List<Order> orders;
-    Shelf hotShelf = new SingleTemperatureShelf(Temperature.HOT);
-    Shelf coldShelf = new SingleTemperatureShelf(Temperature.COLD);
-    Shelf frozenShelf = new SingleTemperatureShelf(Temperature.FROZEN);
-    Shelf overflowShelf = new OverflowShelf();
-    Integer numOrder;
+    Kitchen kitchen;
+    OrderSource orderSource;
+    // Number of orders pulled from orderSource so far
+    int numOrdersRead;
     Integer ingestionRate;
-
-    int numDelivered;
-    int numDiscarded;
-    int numWasted;
+    boolean virtualClock;
+    // Timed events driving the virtual clock, null when running in real time
+    PriorityQueue<SimulationEvent> events;
+    // Simulated time and number of orders taken from orderSource the simulation starts from
+    int startTime;
+    int startCount;
+    // Path checkpoints are written to, null if none
+    Path checkpointPath;
+    int checkpointInterval;
 
     public OrdersSimulator(int ingestionRate) {
         this(ingestionRate, new ArrayList<>());
     }
 
     public OrdersSimulator(int ingestionRate, List<Order> orders) {
+        this(ingestionRate, orders, false);
+    }
+
+    public OrdersSimulator(int ingestionRate, List<Order> orders, boolean virtualClock) {
+        this(ingestionRate, new ListOrderSource(orders), virtualClock);
+    }
+
+    public OrdersSimulator(int ingestionRate, OrderSource orderSource, boolean virtualClock) {
+        this(ingestionRate, orderSource, virtualClock, new KitchenConfig());
+    }
+
+    public OrdersSimulator(int ingestionRate, OrderSource orderSource, boolean virtualClock, KitchenConfig config) {
+        this.kitchen = new Kitchen(config);
+        this.kitchen.orderListener = this;
         this.ingestionRate = ingestionRate;
-        this.orders = orders;
-        this.numOrder = orders.size();
-        this.numDelivered = 0;
-        this.numDiscarded = 0;
-        this.numWasted = 0;
+        this.orderSource = orderSource;
+        this.numOrdersRead = 0;
+        this.virtualClock = virtualClock;
+        this.events = virtualClock ? new PriorityQueue<>() : null;
     }
 
     /**
-     * Executing the simulation. This method uses Thread.sleep(1000) to simulate each second passing by.
-     * Simulating time started at 0.
+     * Executing the simulation. Simulating time started at 0.
+     *
+     * <p>In real time mode, this method uses Thread.sleep(1000) to simulate each second passing by. With a virtual
+     * clock, the simulation jumps straight to the next second at which an order arrives, gets picked up or goes to
+     * waste. Nothing changes on the shelves in between, so both modes produce the same result.</p>
      *
      * @throws InterruptedException when the program is interrupted during Thread.sleep()
      */
     public void run() throws InterruptedException {
-        int count = 0;
-        int timer = 0;
-        while (count < numOrder || hasNonEmptyShelf()) {
-            LOGGER.info("Timestamp = " + timer);
+        simulate();
+        kitchen.printAnalytics();
+    }
+
+    /**
+     * Executing the simulation without printing the summary at the end, see {@link #run()}.
+     *
+     * @throws InterruptedException when the program is interrupted during Thread.sleep()
+     */
+    void simulate() throws InterruptedException {
+        int count = startCount;
+        int timer = startTime;
+        int nextCheckpointTime = timer + checkpointInterval;
+        while (orderSource.hasNext() || kitchen.hasNonEmptyShelf()) {
+            if (checkpointPath != null && timer >= nextCheckpointTime) {
+                writeCheckpoint(timer, count);
+                nextCheckpointTime = timer + checkpointInterval;
+            }
+            long tickStartNanos = System.nanoTime();
+            kitchen.eventSink.publish(kitchen.eventSink.claim(EventSink.Type.TIMESTAMP, null, timer));
 
-            checkWastedOrder(timer);
-            checkDeliveredOrder(timer);
+            kitchen.checkWastedOrder(timer);
+            kitchen.checkDeliveredOrder(timer);
             List<Order> orderBatch = getNextOrderBatch(count);
-            ingest(orderBatch, timer);
-            count += ingestionRate;
-            printShelfContent();
-            Thread.sleep(1000);
-            timer++;
+            kitchen.ingest(orderBatch, timer);
+            count += orderBatch.size();
+            kitchen.printShelfContent();
+            kitchen.endTick(timer, tickStartNanos);
+            timer = advanceClock(timer);
         }
-        printAnalytics();
     }
 
-    void printAnalytics() {
-        System.out.println("=========================================================");
-        System.out.println("SUMMARY:");
-        System.out.println("Number of orders picked up: " + numDelivered);
-        System.out.println("Number of orders discarded to make room: " + numDiscarded);
-        System.out.println("Number of orders wasted and discarded: " + numWasted);
+    /**
+     * Write checkpoints periodically while simulating, see {@link Checkpoint}.
+     *
+     * @param path path of the checkpoint file, replaced by every new checkpoint.
+     * @param interval number of simulated seconds between checkpoints.
+     */
+    void setCheckpoints(Path path, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoint interval must be at least 1s: " + interval);
+        }
+        this.checkpointPath = path;
+        this.checkpointInterval = interval;
     }
 
-    boolean hasNonEmptyShelf() {
-        return hotShelf.getCurrentOrders().size() > 0
-                || coldShelf.getCurrentOrders().size() > 0
-                || frozenShelf.getCurrentOrders().size() > 0
-                || overflowShelf.getCurrentOrders().size() > 0;
+    void writeCheckpoint(int time, int count) {
+        try {
+            Checkpoint.capture(kitchen, time, count).write(checkpointPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     /**
-     * Print contents of all shelves to console.
+     * Resume the simulation from a checkpoint instead of starting at 0. The simulator must read the same orders as
+     * the simulation the checkpoint was taken from; the orders already taken are skipped. Any other parameter could
+     * differ, e.g. to fork what-if runs from the same state.
+     *
+     * @param checkpoint the checkpoint, restored on the shelves of the kitchen, which must be empty.
      */
-    void printShelfContent() {
-        System.out.println(hotShelf.getShelfContent());
-        System.out.println(coldShelf.getShelfContent());
-        System.out.println(frozenShelf.getShelfContent());
-        System.out.println(overflowShelf.getShelfContent());
+    void resume(Checkpoint checkpoint) {
+        checkpoint.restore(kitchen);
+        startTime = checkpoint.getTime();
+        startCount = checkpoint.getCount();
     }
 
     /**
-     * Check and clean up orders whose inherent values reach 0.
+     * Advance the simulated clock past the current tick.
      *
      * @param time current simulated time.
+     * @return next simulated time to be processed.
+     * @throws InterruptedException when the program is interrupted during Thread.sleep()
      */
-    void checkWastedOrder(int time) {
-        int sum = countNumOrdersOnShelves();
-        hotShelf.cleanUpWastedOrders(time);
-        coldShelf.cleanUpWastedOrders(time);
-        frozenShelf.cleanUpWastedOrders(time);
-        overflowShelf.cleanUpWastedOrders(time);
-        numWasted += sum - countNumOrdersOnShelves();
+    int advanceClock(int time) throws InterruptedException {
+        if (!virtualClock) {
+            Thread.sleep(1000);
+            return time + 1;
+        }
+        if (orderSource.hasNext()) {
+            schedule(SimulationEvent.Type.ARRIVAL, time + 1, null);
+        }
+        while (!events.isEmpty() && events.peek().getTime() <= time) {
+            events.poll();
+        }
+        return events.isEmpty() ? time + 1 : events.peek().getTime();
     }
 
     /**
-     * Check and clean up delivered orders.
+     * Schedule an event on the virtual clock. Does nothing when running in real time.
      *
-     * @param time current simulated time.
+     * @param type type of the event.
+     * @param time simulated time of the event.
+     * @param order order the event is about, null for arrivals.
      */
-    void checkDeliveredOrder(int time) {
-        int sum = countNumOrdersOnShelves();
-        hotShelf.cleanUpDeliveredOrders(time);
-        coldShelf.cleanUpDeliveredOrders(time);
-        frozenShelf.cleanUpDeliveredOrders(time);
-        overflowShelf.cleanUpDeliveredOrders(time);
-        numDelivered += sum - countNumOrdersOnShelves();
+    void schedule(SimulationEvent.Type type, int time, Order order) {
+        if (events != null) {
+            events.add(new SimulationEvent(type, time, order));
+        }
     }
 
-    /**
-     * Count total number of orders currently on all shelves.
-     *
-     * @return total number of orders currently on all shelves.
-     */
-    int countNumOrdersOnShelves() {
-        return hotShelf.getCurrentOrders().size()
-                + coldShelf.getCurrentOrders().size()
-                + frozenShelf.getCurrentOrders().size()
-                + overflowShelf.getCurrentOrders().size();
+    @Override
+    public void onOrderDispatched(Order order) {
+        schedule(SimulationEvent.Type.PICKUP, order.getTimePickedUp(), order);
+    }
+
+    @Override
+    public void onOrderPlaced(Order order, Shelf shelf) {
+        schedule(SimulationEvent.Type.EXPIRY, shelf.computeExpiryTime(order), order);
     }
 
     /**
-     * Get batch of orders to be ingested from list of orders, starting from given index.
+     * Get batch of orders to be ingested from order source, starting from given index. Orders are pulled from
+     * the source lazily, orders before the starting index that haven't been read yet are skipped.
      *
      * @param startingIndex starting index of orders to be added to next batch.
      * @return list of orders to be ingested.
      */
     List<Order> getNextOrderBatch(int startingIndex) {
+        while (numOrdersRead < startingIndex && orderSource.next() != null) {
+            numOrdersRead++;
+        }
         List<Order> batch =  new ArrayList<>();
-        for (int i = 0; i < ingestionRate; i++) {
-            if (startingIndex + i < numOrder) {
-                batch.add(orders.get(startingIndex + i));
+        while (batch.size() < ingestionRate) {
+            Order order = orderSource.next();
+            if (order == null) {
+                break;
             }
+            batch.add(order);
+            numOrdersRead++;
         }
         return batch;
     }
 
+    private static CommandLine getCommandLine(String[] args) {
+        Options options = new Options();
+
+        Option input = new Option("i", "input", true, "Input file path, required unless listening for orders");
+        options.addOption(input);
+
+        Option ingestionRate = new Option("r", "ingestionRate", true, "Ingestion rate");
+        options.addOption(ingestionRate);
+
+        Option seed = new Option("s", "seed", true,
+                "Seed of the random number generator, runs with the same seed and input are identical");
+        options.addOption(seed);
+
+        Option virtualClock = new Option("v", "virtualClock", false,
+                "Jump straight to the next event instead of sleeping one second per tick");
+        options.addOption(virtualClock);
+
+        Option logLevel = new Option("l", "logLevel", true,
+                "Level of events printed to console: OFF, INFO or DEBUG (default, every order added or removed)");
+        options.addOption(logLevel);
+
+        Option quiet = new Option("q", "quiet", false, "Don't print any event, only the summary. Same as -l OFF");
+        options.addOption(quiet);
+
+        Option convert = new Option("c", "convert", true,
+                "Convert input orders to a binary order log at given path, without running the simulation");
+        options.addOption(convert);
+
+        Option kitchens = new Option("k", "kitchens", true, "Number of kitchens to simulate in parallel");
+        options.addOption(kitchens);
+
+        options.addOption(Option.builder().longOpt("concurrent")
+                .desc("Run producers, couriers and shelf clean up on concurrent threads").build());
+        options.addOption(Option.builder().longOpt("producers").hasArg()
+                .desc("Number of order producer threads in concurrent mode").build());
+        options.addOption(Option.builder().longOpt("couriers").hasArg()
+                .desc("Number of courier threads in concurrent mode").build());
+        options.addOption(Option.builder().longOpt("tickMillis").hasArg()
+                .desc("Length of a tick in milliseconds in concurrent mode").build());
+        options.addOption(Option.builder().longOpt("lockFreeOverflow")
+                .desc("Use a lock-free overflow shelf in concurrent mode").build());
+
+        options.addOption(Option.builder().longOpt("shelfCapacity").hasArg()
+                .desc("Capacity of single temperature shelves").build());
+        options.addOption(Option.builder().longOpt("overflowCapacity").hasArg()
+                .desc("Capacity of overflow shelf").build());
+        options.addOption(Option.builder().longOpt("shelfDecayModifier").hasArg()
+                .desc("Decay modifier of single temperature shelves").build());
+        options.addOption(Option.builder().longOpt("overflowDecayModifier").hasArg()
+                .desc("Decay modifier of overflow shelf").build());
+        options.addOption(Option.builder().longOpt("minPickUp").hasArg()
+                .desc("Shortest time in seconds before an order is picked up").build());
+        options.addOption(Option.builder().longOpt("maxPickUp").hasArg()
+                .desc("Longest time in seconds before an order is picked up").build());
+        options.addOption(Option.builder().longOpt("layout").hasArg()
+                .desc("Properties file laying out shelves, replacing shelf capacities and decay modifiers, "
+                        + "see ShelfLayout").build());
+        options.addOption(Option.builder().longOpt("promote")
+                .desc("Move orders from overflow shelf to their single temperature shelf as soon as it has room")
+                .build());
+        options.addOption(Option.builder().longOpt("eviction").hasArg()
+                .desc("Policy choosing the order discarded from overflow shelf to make room: random (default), "
+                        + "lowest-value, soonest-expiry or latest-pick-up. A list in sweep mode").build());
+        options.addOption(Option.builder().longOpt("courierPool").hasArg()
+                .desc("Number of couriers orders are matched with, instead of a courier per order, see CourierPool. "
+                        + "A list in sweep mode").build());
+        options.addOption(Option.builder().longOpt("batchSize").hasArg()
+                .desc("Largest number of orders a courier of the pool picks up at once").build());
+        options.addOption(Option.builder().longOpt("courierTrip").hasArg()
+                .desc("Distribution of the seconds a courier of the pool takes to deliver and be free again, "
+                        + "e.g. exponential(20)").build());
+        options.addOption(Option.builder().longOpt("sweep")
+                .desc("Simulate every combination of ingestion rate and kitchen parameters, which accept lists "
+                        + "and ranges like 5,10:30:10, and print a table of results").build());
+        options.addOption(Option.builder().longOpt("threads").hasArg()
+                .desc("Number of simulations run in parallel in sweep mode").build());
+        options.addOption(Option.builder().longOpt("checkpoint").hasArg()
+                .desc("Write a checkpoint of the simulation to given file periodically").build());
+        options.addOption(Option.builder().longOpt("checkpointInterval").hasArg()
+                .desc("Number of simulated seconds between checkpoints").build());
+        options.addOption(Option.builder().longOpt("resume").hasArg()
+                .desc("Resume the simulation from given checkpoint, taken on the same input").build());
+        options.addOption(Option.builder().longOpt("generate").hasArg().optionalArg(true).argName("properties")
+                .desc("Simulate synthetic orders instead of an input file, generated with parameters from given "
+                        + "properties file if any, see SyntheticOrderSource").build());
+        options.addOption(Option.builder().longOpt("listen").hasArg()
+                .desc("Take orders from a TCP endpoint on given port instead of an input file, in real time").build());
+        options.addOption(Option.builder().longOpt("queueCapacity").hasArg()
+                .desc("Number of orders received from the TCP endpoint that could wait for the next tick").build());
+        options.addOption(Option.builder().longOpt("metrics").hasArg()
+                .desc("Write snapshots of metrics to given CSV file, one file per kitchen suffixed by its index "
+                        + "with several kitchens").build());
+        options.addOption(Option.builder().longOpt("metricsInterval").hasArg()
+                .desc("Number of simulated seconds between snapshots of metrics").build());
+        options.addOption(Option.builder().longOpt("trace").hasArg()
+                .desc("Write every event to given binary trace instead of the console, to be analyzed with "
+                        + "TraceAnalyzer. One file per kitchen suffixed by its index with several kitchens").build());
+
+        CommandLineParser parser = new DefaultParser();
+        HelpFormatter formatter = new HelpFormatter();
+        CommandLine cmd = null;
+
+        try {
+            cmd = parser.parse(options, args);
+        } catch (ParseException e) {
+            System.out.println(e.getMessage());
+            formatter.printHelp("utility-name", options);
+
+            System.exit(1);
+        }
+
+        return cmd;
+    }
+
     /**
-     * Ingest orders to correct shelves.
+     * Open an order source reading orders from a file, either a binary order log or a JSON array of orders.
      *
-     * @param orders list of orders to be ingested.
-     * @param time current simulated time.
+     * @param path path of the input file.
+     * @return order source reading the file.
+     * @throws IOException if the file couldn't be opened.
      */
-    void ingest(List<Order> orders, int time) {
-        System.out.println("New orders: " + (orders.size() > 0 ? getOrdersIdsStr(orders) : "None"));
-        for (Order order : orders) {
-            order.arrive(time);
-            dispatch(order, time);
-            Shelf shelf = getShelf(order);
-            if (shelf.add(order)) {
-                continue;
-            }
-            if (overflowShelf.add(order)) {
-                continue;
-            }
-            makeRoomOnOverflowShelf(time);
-            overflowShelf.add(order);
+    static OrderSource openOrderSource(Path path) throws IOException {
+        if (BinaryOrderLog.isOrderLog(path)) {
+            return new BinaryOrderSource(path);
         }
+        return new JsonOrderSource(new BufferedReader(new FileReader(path.toFile())));
     }
 
     /**
-     * Dispatch a courier to pick up an order.
+     * Open the order source given on the command line: synthetic orders if asked to generate them, the input file
+     * otherwise.
      *
-     * @param order the order to be picked up.
-     * @param time time that the order arrived on shelf.
+     * @param cmd parsed command line.
+     * @param seed seed of the random number generator, null if not seeded.
+     * @return the order source.
+     * @throws IOException if the input file or the generator properties couldn't be read.
      */
-    void dispatch(Order order, int time) {
-        order.setTimePickedUp(
-                time + new Random().nextInt(MAX_TIME_PICK_UP - MIN_TIME_PICK_UP + 1) + MIN_TIME_PICK_UP);
+    static OrderSource openOrderSource(CommandLine cmd, Long seed) throws IOException {
+        if (!cmd.hasOption("generate")) {
+            return openOrderSource(Paths.get(cmd.getOptionValue('i')));
+        }
+        Properties properties = new Properties();
+        String propertiesFile = cmd.getOptionValue("generate");
+        if (propertiesFile != null) {
+            try (Reader reader = Files.newBufferedReader(Paths.get(propertiesFile))) {
+                properties.load(reader);
+            }
+        }
+        // The generator doesn't share its stream with the kitchen, which is seeded with the seed itself
+        return new SyntheticOrderSource(properties,
+                seed == null ? new SplittableRandom() : new SplittableRandom(seed ^ GENERATOR_SEED_MASK));
     }
 
     /**
-     * Move an order to a single temperature shelf or remove a random order from overflow shelf to make room.
+     * Get the kitchen config given on the command line, default values are used for missing options.
+     *
+     * @param cmd parsed command line.
+     * @return kitchen config.
      */
-    void makeRoomOnOverflowShelf(int time) {
-        Order movableOrder = getMovableOrder(time);
-        if (movableOrder != null) {
-            overflowShelf.remove(movableOrder);
-            Shelf nextShelf = getShelf(movableOrder);
-            nextShelf.add(movableOrder);
-        } else {
-            numDiscarded++;
-            overflowShelf.removeRandomOrder();
+    static KitchenConfig getKitchenConfig(CommandLine cmd) throws IOException {
+        checkCourierOptions(cmd);
+        KitchenConfig config = new KitchenConfig();
+        if (cmd.hasOption("layout")) {
+            config.setShelfLayout(ShelfLayout.load(Paths.get(cmd.getOptionValue("layout"))));
         }
+        return config
+                .setSingleTemperatureShelfCapacity(getIntOption(cmd, "shelfCapacity",
+                        config.getSingleTemperatureShelfCapacity()))
+                .setOverflowShelfCapacity(getIntOption(cmd, "overflowCapacity", config.getOverflowShelfCapacity()))
+                .setSingleTemperatureDecayModifier(getIntOption(cmd, "shelfDecayModifier",
+                        config.getSingleTemperatureDecayModifier()))
+                .setOverflowDecayModifier(getIntOption(cmd, "overflowDecayModifier",
+                        config.getOverflowDecayModifier()))
+                .setPickUpTimeRange(getIntOption(cmd, "minPickUp", config.getMinTimePickUp()),
+                        getIntOption(cmd, "maxPickUp", config.getMaxTimePickUp()))
+                .setPromoteFromOverflow(cmd.hasOption("promote"))
+                .setEvictionPolicy(EvictionPolicy.Type.parse(cmd.getOptionValue("eviction", "random")))
+                .setCourierPool(getIntOption(cmd, "courierPool", 0), getIntOption(cmd, "batchSize", 1))
+                .setCourierTripTime(getCourierTripTime(cmd, config));
+    }
+
+    static void checkCourierOptions(CommandLine cmd) {
+        if ((cmd.hasOption("batchSize") || cmd.hasOption("courierTrip")) && !cmd.hasOption("courierPool")) {
+            throw new IllegalArgumentException("Batch size and courier trip time require a courier pool");
+        }
+    }
+
+    static Distribution getCourierTripTime(CommandLine cmd, KitchenConfig defaults) {
+        return cmd.hasOption("courierTrip")
+                ? Distribution.parse(cmd.getOptionValue("courierTrip")) : defaults.getCourierTripTime();
+    }
+
+    static int getIntOption(CommandLine cmd, String option, int defaultValue) {
+        return Integer.parseInt(cmd.getOptionValue(option, String.valueOf(defaultValue)));
     }
 
     /**
-     * Get a string representation of all orders in a list.
-     *
-     * @param orders list of orders.
-     * @return string representation of all orders, in the format order_id1(order_temp1) order_id2(order_temp2)
+     * Get the list of values of an option in sweep mode, see {@link SweepRunner#parseValues(String)}.
      */
-    String getOrdersIdsStr(List<Order> orders) {
-        String str = "";
-        for (Order order : orders) {
-            str += order.getShortIdWithTemp() + " ";
-        }
-        return str;
+    static List<Integer> getSweepOption(CommandLine cmd, String option, int defaultValue) {
+        return SweepRunner.parseValues(cmd.getOptionValue(option, String.valueOf(defaultValue)));
     }
 
     /**
-     * Get an order from overflow shelf that could be moved to a single temperature shelf.
-     * Eligible order with lowest inherent value will be selected.
+     * Create a sweep runner over all orders of a source, with ranges of values given on the command line.
      *
-     * @return an order to be moved if possible. null if not possible.
+     * @param cmd parsed command line.
+     * @param orders source of orders, which is read entirely before returning.
+     * @return sweep runner.
      */
-    Order getMovableOrder(int time) {
-        Order pickedOrder = null;
-        double minInherentValue = -1;
-        for (Order order : overflowShelf.getCurrentOrders()) {
-            Shelf shelf = getShelf(order);
-            if (shelf.isAvailable()) {
-                double inherentValue = overflowShelf.computeInherentValue(order, time);
-                if (minInherentValue == -1 || inherentValue < minInherentValue) {
-                    pickedOrder = order;
-                    minInherentValue = inherentValue;
+    static SweepRunner getSweepRunner(CommandLine cmd, OrderSource orders) {
+        checkCourierOptions(cmd);
+        KitchenConfig defaults = new KitchenConfig();
+        List<KitchenConfig> configs = SweepRunner.grid(
+                getSweepOption(cmd, "shelfCapacity", defaults.getSingleTemperatureShelfCapacity()),
+                getSweepOption(cmd, "overflowCapacity", defaults.getOverflowShelfCapacity()),
+                getSweepOption(cmd, "shelfDecayModifier", defaults.getSingleTemperatureDecayModifier()),
+                getSweepOption(cmd, "overflowDecayModifier", defaults.getOverflowDecayModifier()),
+                getSweepOption(cmd, "minPickUp", defaults.getMinTimePickUp()),
+                getSweepOption(cmd, "maxPickUp", defaults.getMaxTimePickUp()));
+        if (cmd.hasOption("eviction")) {
+            List<KitchenConfig> gridConfigs = configs;
+            configs = new ArrayList<>();
+            for (String policy : cmd.getOptionValue("eviction").split(",")) {
+                for (KitchenConfig config : gridConfigs) {
+                    configs.add(config.copy().setEvictionPolicy(EvictionPolicy.Type.parse(policy)));
                 }
             }
         }
-        return pickedOrder;
+        if (cmd.hasOption("courierPool")) {
+            List<KitchenConfig> gridConfigs = configs;
+            configs = new ArrayList<>();
+            for (int numCouriers : getSweepOption(cmd, "courierPool", 0)) {
+                for (KitchenConfig config : gridConfigs) {
+                    configs.add(config.copy().setCourierPool(numCouriers, getIntOption(cmd, "batchSize", 1))
+                            .setCourierTripTime(getCourierTripTime(cmd, config)));
+                }
+            }
+        }
+        return new SweepRunner(OrderTable.load(orders), getSweepOption(cmd, "ingestionRate", 2), configs,
+                getIntOption(cmd, "threads", Runtime.getRuntime().availableProcessors()));
     }
 
     /**
-     * Get shelf to put an order in based on order's temperature.
+     * Export metrics of given kitchens through JMX and, if requested on the command line, to CSV files, and
+     * trace their events to binary files if requested.
      *
-     * @param order
-     * @return shelf to put the order in.
+     * @throws JMException if the metrics couldn't be registered with JMX.
+     * @throws IOException if a file couldn't be created.
      */
-    Shelf getShelf(Order order) {
-        if (order.getTemp().equals(Temperature.HOT)) {
-            return hotShelf;
-        }
-        if (order.getTemp().equals(Temperature.COLD)) {
-            return coldShelf;
-        }
-        if (order.getTemp().equals(Temperature.FROZEN)) {
-            return frozenShelf;
+    static void exportMetrics(CommandLine cmd, List<? extends Kitchen> kitchens) throws JMException, IOException {
+        int interval = getIntOption(cmd, "metricsInterval", 1);
+        for (int i = 0; i < kitchens.size(); i++) {
+            Path file = null;
+            if (cmd.hasOption("metrics")) {
+                String path = cmd.getOptionValue("metrics");
+                file = Paths.get(kitchens.size() == 1 ? path : path + "." + i);
+            }
+            kitchens.get(i).exportMetrics(kitchens.size() == 1 ? "kitchen" : "kitchen-" + i, file, interval);
+            if (cmd.hasOption("trace")) {
+                String path = cmd.getOptionValue("trace");
+                kitchens.get(i).traceEvents(Paths.get(kitchens.size() == 1 ? path : path + "." + i));
+            }
         }
-        return null;
     }
 
-    private static CommandLine getCommandLine(String[] args) {
-        Options options = new Options();
-
-        Option input = new Option("i", "input", true, "Input file path");
-        input.setRequired(true);
-        options.addOption(input);
-
-        Option ingestionRate = new Option("r", "ingestionRate", true, "Ingestion rate");
-        options.addOption(ingestionRate);
-
-        CommandLineParser parser = new DefaultParser();
-        HelpFormatter formatter = new HelpFormatter();
-        CommandLine cmd = null;
+    static void closeMetrics(List<? extends Kitchen> kitchens) throws IOException {
+        for (Kitchen kitchen : kitchens) {
+            kitchen.closeMetrics();
+        }
+    }
 
+    /**
+     * Run a single kitchen in real time on orders received by an {@link OrderServer}, until the process is
+     * stopped. On shutdown, the server stops accepting orders, and the kitchen ingests the orders still queued and
+     * waits for its shelves to clear before printing the summary, since every queued order was acknowledged.
+     *
+     * @param cmd parsed command line.
+     * @param seed seed of the random number generator, null if not seeded.
+     */
+    static void serve(CommandLine cmd, Long seed) throws Exception {
+        for (String option : new String[]{"checkpoint", "resume", "concurrent", "k"}) {
+            if (cmd.hasOption(option)) {
+                throw new IllegalArgumentException("Listen mode runs a single kitchen, it doesn't support option "
+                        + option);
+            }
+        }
+        int ingestionRate = Integer.parseInt(cmd.getOptionValue('r', "2"));
+        LiveOrderSource source = new LiveOrderSource(getIntOption(cmd, "queueCapacity", 1024));
+        OrdersSimulator sim = new OrdersSimulator(ingestionRate, source, false, getKitchenConfig(cmd));
+        if (seed != null) {
+            sim.kitchen.setRandom(new SplittableRandom(seed));
+        }
+        // Once shelves are full, orders beyond the next tick's batch would only wait to discard others
+        OrderServer server = new OrderServer(source, () -> sim.kitchen.isSaturated() && source.size() >= ingestionRate);
+        server.start(Integer.parseInt(cmd.getOptionValue("listen")));
+        System.err.println("Listening for orders on port " + server.getPort());
+        Thread mainThread = Thread.currentThread();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                source.close();
+                System.err.println("Stopped listening, draining " + source.size() + " queued orders");
+                mainThread.join();
+            } catch (IOException | InterruptedException e) {
+                // Shutting down anyway
+            }
+        }));
+        exportMetrics(cmd, List.of(sim.kitchen));
         try {
-            cmd = parser.parse(options, args);
-        } catch (ParseException e) {
-            System.out.println(e.getMessage());
-            formatter.printHelp("utility-name", options);
-
-            System.exit(1);
+            sim.run();
+        } finally {
+            closeMetrics(List.of(sim.kitchen));
         }
-
-        return cmd;
     }
 
+    static final long GENERATOR_SEED_MASK = 0x5DEECE66DL;
+
     public static void main(String[] args) {
         CommandLine cmd = getCommandLine(args);
         String inputFile = cmd.getOptionValue('i');
-        int ingestionRate = Integer.parseInt(cmd.getOptionValue('r', "2"));
-        List<Order> orders = new ArrayList<>();
-        JSONParser jsonParser = new JSONParser();
-        try (FileReader reader = new FileReader(inputFile)) {
-            JSONArray ordersList = (JSONArray)jsonParser.parse(reader);
-            for (int i = 0; i < ordersList.size(); i++) {
-                orders.add(Order.fromJsonObject((JSONObject)ordersList.get(i)));
+        boolean virtualClock = cmd.hasOption('v');
+        int numKitchens = Integer.parseInt(cmd.getOptionValue('k', "1"));
+        Long seed = cmd.hasOption('s') ? Long.valueOf(cmd.getOptionValue('s')) : null;
+        EventSink.CONSOLE.setLevel(cmd.hasOption('q')
+                ? EventSink.Level.OFF
+                : EventSink.Level.valueOf(cmd.getOptionValue('l', "DEBUG").toUpperCase()));
+        if (cmd.hasOption("listen")) {
+            try {
+                serve(cmd, seed);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            return;
+        }
+        if (inputFile == null && !cmd.hasOption("generate")) {
+            System.out.println("Missing required option: i");
+            System.exit(1);
+        }
+        KitchenConfig config;
+        try {
+            // Fail on an invalid config before reading orders. Options are lists in sweep mode, they're read by
+            // getSweepRunner
+            config = cmd.hasOption("sweep") ? new KitchenConfig() : getKitchenConfig(cmd);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return;
+        }
+        try (OrderSource orders = openOrderSource(cmd, seed)) {
+            Distribution pickUpDelay = orders instanceof SyntheticOrderSource
+                    ? ((SyntheticOrderSource) orders).getPickUpDelay() : null;
+            if (cmd.hasOption('c')) {
+                long count = BinaryOrderLog.write(orders, Paths.get(cmd.getOptionValue('c')));
+                System.out.println("Orders written to binary order log: " + count);
+                return;
+            }
+            if (cmd.hasOption("sweep")) {
+                if (cmd.hasOption("layout")) {
+                    throw new IllegalArgumentException("Sweep mode only supports the standard shelf layout");
+                }
+                SweepRunner runner = getSweepRunner(cmd, orders);
+                for (KitchenConfig gridConfig : runner.configs) {
+                    gridConfig.setPickUpDelay(pickUpDelay).setPromoteFromOverflow(cmd.hasOption("promote"));
+                }
+                if (seed != null) {
+                    runner.setSeed(seed);
+                }
+                runner.run(System.out);
+                return;
+            }
+            // Synthetic orders come in second by second, a single kitchen takes all of them unless limited
+            boolean generatedSeconds = cmd.hasOption("generate") && !cmd.hasOption("concurrent") && numKitchens == 1;
+            int ingestionRate = Integer.parseInt(cmd.getOptionValue('r',
+                    generatedSeconds ? String.valueOf(Integer.MAX_VALUE) : "2"));
+            config.setPickUpDelay(pickUpDelay);
+            if ((cmd.hasOption("checkpoint") || cmd.hasOption("resume"))
+                    && (cmd.hasOption("concurrent") || numKitchens > 1)) {
+                throw new IllegalArgumentException("Checkpoints are only supported with a single kitchen");
+            }
+            if (cmd.hasOption("concurrent")) {
+                ConcurrentSimulator sim = new ConcurrentSimulator(ingestionRate, orders,
+                        Integer.parseInt(cmd.getOptionValue("producers", "2")),
+                        Integer.parseInt(cmd.getOptionValue("couriers", "8")),
+                        Long.parseLong(cmd.getOptionValue("tickMillis", "1000")),
+                        cmd.hasOption("lockFreeOverflow"), config);
+                if (seed != null) {
+                    sim.kitchen.setRandom(new SplittableRandom(seed));
+                }
+                exportMetrics(cmd, List.of(sim.kitchen));
+                try {
+                    sim.run();
+                } finally {
+                    closeMetrics(List.of(sim.kitchen));
+                }
+                return;
+            }
+            if (numKitchens > 1) {
+                FleetSimulator fleet = new FleetSimulator(numKitchens, ingestionRate, virtualClock, config);
+                if (seed != null) {
+                    fleet.setSeed(seed);
+                }
+                exportMetrics(cmd, fleet.kitchens);
+                try {
+                    fleet.run(orders);
+                } finally {
+                    closeMetrics(fleet.kitchens);
+                }
+                return;
+            }
+            OrdersSimulator sim = new OrdersSimulator(ingestionRate, orders, virtualClock, config);
+            if (seed != null) {
+                sim.kitchen.setRandom(new SplittableRandom(seed));
+            }
+            if (cmd.hasOption("resume")) {
+                sim.resume(Checkpoint.read(Paths.get(cmd.getOptionValue("resume"))));
+            }
+            if (cmd.hasOption("checkpoint")) {
+                sim.setCheckpoints(Paths.get(cmd.getOptionValue("checkpoint")),
+                        getIntOption(cmd, "checkpointInterval", 60));
+            }
+            exportMetrics(cmd, List.of(sim.kitchen));
+            try {
+                sim.run();
+            } finally {
+                closeMetrics(List.of(sim.kitchen));
             }
-            OrdersSimulator sim = new OrdersSimulator(ingestionRate, orders);
-            sim.run();
         } catch (Exception e) {
             e.printStackTrace();
         }
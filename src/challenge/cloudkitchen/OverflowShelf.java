@@ -1,7 +1,9 @@
 package challenge.cloudkitchen;
 
 import challenge.cloudkitchen.Constants.*;
-import java.util.Random;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
 
 import static challenge.cloudkitchen.Constants.OVERFLOW_SHELF_CAPACITY;
 import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_OVERFLOW;
@@ -9,19 +11,129 @@ import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_OVERFLOW;
 /**
  * <p>OverflowShelf contains orders of all temperature. An order is put on overflow shelf when there's no
  * room in the shelf of its temperature.</p>
- * <p>Overflow shelf supports method to remove a random order from itself when there's no room for incoming orders.</p>
- * <p>An order could be moved from overflow shelf to a single temperature shelf to make room</p>
+ * <p>Overflow shelf supports method to remove a random order from itself when there's no room for incoming orders.
+ * Which order is discarded to make room is up to its {@link EvictionPolicy}, random by default.</p>
+ * <p>An order could be moved from overflow shelf to a single temperature shelf to make room. Orders of each
+ * temperature zone of the kitchen's {@link ShelfLayout} are indexed by the time they go to waste, so that finding
+ * the order to move only looks at the head of one index per zone.</p>
  */
 public class OverflowShelf extends Shelf {
 
+    // Temperature zones orders are indexed by
+    ShelfLayout layout;
+    // Orders on shelf by temperature zone, each sorted by the time they go to waste on this shelf
+    OrderHeap[] movableIndexes;
+    SplittableRandom random = new SplittableRandom();
+    EvictionPolicy evictionPolicy;
+    // Name of the shelf in the kitchen's layout
+    String name = "overflow";
+
     public OverflowShelf() {
+        this(OVERFLOW_SHELF_CAPACITY, SHELF_DECAY_MODIFIER_OVERFLOW);
+    }
+
+    public OverflowShelf(int capacity, int shelfDecayModifier) {
+        this(capacity, shelfDecayModifier, EvictionPolicy.Type.RANDOM);
+    }
+
+    public OverflowShelf(int capacity, int shelfDecayModifier, EvictionPolicy.Type evictionPolicy) {
+        this(capacity, shelfDecayModifier, evictionPolicy, ShelfLayout.standard(new KitchenConfig()));
+    }
+
+    /**
+     * @param capacity capacity of the shelf.
+     * @param shelfDecayModifier decay modifier of the shelf.
+     * @param evictionPolicy policy choosing which order is discarded to make room.
+     * @param layout layout of the kitchen, whose temperature zones orders are indexed by.
+     */
+    public OverflowShelf(int capacity, int shelfDecayModifier, EvictionPolicy.Type evictionPolicy,
+                         ShelfLayout layout) {
+        this(capacity, shelfDecayModifier, layout);
+        movableIndexes = new OrderHeap[layout.getNumZones()];
+        for (int i = 0; i < movableIndexes.length; i++) {
+            movableIndexes[i] = new OrderHeap(this::computeZeroValueTime);
+        }
+        currentOrders.addIndex(new OrderIndex() {
+            @Override
+            public void onAdd(Order order) {
+                int zone = layout.getZone(order);
+                if (zone >= 0) {
+                    movableIndexes[zone].add(order);
+                }
+            }
+
+            @Override
+            public void onRemove(Order order) {
+                int zone = layout.getZone(order);
+                if (zone >= 0) {
+                    movableIndexes[zone].remove(order);
+                }
+            }
+
+            @Override
+            public void onClear() {
+                for (OrderHeap index : movableIndexes) {
+                    index.clear();
+                }
+            }
+        });
+        setEvictionPolicy(evictionPolicy.create(this));
+    }
+
+    /**
+     * Create a shelf which keeps its orders on its own instead of in {@link #currentOrders}, see
+     * {@link ConcurrentOverflowShelf}. The shelf has neither index of movable orders nor eviction policy, so the
+     * subclass must override every method using them.
+     *
+     * @param capacity capacity of the shelf.
+     * @param shelfDecayModifier decay modifier of the shelf.
+     * @param layout layout of the kitchen.
+     */
+    OverflowShelf(int capacity, int shelfDecayModifier, ShelfLayout layout) {
         super();
-        capacity = OVERFLOW_SHELF_CAPACITY;
-        shelfDecayModifier = SHELF_DECAY_MODIFIER_OVERFLOW;
+        this.capacity = capacity;
+        this.shelfDecayModifier = shelfDecayModifier;
+        this.layout = layout;
+    }
+
+    /**
+     * Set the policy choosing which order is discarded to make room. Orders already on shelf are indexed by the
+     * new policy right away.
+     *
+     * @param evictionPolicy the policy, created for this shelf.
+     */
+    public synchronized void setEvictionPolicy(EvictionPolicy evictionPolicy) {
+        if (this.evictionPolicy != null) {
+            currentOrders.removeIndex(this.evictionPolicy);
+        }
+        this.evictionPolicy = evictionPolicy;
+        currentOrders.addIndex(evictionPolicy);
     }
 
     String getShelfName() {
-        return ShelfType.OVERFLOW.name() + " shelf";
+        return name.toUpperCase() + " shelf";
+    }
+
+    /**
+     * Get the order of given temperature that goes to waste first on this shelf, which is the order to be moved
+     * to the single temperature shelf when it has room.
+     *
+     * @param temp temperature of the order.
+     * @return order that goes to waste first, null if there's no order of given temperature on shelf.
+     */
+    public Order peekMovableOrder(Temperature temp) {
+        return peekMovableOrder(temp.ordinal());
+    }
+
+    /**
+     * Get the order of given temperature zone that goes to waste first on this shelf, see
+     * {@link #peekMovableOrder(Temperature)}.
+     *
+     * @param zone temperature zone of the order in the kitchen's layout.
+     * @return order that goes to waste first, null if there's no order of given zone on shelf.
+     */
+    public synchronized Order peekMovableOrder(int zone) {
+        return movableIndexes[zone].peek();
     }
 
     /**
@@ -29,14 +141,47 @@ public class OverflowShelf extends Shelf {
      *
      * @return order that was removed.
      */
-    public Order removeRandomOrder() {
+    public synchronized Order removeRandomOrder() {
         if (currentOrders.size() == 0) {
             return null;
         }
-        int ind = new Random().nextInt(currentOrders.size());
+        int ind = random.nextInt(currentOrders.size());
         Order order = currentOrders.get(ind);
         currentOrders.remove(ind);
-        System.out.println("Order removed from " + getShelfName() + " to clear space: " + order.getShortId());
+        eventSink.publish(EventSink.Type.ORDER_DISCARDED, this, order);
         return order;
     }
+
+    /**
+     * Remove the order chosen by the eviction policy from shelf to clear space for incoming orders.
+     *
+     * @return order that was removed, null if the shelf is empty.
+     */
+    public synchronized Order evictOrder() {
+        Order order = evictionPolicy.selectVictim();
+        if (order == null) {
+            return null;
+        }
+        currentOrders.remove(order);
+        eventSink.publish(EventSink.Type.ORDER_DISCARDED, this, order);
+        return order;
+    }
+
+    /**
+     * Remove the orders chosen by the eviction policy from shelf to clear space for a batch of incoming orders.
+     *
+     * @param numOrders number of orders to be removed.
+     * @return orders that were removed, fewer than asked if the shelf ran out of orders.
+     */
+    public synchronized List<Order> evictOrders(int numOrders) {
+        List<Order> removed = new ArrayList<>(numOrders);
+        while (removed.size() < numOrders) {
+            Order order = evictOrder();
+            if (order == null) {
+                break;
+            }
+            removed.add(order);
+        }
+        return removed;
+    }
 }
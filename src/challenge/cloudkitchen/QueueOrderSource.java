@@ -0,0 +1,85 @@
+package challenge.cloudkitchen;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An order source fed by another thread through a bounded queue. The feeding thread blocks when the queue is
+ * full, so a slow consumer holds back its producer instead of orders piling up in memory.
+ *
+ * <p>{@link #hasNext()} waits until an order is queued or the producer calls {@link #finish()}, so the consumer
+ * sees exactly the orders that were put into the queue, as if reading them from a file.</p>
+ */
+public class QueueOrderSource implements OrderSource {
+
+    static final long POLL_INTERVAL_MS = 100;
+
+    BlockingQueue<Order> queue;
+    volatile boolean finished;
+    volatile boolean abandoned;
+    Order head;
+
+    public QueueOrderSource(int capacity) {
+        queue = new ArrayBlockingQueue<>(capacity);
+        finished = false;
+        abandoned = false;
+    }
+
+    /**
+     * Add an order to the queue, waiting for room if the queue is full. Orders are dropped once the consumer
+     * has abandoned the source.
+     *
+     * @param order the order to be added.
+     * @throws InterruptedException when interrupted while waiting for room.
+     */
+    public void put(Order order) throws InterruptedException {
+        while (!abandoned) {
+            if (queue.offer(order, POLL_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Signal that no more orders will be added.
+     */
+    public void finish() {
+        finished = true;
+    }
+
+    /**
+     * Signal that the consumer stopped reading, e.g. because it failed. Producer won't block on this source
+     * anymore.
+     */
+    public void abandon() {
+        abandoned = true;
+        queue.clear();
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (head == null) {
+                if (finished && queue.isEmpty()) {
+                    return false;
+                }
+                head = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public Order next() {
+        if (!hasNext()) {
+            return null;
+        }
+        Order order = head;
+        head = null;
+        return order;
+    }
+}
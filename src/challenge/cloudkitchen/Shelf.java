@@ -1,6 +1,7 @@
 package challenge.cloudkitchen;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -10,27 +11,51 @@ import java.util.List;
  *
  * <p>A shelf object provides methods for adding orders, removing orders,
  * cleaning up delivered or wasted orders.</p>
+ *
+ * <p>Orders on shelf are also indexed by the time they go to waste on this shelf, so that cleaning up wasted
+ * orders only needs to look at the orders that actually expired.</p>
+ *
+ * <p>Public operations are synchronized on the shelf itself, so every shelf has its own lock and threads working
+ * on different shelves don't contend with each other. Callers that need several operations on a shelf to be
+ * atomic, e.g. iterating over {@link #getCurrentOrders()}, should synchronize on the shelf too.</p>
  */
 public abstract class Shelf {
 
-    List<Order> currentOrders;
+    IndexedOrderList currentOrders;
+    // Orders on shelf sorted by expiry time. The expiry time is computed when an order is placed on shelf,
+    // so shelfDecayModifier must not change while there are orders on shelf.
+    OrderHeap expiryIndex;
     int shelfDecayModifier;
     int capacity;
+    EventSink eventSink = EventSink.CONSOLE;
+    // Metrics of the kitchen the shelf belongs to, null if none
+    Metrics metrics;
 
     public Shelf() {
-        currentOrders = new ArrayList<>();
+        currentOrders = new IndexedOrderList();
+        expiryIndex = new OrderHeap(this::computeExpiryTime);
+        currentOrders.addIndex(expiryIndex);
     }
 
     public List<Order> getCurrentOrders() {
         return currentOrders;
     }
 
+    /**
+     * Get number of orders currently on shelf, without locking the shelf.
+     *
+     * @return number of orders on shelf.
+     */
+    public int getNumOrders() {
+        return currentOrders.size();
+    }
+
     /**
      * Check if shelf still has room for new orders.
      *
      * @return true if shelf has room, false otherwise.
      */
-    public boolean isAvailable() {
+    public synchronized boolean isAvailable() {
         return currentOrders.size() < capacity;
     }
 
@@ -42,31 +67,67 @@ public abstract class Shelf {
      * @param order the order to be added
      * @return true if order was added successfully, false otherwise.
      */
-    public boolean add(Order order) {
-        for (Order o : currentOrders) {
-            if (o.getId().equals(order.getId())) {
-                return false;
-            }
+    public synchronized boolean add(Order order) {
+        if (currentOrders.containsId(order.getId())) {
+            return false;
         }
-        if (order.getTimeArrived() == null || order.getTimePickedUp() == null) {
+        if (!order.hasArrived() || !order.hasTimePickedUp()) {
             return false;
         }
         if (currentOrders.size() < capacity) {
             currentOrders.add(order);
-            System.out.println("Order added to " + getShelfName() + ": " + order.getShortIdWithTemp());
+            eventSink.publish(EventSink.Type.ORDER_ADDED, this, order);
             return true;
         }
         return false;
     }
 
+    /**
+     * Add as many orders of a batch as there's room for, in the order of the batch, holding the lock of the shelf
+     * once for the whole batch. Once the shelf is full, the rest of the batch is rejected without looking at it.
+     *
+     * @param orders orders to be added.
+     * @return orders that were not added, in the order of the batch.
+     */
+    public synchronized List<Order> addAll(List<Order> orders) {
+        List<Order> rejected = null;
+        for (int i = 0; i < orders.size(); i++) {
+            if (!isAvailable()) {
+                if (rejected == null) {
+                    rejected = new ArrayList<>(orders.size() - i);
+                }
+                rejected.addAll(orders.subList(i, orders.size()));
+                break;
+            }
+            Order order = orders.get(i);
+            if (!add(order)) {
+                if (rejected == null) {
+                    rejected = new ArrayList<>();
+                }
+                rejected.add(order);
+            }
+        }
+        return rejected == null ? Collections.emptyList() : rejected;
+    }
+
+    /**
+     * Check if an order is on shelf.
+     *
+     * @param order
+     * @return true if this very order is on shelf, false otherwise.
+     */
+    public synchronized boolean contains(Order order) {
+        return currentOrders.contains(order);
+    }
+
     /**
      * Remove order from shelf.
      *
      * @param order
      * @return true if order was removed successfully, false otherwise.
      */
-    public boolean remove(Order order) {
-        System.out.println("Order removed from " + getShelfName() + ": " + order.getShortIdWithTemp());
+    public synchronized boolean remove(Order order) {
+        eventSink.publish(EventSink.Type.ORDER_REMOVED, this, order);
         return currentOrders.remove(order);
     }
 
@@ -82,47 +143,119 @@ public abstract class Shelf {
         return (order.shelfLife - orderAge - order.decayRate * orderAge * shelfDecayModifier) / order.shelfLife;
     }
 
+    /**
+     * Compute the exact time at which the inherent value of an order on shelf reaches 0. Unlike
+     * {@link #computeExpiryTime(Order)}, the result isn't rounded to a simulated second, so orders going to waste
+     * within the same second are still ordered.
+     *
+     * @param order an order that has arrived.
+     * @return time the inherent value reaches 0, Double.POSITIVE_INFINITY if it never does.
+     */
+    double computeZeroValueTime(Order order) {
+        double decayPerSecond = 1 + order.decayRate * shelfDecayModifier;
+        if (!order.hasArrived() || decayPerSecond <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return order.timeArrived + order.shelfLife / decayPerSecond;
+    }
+
+    /**
+     * Compute the first simulated time at which the inherent value of an order on shelf drops to 0 or below,
+     * i.e. the time it would be cleaned up by {@link #cleanUpWastedOrders(int)}.
+     *
+     * @param order an order that has arrived.
+     * @return time the order goes to waste on this shelf, Integer.MAX_VALUE if it never does.
+     */
+    int computeExpiryTime(Order order) {
+        if (!order.hasArrived()) {
+            return Integer.MAX_VALUE;
+        }
+        double decayPerSecond = 1 + order.decayRate * shelfDecayModifier;
+        if (decayPerSecond <= 0) {
+            return Integer.MAX_VALUE;
+        }
+        long time = order.timeArrived + Math.max(0, (long) Math.ceil(order.shelfLife / decayPerSecond));
+        if (time >= Integer.MAX_VALUE) {
+            return Integer.MAX_VALUE;
+        }
+        // The closed form could be off by one second due to floating point rounding, step around it so the
+        // result always agrees with computeInherentValue.
+        while (time > order.timeArrived && computeInherentValue(order, (int) time - 1) <= 0) {
+            time--;
+        }
+        while (time < Integer.MAX_VALUE && !(computeInherentValue(order, (int) time) <= 0)) {
+            time++;
+        }
+        return (int) time;
+    }
+
     /**
      * Clean up all orders with inherent value less than or equal to 0.
      *
      * @param time current simulated time.
+     * @return number of orders removed from shelf.
      */
-    public void cleanUpWastedOrders(int time) {
-        List<Order> wasted = new ArrayList<>();
-        String wastedStr = "";
-        for (Order order : currentOrders) {
-            double inherentValue = computeInherentValue(order, time);
-            if (inherentValue <= 0) {
-                wastedStr +=
-                        order.getShortId() + "(after " + (time - order.getTimeArrived()) + "s) ";
-                wasted.add(order);
+    public synchronized int cleanUpWastedOrders(int time) {
+        int numRemoved = 0;
+        EventSink.Event wasted = null;
+        while (expiryIndex.peekKey() <= time) {
+            Order order = expiryIndex.peek();
+            if (numRemoved == 0) {
+                wasted = eventSink.claim(EventSink.Type.ORDERS_WASTED, this, time);
             }
+            if (wasted != null) {
+                wasted.add(order, time - order.timeArrived);
+            }
+            currentOrders.remove(order);
+            numRemoved++;
         }
-        if (!wasted.isEmpty()) {
-            currentOrders.removeAll(wasted);
-            System.out.println("Orders wasted and removed from " + getShelfName() + ": " + wastedStr);
-        }
+        eventSink.publish(wasted);
+        return numRemoved;
     }
 
     /**
-     * Clean up all delivered orders.
+     * Clean up all delivered orders. This method walks through all orders on shelf, see
+     * {@link #cleanUpDeliveredOrders(List, int)} when the orders being picked up are already known.
      *
      * @param time current simulated time.
      */
-    public void cleanUpDeliveredOrders(int time) {
+    public synchronized void cleanUpDeliveredOrders(int time) {
         List<Order> delivered = new ArrayList<>();
-        String deliveredStr = "";
         for (Order order : currentOrders) {
             if (order.getTimePickedUp() <= time) {
-                deliveredStr +=
-                        order.getShortId() + "(after " + (time - order.getTimeArrived()) + "s) ";
                 delivered.add(order);
             }
         }
-        if (!delivered.isEmpty()) {
-            currentOrders.removeAll(delivered);
-            System.out.println("Orders delivered and removed from " + getShelfName() + ": " + deliveredStr);
+        cleanUpDeliveredOrders(delivered, time);
+    }
+
+    /**
+     * Clean up delivered orders among a list of orders being picked up. Orders that are not on this shelf
+     * are ignored.
+     *
+     * @param pickedUp orders being picked up, from any shelf.
+     * @param time current simulated time.
+     * @return number of orders removed from this shelf.
+     */
+    public synchronized int cleanUpDeliveredOrders(List<Order> pickedUp, int time) {
+        int numRemoved = 0;
+        EventSink.Event delivered = null;
+        for (Order order : pickedUp) {
+            if (currentOrders.remove(order)) {
+                if (numRemoved == 0) {
+                    delivered = eventSink.claim(EventSink.Type.ORDERS_DELIVERED, this, time);
+                }
+                if (delivered != null) {
+                    delivered.add(order, time - order.timeArrived);
+                }
+                if (metrics != null) {
+                    metrics.recordPickUp(order, time, computeInherentValue(order, time));
+                }
+                numRemoved++;
+            }
         }
+        eventSink.publish(delivered);
+        return numRemoved;
     }
 
     /**
@@ -130,15 +263,30 @@ public abstract class Shelf {
      *
      * @return a string representation of shelf's content.
      */
-    public String getShelfContent() {
-        String str = " Occupancy (" + currentOrders.size() + "/" + capacity + "): ";
+    public synchronized String getShelfContent() {
+        StringBuilder str = new StringBuilder(getShelfName())
+                .append(" Occupancy (").append(currentOrders.size()).append("/").append(capacity).append("): ");
         for (Order order : currentOrders) {
-            str += order.getShortId() + " ";
+            str.append(order.getShortId()).append(" ");
         }
         if (currentOrders.size() == 0) {
-            str += "None";
+            str.append("None");
+        }
+        return str.toString();
+    }
+
+    /**
+     * Publish all orders currently on shelf as an event, which is printed the same as {@link #getShelfContent()}.
+     */
+    public synchronized void printShelfContent() {
+        EventSink.Event event = eventSink.claim(EventSink.Type.SHELF_CONTENT, this, 0);
+        if (event != null) {
+            event.capacity = capacity;
+            for (Order order : currentOrders) {
+                event.add(order);
+            }
+            eventSink.publish(event);
         }
-        return getShelfName() + str;
     }
 
     /**
@@ -0,0 +1,242 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.Constants.*;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static challenge.cloudkitchen.Constants.OVERFLOW_SHELF_CAPACITY;
+import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_OVERFLOW;
+import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE;
+import static challenge.cloudkitchen.Constants.SINGLE_TEMPERATURE_SHELF_CAPACITY;
+
+/**
+ * The shelves of a kitchen: which temperature zones it has, how many overflow shelves, and the capacity and decay
+ * modifier of each shelf. The standard layout is one shelf each for hot, cold and frozen orders plus one overflow
+ * shelf, sized by {@link KitchenConfig}.
+ *
+ * <p>A layout could be loaded from properties, e.g.:
+ * <pre>
+ * shelves=hot,cold,frozen,ambient,overflow,spill
+ * shelf.ambient.temperature=ambient
+ * shelf.ambient.capacity=20
+ * shelf.spill.capacity=30
+ * shelf.spill.decayModifier=3
+ * </pre>
+ * Shelves are listed in order. A shelf has the temperature of its name if it's hot, cold or frozen, otherwise it's
+ * an overflow shelf unless given a temperature. There's at most one shelf per temperature, and at least one
+ * overflow shelf. Capacities and decay modifiers default to the values of {@link Constants}.</p>
+ *
+ * <p>Shelves are looked up by temperature zone: hot, cold and frozen are zones 0 to 2 as in {@link Temperature},
+ * followed by the other temperatures of the layout in order. Zones belong to the layout, so that kitchens with
+ * different layouts don't share any state.</p>
+ *
+ * <p>Orders that don't fit on the shelf of their temperature, or whose temperature has no shelf, go to the first
+ * overflow shelf with room, in order. When all of them are full, orders are moved off any of them to the shelf
+ * of their temperature, and the rest of the room is made on the first one.</p>
+ */
+public class ShelfLayout {
+
+    /**
+     * A shelf of the layout.
+     */
+    static class ShelfSpec {
+
+        String name;
+        // Temperature of a single temperature shelf in upper case, null for an overflow shelf
+        String temp;
+        // Temperature zone of a single temperature shelf, set by the layout
+        int zone = -1;
+        int capacity;
+        int decayModifier;
+
+        ShelfSpec(String name, String temp, int capacity, int decayModifier) {
+            KitchenConfig.checkNotNegative("Capacity of shelf " + name, capacity);
+            this.name = name;
+            this.temp = temp;
+            this.capacity = capacity;
+            this.decayModifier = decayModifier;
+        }
+
+        boolean isOverflow() {
+            return temp == null;
+        }
+
+        @Override
+        public String toString() {
+            return name + (isOverflow() || temp.equalsIgnoreCase(name) ? "" : "(" + temp.toLowerCase() + ")")
+                    + " " + capacity + "/" + decayModifier;
+        }
+    }
+
+    List<ShelfSpec> shelves;
+    // Names of the temperature zones, by zone
+    List<String> zones;
+    Map<String, Integer> zoneIndexes;
+
+    ShelfLayout(List<ShelfSpec> shelves) {
+        this.zones = new ArrayList<>();
+        this.zoneIndexes = new HashMap<>();
+        for (Temperature temp : Temperature.VALUES) {
+            addZone(temp.name());
+        }
+        Set<String> names = new HashSet<>();
+        Set<String> temps = new HashSet<>();
+        boolean hasOverflow = false;
+        for (ShelfSpec shelf : shelves) {
+            if (!names.add(shelf.name)) {
+                throw new IllegalArgumentException("Duplicate shelf " + shelf.name);
+            }
+            if (shelf.isOverflow()) {
+                hasOverflow = true;
+            } else if (!temps.add(shelf.temp)) {
+                throw new IllegalArgumentException("More than one shelf of temperature " + shelf.temp.toLowerCase());
+            } else {
+                shelf.zone = addZone(shelf.temp);
+            }
+        }
+        if (!hasOverflow) {
+            throw new IllegalArgumentException("A shelf layout needs an overflow shelf");
+        }
+        this.shelves = Collections.unmodifiableList(new ArrayList<>(shelves));
+    }
+
+    private int addZone(String temp) {
+        return zoneIndexes.computeIfAbsent(temp, key -> {
+            zones.add(key);
+            return zones.size() - 1;
+        });
+    }
+
+    /**
+     * Get the standard layout: hot, cold and frozen shelves followed by an overflow shelf.
+     *
+     * @param config capacities and decay modifiers of the shelves.
+     * @return the layout.
+     */
+    static ShelfLayout standard(KitchenConfig config) {
+        List<ShelfSpec> shelves = new ArrayList<>();
+        for (Temperature temp : Temperature.VALUES) {
+            shelves.add(new ShelfSpec(temp.name().toLowerCase(), temp.name(),
+                    config.getSingleTemperatureShelfCapacity(), config.getSingleTemperatureDecayModifier()));
+        }
+        shelves.add(new ShelfSpec("overflow", null, config.getOverflowShelfCapacity(),
+                config.getOverflowDecayModifier()));
+        return new ShelfLayout(shelves);
+    }
+
+    /**
+     * Load a layout from properties, see the class description.
+     *
+     * @param properties the layout.
+     * @return the layout.
+     * @throws IllegalArgumentException if the layout is invalid.
+     */
+    public static ShelfLayout load(Properties properties) {
+        String names = properties.getProperty("shelves");
+        if (names == null || names.isBlank()) {
+            throw new IllegalArgumentException("No shelves in layout");
+        }
+        List<ShelfSpec> shelves = new ArrayList<>();
+        for (String item : names.split(",")) {
+            String name = item.trim().toLowerCase();
+            String prefix = "shelf." + name + ".";
+            String temp = properties.getProperty(prefix + "temperature");
+            if (temp != null) {
+                temp = temp.trim().toUpperCase();
+            } else if (Temperature.forName(name) != null) {
+                temp = name.toUpperCase();
+            }
+            boolean overflow = temp == null;
+            shelves.add(new ShelfSpec(name, temp,
+                    getInt(properties, prefix + "capacity",
+                            overflow ? OVERFLOW_SHELF_CAPACITY : SINGLE_TEMPERATURE_SHELF_CAPACITY),
+                    getInt(properties, prefix + "decayModifier",
+                            overflow ? SHELF_DECAY_MODIFIER_OVERFLOW : SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE)));
+        }
+        return new ShelfLayout(shelves);
+    }
+
+    /**
+     * Load a layout from a properties file, see {@link #load(Properties)}.
+     *
+     * @param file path of the properties file.
+     * @return the layout.
+     * @throws IOException if the file couldn't be read.
+     */
+    public static ShelfLayout load(Path file) throws IOException {
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file)) {
+            properties.load(reader);
+        }
+        return load(properties);
+    }
+
+    static int getInt(Properties properties, String key, int defaultValue) {
+        return Integer.parseInt(properties.getProperty(key, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * @return shelves of the layout, in order.
+     */
+    List<ShelfSpec> getShelves() {
+        return shelves;
+    }
+
+    /**
+     * @return number of temperature zones, hot, cold and frozen included even if they have no shelf.
+     */
+    int getNumZones() {
+        return zones.size();
+    }
+
+    String getZoneName(int zone) {
+        return zones.get(zone);
+    }
+
+    /**
+     * Get the temperature zone of an order.
+     *
+     * @param order the order.
+     * @return zone of the order's temperature, -1 if it's not a temperature of this layout.
+     */
+    int getZone(Order order) {
+        if (order.getTemp() != null) {
+            return order.getTemp().ordinal();
+        }
+        return getZone(order.zone);
+    }
+
+    /**
+     * Get a temperature zone by name.
+     *
+     * @param temp name of the temperature in upper case, e.g. <code>AMBIENT</code>.
+     * @return the zone, -1 if it's not a temperature of this layout.
+     */
+    int getZone(String temp) {
+        Integer zone = zoneIndexes.get(temp);
+        return zone == null ? -1 : zone;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder str = new StringBuilder();
+        for (ShelfSpec shelf : shelves) {
+            if (str.length() > 0) {
+                str.append(", ");
+            }
+            str.append(shelf);
+        }
+        return str.toString();
+    }
+}
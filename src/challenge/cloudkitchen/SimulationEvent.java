@@ -0,0 +1,44 @@
+package challenge.cloudkitchen;
+
+/**
+ * A timed event on the virtual clock of {@link OrdersSimulator}. Events only tell the simulator when something
+ * might change; the state of the shelves is still inspected by the regular clean up and ingest methods.
+ *
+ * <p>An event could be stale, e.g. an expiry event of an order that has already been picked up. Processing a stale
+ * event simply results in a tick where nothing happens.</p>
+ */
+class SimulationEvent implements Comparable<SimulationEvent> {
+
+    enum Type {
+        ARRIVAL,
+        PICKUP,
+        EXPIRY
+    }
+
+    final Type type;
+    final int time;
+    final Order order;
+
+    SimulationEvent(Type type, int time, Order order) {
+        this.type = type;
+        this.time = time;
+        this.order = order;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public int getTime() {
+        return time;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    @Override
+    public int compareTo(SimulationEvent other) {
+        return Integer.compare(time, other.time);
+    }
+}
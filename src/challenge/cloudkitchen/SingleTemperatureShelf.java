@@ -2,6 +2,8 @@ package challenge.cloudkitchen;
 
 import challenge.cloudkitchen.Constants.*;
 
+import java.util.List;
+
 import static challenge.cloudkitchen.Constants.SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE;
 import static challenge.cloudkitchen.Constants.SINGLE_TEMPERATURE_SHELF_CAPACITY;
 
@@ -11,18 +13,67 @@ import static challenge.cloudkitchen.Constants.SINGLE_TEMPERATURE_SHELF_CAPACITY
  */
 public class SingleTemperatureShelf extends Shelf {
 
-    Temperature temperature;
+    // Name of the temperature in upper case, see Order#getTempName()
+    String temperature;
+    // Notified when orders leave the shelf on clean up, null if nobody listens
+    FreeSlotListener freeSlotListener;
+
+    /**
+     * Listener notified when slots of a single temperature shelf are freed by orders being picked up or going to
+     * waste.
+     */
+    interface FreeSlotListener {
+
+        /**
+         * Called with the lock of the shelf held, so it should only take note of the freed slots.
+         *
+         * @param shelf the shelf.
+         * @param numSlots number of slots freed.
+         */
+        void onSlotsFreed(SingleTemperatureShelf shelf, int numSlots);
+    }
 
     public SingleTemperatureShelf(Temperature type) {
+        this(type, SINGLE_TEMPERATURE_SHELF_CAPACITY, SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE);
+    }
+
+    public SingleTemperatureShelf(Temperature type, int capacity, int shelfDecayModifier) {
+        this(type.name(), capacity, shelfDecayModifier);
+    }
+
+    /**
+     * @param temperature name of the temperature in upper case, e.g. <code>AMBIENT</code> for a zone of a
+     *                    {@link ShelfLayout}.
+     * @param capacity capacity of the shelf.
+     * @param shelfDecayModifier decay modifier of the shelf.
+     */
+    public SingleTemperatureShelf(String temperature, int capacity, int shelfDecayModifier) {
         super();
-        temperature = type;
-        capacity = SINGLE_TEMPERATURE_SHELF_CAPACITY;
-        shelfDecayModifier = SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE;
+        this.temperature = temperature;
+        this.capacity = capacity;
+        this.shelfDecayModifier = shelfDecayModifier;
     }
 
     @Override
     String getShelfName() {
-        return temperature.name() + " shelf";
+        return temperature + " shelf";
+    }
+
+    @Override
+    public synchronized int cleanUpWastedOrders(int time) {
+        return notifySlotsFreed(super.cleanUpWastedOrders(time));
+    }
+
+    @Override
+    public synchronized int cleanUpDeliveredOrders(List<Order> pickedUp, int time) {
+        return notifySlotsFreed(super.cleanUpDeliveredOrders(pickedUp, time));
+    }
+
+    int notifySlotsFreed(int numSlots) {
+        if (numSlots > 0 && freeSlotListener != null) {
+            freeSlotListener.onSlotsFreed(this, numSlots);
+        }
+        return numSlots;
     }
 
     /**
@@ -43,7 +94,7 @@ public class SingleTemperatureShelf extends Shelf {
      * @return true if order was added successfully, false otherwise.
      */
     public boolean add(Order order) {
-        if (temperature != order.getTemp()) {
+        if (!temperature.equals(order.getTempName())) {
             return false;
         }
         return super.add(order);
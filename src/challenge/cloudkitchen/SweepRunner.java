@@ -0,0 +1,192 @@
+package challenge.cloudkitchen;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a simulation for every combination of ingestion rate and kitchen config in a grid, e.g. to find out how
+ * large shelves should be for a given load.
+ *
+ * <p>All simulations replay the same orders from a shared {@link OrderTable}, which is only read, and run on
+ * a virtual clock with events turned off. Simulations are independent of each other and run in parallel on a
+ * fixed thread pool. Results come out in grid order whichever simulation finishes first.</p>
+ *
+ * <p>With a seed, every simulation starts from the same seed, so that all combinations see the same random
+ * pick-up times and differences between results come from the parameters only.</p>
+ */
+public class SweepRunner {
+
+    /**
+     * Counters of one simulation of the grid.
+     */
+    static class Result {
+
+        int ingestionRate;
+        KitchenConfig config;
+        int numDelivered;
+        int numDiscarded;
+        int numWasted;
+
+        Result(int ingestionRate, KitchenConfig config, Kitchen kitchen) {
+            this.ingestionRate = ingestionRate;
+            this.config = config;
+            this.numDelivered = kitchen.getNumDelivered();
+            this.numDiscarded = kitchen.getNumDiscarded();
+            this.numWasted = kitchen.getNumWasted();
+        }
+
+        /**
+         * Get the share of orders that were not picked up.
+         *
+         * @return percentage of orders discarded or wasted.
+         */
+        double getLossPercentage() {
+            int total = numDelivered + numDiscarded + numWasted;
+            return total == 0 ? 0 : 100.0 * (numDiscarded + numWasted) / total;
+        }
+    }
+
+    OrderTable orders;
+    List<Integer> ingestionRates;
+    List<KitchenConfig> configs;
+    int numThreads;
+    // Seed of every simulation, null if not seeded
+    Long seed;
+
+    public SweepRunner(OrderTable orders, List<Integer> ingestionRates, List<KitchenConfig> configs, int numThreads) {
+        this.orders = orders;
+        this.ingestionRates = ingestionRates;
+        this.configs = configs;
+        this.numThreads = numThreads;
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Run all simulations of the grid and print a table of results.
+     *
+     * @param out stream to print results to.
+     */
+    public void run(PrintStream out) throws InterruptedException, ExecutionException {
+        printResults(simulate(), out);
+    }
+
+    /**
+     * Run all simulations of the grid.
+     *
+     * @return results, ordered by ingestion rate, then by config.
+     */
+    List<Result> simulate() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(numThreads);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (int ingestionRate : ingestionRates) {
+                for (KitchenConfig config : configs) {
+                    futures.add(executor.submit(() -> simulate(ingestionRate, config)));
+                }
+            }
+            List<Result> results = new ArrayList<>(futures.size());
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    Result simulate(int ingestionRate, KitchenConfig config) throws InterruptedException {
+        OrdersSimulator sim = new OrdersSimulator(ingestionRate, orders.openSource(), true, config);
+        sim.kitchen.setEventSink(EventSink.NONE);
+        if (seed != null) {
+            sim.kitchen.setRandom(new SplittableRandom(seed));
+        }
+        sim.simulate();
+        return new Result(ingestionRate, config, sim.kitchen);
+    }
+
+    /**
+     * Build every combination of given kitchen parameters. Combinations with a minimum pick-up time greater than
+     * the maximum are left out.
+     *
+     * @return kitchen configs of all combinations.
+     */
+    static List<KitchenConfig> grid(List<Integer> shelfCapacities, List<Integer> overflowCapacities,
+                                    List<Integer> shelfDecayModifiers, List<Integer> overflowDecayModifiers,
+                                    List<Integer> minTimesPickUp, List<Integer> maxTimesPickUp) {
+        List<KitchenConfig> configs = new ArrayList<>();
+        for (int shelfCapacity : shelfCapacities) {
+            for (int overflowCapacity : overflowCapacities) {
+                for (int shelfDecayModifier : shelfDecayModifiers) {
+                    for (int overflowDecayModifier : overflowDecayModifiers) {
+                        for (int minTimePickUp : minTimesPickUp) {
+                            for (int maxTimePickUp : maxTimesPickUp) {
+                                if (minTimePickUp > maxTimePickUp) {
+                                    continue;
+                                }
+                                configs.add(new KitchenConfig()
+                                        .setSingleTemperatureShelfCapacity(shelfCapacity)
+                                        .setOverflowShelfCapacity(overflowCapacity)
+                                        .setSingleTemperatureDecayModifier(shelfDecayModifier)
+                                        .setOverflowDecayModifier(overflowDecayModifier)
+                                        .setPickUpTimeRange(minTimePickUp, maxTimePickUp));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return configs;
+    }
+
+    /**
+     * Parse a list of values from the command line. Values are separated by commas, each one is either a number or
+     * a range <code>from:to</code> or <code>from:to:step</code>, e.g. <code>5,10:30:10</code> is 5, 10, 20 and 30.
+     *
+     * @param spec the list of values.
+     * @return parsed values.
+     */
+    static List<Integer> parseValues(String spec) {
+        List<Integer> values = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length > 3) {
+                throw new IllegalArgumentException("Invalid range: " + item);
+            }
+            int from = Integer.parseInt(parts[0].trim());
+            int to = parts.length > 1 ? Integer.parseInt(parts[1].trim()) : from;
+            int step = parts.length > 2 ? Integer.parseInt(parts[2].trim()) : 1;
+            if (to < from || step <= 0) {
+                throw new IllegalArgumentException("Invalid range: " + item);
+            }
+            for (long value = from; value <= to; value += step) {
+                values.add((int) value);
+            }
+        }
+        return values;
+    }
+
+    static void printResults(List<Result> results, PrintStream out) {
+        String format = "%6s %8s %8s %8s %8s %8s %14s %8s %10s %10s %10s %7s%n";
+        out.printf(format, "rate", "shelf", "overflow", "shelfMod", "ovflMod", "pickUp", "eviction", "couriers",
+                "delivered", "discarded", "wasted", "lost%");
+        for (Result result : results) {
+            KitchenConfig config = result.config;
+            out.printf(format, result.ingestionRate, config.getSingleTemperatureShelfCapacity(),
+                    config.getOverflowShelfCapacity(), config.getSingleTemperatureDecayModifier(),
+                    config.getOverflowDecayModifier(), config.getMinTimePickUp() + "-" + config.getMaxTimePickUp(),
+                    config.getEvictionPolicy(),
+                    config.getNumCouriers() == 0 ? "-" : config.getNumCouriers() + "x" + config.getCourierBatchSize(),
+                    result.numDelivered, result.numDiscarded, result.numWasted,
+                    String.format("%.2f", result.getLossPercentage()));
+        }
+    }
+}
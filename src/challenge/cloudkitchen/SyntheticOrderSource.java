@@ -0,0 +1,177 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.Constants.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.SplittableRandom;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * An order source synthesizing orders on the fly, e.g. to stress test shelves at volumes no input file covers.
+ * Nothing is written to disk and only the next order is held in memory.
+ *
+ * <p>Orders arrive second by second. The number of orders arriving in a second is drawn from a Poisson
+ * distribution around the current rate. The rate switches to a burst rate, like a lunch rush, with a given
+ * probability every second, and back to the base rate after a burst of random length (geometrically distributed
+ * around the mean duration). Once all of a second's orders have been handed out, {@link #next()} returns null
+ * once to end the second, so that a simulator pulling orders until null ingests exactly one second's arrivals per
+ * tick.</p>
+ *
+ * <p>Parameters are read from properties, every one of them has a default. Either the rate or the burst rate and
+ * probability must be positive, unless there are no orders at all:
+ * <ul>
+ *     <li><code>orders</code>: total number of orders (10000).</li>
+ *     <li><code>rate</code>: mean number of orders per second (2).</li>
+ *     <li><code>burst.rate</code>, <code>burst.probability</code>, <code>burst.duration</code>: mean number of
+ *     orders per second during a burst (20), probability a burst starts in a given second (0, no bursts) and mean
+ *     length of a burst in seconds (30).</li>
+ *     <li><code>mix.hot</code>, <code>mix.cold</code>, <code>mix.frozen</code>: relative weights of temperatures
+ *     (1 each). Orders of other temperatures, e.g. for a zone of a {@link ShelfLayout}, are only generated if
+ *     given a weight, e.g. <code>mix.ambient</code>.</li>
+ *     <li><code>shelfLife</code>, <code>decayRate</code>: distributions of the orders' shelf life and decay rate
+ *     (<code>uniform(100,500)</code> and <code>uniform(0.05,1)</code>), see {@link Distribution#parse(String)}.
+ *     Values are clamped to at least 1 and 0 respectively.</li>
+ *     <li><code>pickUp</code>: distribution of the time couriers take to pick up orders, not set by default, in
+ *     which case the kitchen's range of pick-up times is used.</li>
+ * </ul>
+ * </p>
+ */
+public class SyntheticOrderSource implements OrderSource {
+
+    long numOrders;
+    double rate;
+    double burstRate;
+    double burstProbability;
+    double burstDuration;
+    // Names of the temperatures in the mix, hot, cold and frozen first
+    String[] temps;
+    // Cumulative weights of temperatures, in the order of temps
+    double[] mix;
+    Distribution shelfLife;
+    Distribution decayRate;
+    Distribution pickUpDelay;
+    SplittableRandom random;
+
+    long numGenerated;
+    boolean inSecond;
+    long remainingInSecond;
+    boolean bursting;
+
+    /**
+     * @param properties parameters of the orders, see the class description.
+     * @param random random number generator the orders are drawn from, only used by the thread reading orders.
+     * @throws IllegalArgumentException if a parameter is invalid.
+     */
+    public SyntheticOrderSource(Properties properties, SplittableRandom random) {
+        this.numOrders = Long.parseLong(properties.getProperty("orders", "10000"));
+        this.rate = getNonNegative(properties, "rate", "2");
+        this.burstRate = getNonNegative(properties, "burst.rate", "20");
+        this.burstProbability = getNonNegative(properties, "burst.probability", "0");
+        this.burstDuration = getNonNegative(properties, "burst.duration", "30");
+        if (numOrders > 0 && rate == 0 && (burstProbability == 0 || burstRate == 0)) {
+            // Every second would be empty, orders would never run out
+            throw new IllegalArgumentException("rate, or burst.rate and burst.probability, must be positive to "
+                    + "generate " + numOrders + " orders");
+        }
+        List<String> temps = new ArrayList<>();
+        for (Temperature temp : Temperature.VALUES) {
+            temps.add(temp.name());
+        }
+        // Other temperatures in sorted order, so that draws don't depend on the order of properties
+        TreeSet<String> zones = new TreeSet<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (key.startsWith("mix.") && Temperature.forName(key.substring(4)) == null) {
+                zones.add(key.substring(4).toUpperCase());
+            }
+        }
+        temps.addAll(zones);
+        this.temps = temps.toArray(new String[0]);
+        this.mix = new double[this.temps.length];
+        double total = 0;
+        for (int i = 0; i < this.temps.length; i++) {
+            String defaultWeight = i < Temperature.VALUES.length ? "1" : "0";
+            total += getNonNegative(properties, "mix." + this.temps[i].toLowerCase(), defaultWeight);
+            mix[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one temperature must have a positive weight");
+        }
+        this.shelfLife = Distribution.parse(properties.getProperty("shelfLife", "uniform(100,500)"));
+        this.decayRate = Distribution.parse(properties.getProperty("decayRate", "uniform(0.05,1)"));
+        String pickUp = properties.getProperty("pickUp");
+        this.pickUpDelay = pickUp == null ? null : Distribution.parse(pickUp);
+        this.random = random;
+        this.numGenerated = 0;
+        this.inSecond = false;
+        this.bursting = false;
+    }
+
+    static double getNonNegative(Properties properties, String key, String defaultValue) {
+        double value = Double.parseDouble(properties.getProperty(key, defaultValue));
+        if (!(value >= 0)) {
+            throw new IllegalArgumentException(key + " must not be negative: " + value);
+        }
+        return value;
+    }
+
+    /**
+     * @return distribution of pick-up times given in the properties, null if none.
+     */
+    public Distribution getPickUpDelay() {
+        return pickUpDelay;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return numGenerated < numOrders;
+    }
+
+    /**
+     * Get the next order of the current second.
+     *
+     * @return next order, null at the end of every second and once all orders have been generated.
+     */
+    @Override
+    public Order next() {
+        if (!hasNext()) {
+            return null;
+        }
+        if (!inSecond) {
+            inSecond = true;
+            remainingInSecond = drawArrivals();
+        }
+        if (remainingInSecond == 0) {
+            inSecond = false;
+            return null;
+        }
+        remainingInSecond--;
+        numGenerated++;
+        return newOrder();
+    }
+
+    /**
+     * Draw the number of orders arriving in the next second, switching in and out of bursts first.
+     */
+    long drawArrivals() {
+        if (bursting) {
+            bursting = random.nextDouble() >= 1 / Math.max(1, burstDuration);
+        } else {
+            bursting = random.nextDouble() < burstProbability;
+        }
+        return Distribution.Poisson.sample(bursting ? burstRate : rate, random);
+    }
+
+    Order newOrder() {
+        double pick = random.nextDouble() * mix[mix.length - 1];
+        int temp = 0;
+        while (temp < mix.length - 1 && pick >= mix[temp]) {
+            temp++;
+        }
+        UUID id = new UUID(random.nextLong(), random.nextLong());
+        return new Order(id.toString(), "Synthetic " + temps[temp].toLowerCase(), temps[temp],
+                Math.max(1, shelfLife.sample(random)), Math.max(0, decayRate.sample(random)));
+    }
+}
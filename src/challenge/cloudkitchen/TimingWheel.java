@@ -0,0 +1,140 @@
+package challenge.cloudkitchen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A hierarchical timing wheel bucketing items by the simulated second they're due.
+ *
+ * <p>The wheel has {@value #NUM_LEVELS} levels of {@value #SLOTS_PER_LEVEL} slots each. A slot at level 0 spans
+ * one second, a slot at level <i>l</i> spans 64<sup>l</sup> seconds. An item is placed at the lowest level whose
+ * range covers its due time. When time reaches the start of a higher level slot, its items are cascaded down to
+ * lower levels. Scheduling is O(1), and advancing the wheel costs O(1) per elapsed second plus O(1) per due item,
+ * no matter how many items are scheduled further in the future.</p>
+ *
+ * <p>Items due more than 64<sup>4</sup> seconds ahead are parked in the last slot of the top level and
+ * rescheduled whenever that slot is cascaded.</p>
+ *
+ * @param <T> type of scheduled items.
+ */
+public class TimingWheel<T> {
+
+    static final int SLOT_BITS = 6;
+    static final int SLOTS_PER_LEVEL = 1 << SLOT_BITS;
+    static final int NUM_LEVELS = 4;
+    static final long MAX_SPAN = 1L << (SLOT_BITS * NUM_LEVELS);
+
+    static class Entry<T> {
+        final T item;
+        final int time;
+
+        Entry(T item, int time) {
+            this.item = item;
+            this.time = time;
+        }
+    }
+
+    List<List<Entry<T>>> slots;
+    // Items already due, but not yet returned by advance()
+    List<T> due;
+    int currentTime;
+    int size;
+
+    public TimingWheel() {
+        this(0);
+    }
+
+    public TimingWheel(int startTime) {
+        slots = new ArrayList<>(NUM_LEVELS * SLOTS_PER_LEVEL);
+        for (int i = 0; i < NUM_LEVELS * SLOTS_PER_LEVEL; i++) {
+            slots.add(new ArrayList<>());
+        }
+        due = new ArrayList<>();
+        currentTime = startTime;
+        size = 0;
+    }
+
+    public int getCurrentTime() {
+        return currentTime;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule an item. An item due at or before the current time of the wheel is returned by the next call to
+     * {@link #advance(int, List)}.
+     *
+     * @param item the item to be scheduled.
+     * @param time simulated time the item is due.
+     */
+    public void schedule(T item, int time) {
+        size++;
+        place(new Entry<>(item, time));
+    }
+
+    /**
+     * Advance the wheel to given time and collect all items due at or before it.
+     *
+     * @param time simulated time to advance to. Advancing to a time in the past only collects items already due.
+     * @param out list to which due items are added. It's cleared first.
+     */
+    public void advance(int time, List<T> out) {
+        out.clear();
+        while (currentTime < time) {
+            if (size == due.size()) {
+                // Nothing scheduled ahead, jump straight to the target time
+                currentTime = time;
+                break;
+            }
+            currentTime++;
+            for (int level = NUM_LEVELS - 1; level > 0; level--) {
+                if ((currentTime & ((1 << (SLOT_BITS * level)) - 1)) == 0) {
+                    cascade(level);
+                }
+            }
+            List<Entry<T>> slot = slots.get(currentTime & (SLOTS_PER_LEVEL - 1));
+            for (Entry<T> entry : slot) {
+                due.add(entry.item);
+            }
+            slot.clear();
+        }
+        out.addAll(due);
+        size -= due.size();
+        due.clear();
+    }
+
+    void cascade(int level) {
+        List<Entry<T>> slot = slots.get(level * SLOTS_PER_LEVEL + slotIndex(currentTime, level));
+        if (slot.isEmpty()) {
+            return;
+        }
+        List<Entry<T>> entries = new ArrayList<>(slot);
+        slot.clear();
+        for (Entry<T> entry : entries) {
+            place(entry);
+        }
+    }
+
+    void place(Entry<T> entry) {
+        long delta = (long) entry.time - currentTime;
+        if (delta <= 0) {
+            due.add(entry.item);
+            return;
+        }
+        long slotTime = entry.time;
+        int level = 0;
+        while (level < NUM_LEVELS - 1 && delta >= 1L << (SLOT_BITS * (level + 1))) {
+            level++;
+        }
+        if (delta >= MAX_SPAN) {
+            slotTime = currentTime + MAX_SPAN - 1;
+        }
+        slots.get(level * SLOTS_PER_LEVEL + slotIndex(slotTime, level)).add(entry);
+    }
+
+    static int slotIndex(long time, int level) {
+        return (int) ((time >> (SLOT_BITS * level)) & (SLOTS_PER_LEVEL - 1));
+    }
+}
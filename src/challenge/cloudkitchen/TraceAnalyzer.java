@@ -0,0 +1,321 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.TraceWriter.RecordType;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.stream.LongStream;
+
+import static challenge.cloudkitchen.BinaryOrderSource.readStringTable;
+import static challenge.cloudkitchen.TraceWriter.*;
+
+/**
+ * Analyze a trace written by {@link TraceWriter} without running the simulation again: distribution of the time
+ * orders of each temperature spend in the kitchen, why orders left each shelf, and utilization of shelves over
+ * time.
+ *
+ * <p>The trace is split into windows of records, each window is memory-mapped and scanned by a task of a parallel
+ * stream into its own statistics, which are then merged. Nothing is decoded into objects, so a trace of several
+ * GB is scanned in seconds on a few cores.</p>
+ *
+ * <p>Run with the path of a trace and optionally the number of seconds per row of utilization (default value:
+ * 60).</p>
+ */
+public class TraceAnalyzer implements Closeable {
+
+    static final int WINDOW_RECORDS = 1 << 22;
+    static final int NUM_INDEXES = 1 << 8;
+
+    /**
+     * Statistics of part of a trace.
+     */
+    static class Stats {
+
+        int bucketSeconds;
+        long numRecords;
+        // Time spent in the kitchen by orders delivered, wasted or discarded, by temperature index
+        Histogram[] dwellTimes = new Histogram[NUM_INDEXES];
+        // Number of records of each type, by shelf index and by temperature index
+        long[][] shelfCounts = new long[NUM_INDEXES][RecordType.VALUES.length];
+        long[][] tempCounts = new long[NUM_INDEXES][RecordType.VALUES.length];
+        // Sum and number of occupancy samples, by shelf index then time bucket
+        long[][] occupancySums = new long[NUM_INDEXES][];
+        long[][] occupancySamples = new long[NUM_INDEXES][];
+        int maxTime;
+
+        Stats(int bucketSeconds) {
+            this.bucketSeconds = bucketSeconds;
+        }
+
+        void accept(ByteBuffer records, int start) {
+            RecordType type = RecordType.VALUES[records.get(start + OFFSET_TYPE)];
+            int shelf = records.get(start + OFFSET_SHELF) & 0xFF;
+            int temp = records.get(start + OFFSET_TEMPERATURE) & 0xFF;
+            int time = records.getInt(start + OFFSET_TIME);
+            int value = records.getInt(start + OFFSET_VALUE);
+            numRecords++;
+            maxTime = Math.max(maxTime, time);
+            if (type == RecordType.OCCUPANCY) {
+                int bucket = time / bucketSeconds;
+                if (occupancySums[shelf] == null || occupancySums[shelf].length <= bucket) {
+                    int length = Math.max(bucket + 1, occupancySums[shelf] == null ? 16
+                            : occupancySums[shelf].length * 2);
+                    occupancySums[shelf] = grow(occupancySums[shelf], length);
+                    occupancySamples[shelf] = grow(occupancySamples[shelf], length);
+                }
+                occupancySums[shelf][bucket] += value;
+                occupancySamples[shelf][bucket]++;
+                return;
+            }
+            tempCounts[temp][type.ordinal()]++;
+            if (shelf != NO_INDEX) {
+                shelfCounts[shelf][type.ordinal()]++;
+            }
+            if (type == RecordType.DELIVERED || type == RecordType.WASTED || type == RecordType.DISCARDED) {
+                if (dwellTimes[temp] == null) {
+                    dwellTimes[temp] = new Histogram();
+                }
+                dwellTimes[temp].record(value);
+            }
+        }
+
+        static long[] grow(long[] array, int length) {
+            return array == null ? new long[length] : Arrays.copyOf(array, length);
+        }
+
+        Stats merge(Stats other) {
+            numRecords += other.numRecords;
+            maxTime = Math.max(maxTime, other.maxTime);
+            for (int i = 0; i < NUM_INDEXES; i++) {
+                if (other.dwellTimes[i] != null) {
+                    if (dwellTimes[i] == null) {
+                        dwellTimes[i] = other.dwellTimes[i];
+                    } else {
+                        dwellTimes[i].add(other.dwellTimes[i]);
+                    }
+                }
+                for (int type = 0; type < RecordType.VALUES.length; type++) {
+                    shelfCounts[i][type] += other.shelfCounts[i][type];
+                    tempCounts[i][type] += other.tempCounts[i][type];
+                }
+                if (other.occupancySums[i] != null) {
+                    int length = Math.max(other.occupancySums[i].length,
+                            occupancySums[i] == null ? 0 : occupancySums[i].length);
+                    occupancySums[i] = grow(occupancySums[i], length);
+                    occupancySamples[i] = grow(occupancySamples[i], length);
+                    for (int bucket = 0; bucket < other.occupancySums[i].length; bucket++) {
+                        occupancySums[i][bucket] += other.occupancySums[i][bucket];
+                        occupancySamples[i][bucket] += other.occupancySamples[i][bucket];
+                    }
+                }
+            }
+            return this;
+        }
+    }
+
+    FileChannel channel;
+    long numRecords;
+    // Names and capacities from the tables, null if the trace wasn't closed
+    String[] temperatureNames;
+    String[] shelfNames;
+    int[] shelfCapacities;
+
+    public TraceAnalyzer(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                throw new IOException("Not a trace: " + path);
+            }
+            if (header.getShort(4) != VERSION || header.getShort(6) != RECORD_SIZE) {
+                throw new IOException("Unsupported trace version: " + header.getShort(4));
+            }
+            numRecords = header.getLong(8);
+            long tableOffset = header.getLong(16);
+            if (numRecords < 0) {
+                // Trace of a run that didn't finish, the last record could be incomplete
+                numRecords = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+                return;
+            }
+            if (tableOffset < HEADER_SIZE || tableOffset > channel.size()) {
+                throw new IOException("Corrupt trace: " + path);
+            }
+            DataInputStream data = new DataInputStream(
+                    new BufferedInputStream(Channels.newInputStream(channel.position(tableOffset))));
+            long tableSize = channel.size() - tableOffset;
+            temperatureNames = readStringTable(data, tableSize, path);
+            shelfNames = readStringTable(data, tableSize, path);
+            shelfCapacities = new int[shelfNames.length];
+            for (int i = 0; i < shelfCapacities.length; i++) {
+                shelfCapacities[i] = data.readInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long size() {
+        return numRecords;
+    }
+
+    /**
+     * Scan the whole trace in parallel.
+     *
+     * @param bucketSeconds number of seconds occupancy samples are averaged over.
+     * @return statistics of the trace.
+     * @throws UncheckedIOException if the trace couldn't be read.
+     */
+    public Stats analyze(int bucketSeconds) {
+        if (bucketSeconds < 1) {
+            throw new IllegalArgumentException("Bucket must be at least 1 second: " + bucketSeconds);
+        }
+        long numWindows = (numRecords + WINDOW_RECORDS - 1) / WINDOW_RECORDS;
+        return LongStream.range(0, numWindows).parallel()
+                .mapToObj(window -> scan(window, bucketSeconds))
+                .reduce(Stats::merge)
+                .orElseGet(() -> new Stats(bucketSeconds));
+    }
+
+    Stats scan(long window, int bucketSeconds) {
+        long first = window * WINDOW_RECORDS;
+        int count = (int) Math.min(WINDOW_RECORDS, numRecords - first);
+        MappedByteBuffer records;
+        try {
+            records = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + first * RECORD_SIZE,
+                    (long) count * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Stats stats = new Stats(bucketSeconds);
+        for (int i = 0; i < count; i++) {
+            stats.accept(records, i * RECORD_SIZE);
+        }
+        return stats;
+    }
+
+    String getTemperatureName(int index) {
+        if (temperatureNames != null && index < temperatureNames.length) {
+            return temperatureNames[index];
+        }
+        return index == NO_INDEX ? "none" : "#" + index;
+    }
+
+    String getShelfName(int index) {
+        return shelfNames != null && index < shelfNames.length ? shelfNames[index] : "Shelf #" + index;
+    }
+
+    /**
+     * Print statistics of the trace as tables.
+     *
+     * @param stats statistics from {@link #analyze(int)}.
+     * @param out stream to print to.
+     */
+    void print(Stats stats, PrintStream out) {
+        out.println("Records: " + stats.numRecords + ", last second: " + stats.maxTime);
+
+        out.println();
+        out.println("Time in kitchen of orders delivered, wasted or discarded (s):");
+        String dwellFormat = "%-12s %10s %8s %6s %6s %6s %6s%n";
+        out.printf(dwellFormat, "temperature", "orders", "mean", "p50", "p90", "p99", "max");
+        for (int temp = 0; temp < NUM_INDEXES; temp++) {
+            Histogram dwellTime = stats.dwellTimes[temp];
+            if (dwellTime != null) {
+                out.printf(dwellFormat, getTemperatureName(temp), dwellTime.getCount(),
+                        String.format("%.1f", dwellTime.getMean()), dwellTime.getValueAtPercentile(50),
+                        dwellTime.getValueAtPercentile(90), dwellTime.getValueAtPercentile(99), dwellTime.getMax());
+            }
+        }
+
+        out.println();
+        out.println("Orders by temperature:");
+        String countFormat = "%-16s %10s %10s %10s %10s %10s %10s%n";
+        out.printf(countFormat, "", "arrived", "placed", "moved", "discarded", "wasted", "delivered");
+        for (int temp = 0; temp < NUM_INDEXES; temp++) {
+            long[] counts = stats.tempCounts[temp];
+            if (Arrays.stream(counts).anyMatch(count -> count != 0)) {
+                printCounts(out, countFormat, getTemperatureName(temp), counts);
+            }
+        }
+
+        out.println();
+        out.println("Orders by shelf:");
+        for (int shelf = 0; shelf < NUM_INDEXES; shelf++) {
+            long[] counts = stats.shelfCounts[shelf];
+            if (Arrays.stream(counts).anyMatch(count -> count != 0)) {
+                printCounts(out, countFormat, getShelfName(shelf), counts);
+            }
+        }
+
+        out.println();
+        out.println("Average utilization every " + stats.bucketSeconds + "s"
+                + (shelfCapacities == null ? " (orders on shelf, capacities unknown):" : " (%):"));
+        StringBuilder header = new StringBuilder(String.format("%8s", "time"));
+        int numBuckets = 0;
+        for (int shelf = 0; shelf < NUM_INDEXES; shelf++) {
+            if (stats.occupancySums[shelf] != null) {
+                header.append(String.format(" %16s", getShelfName(shelf)));
+                numBuckets = Math.max(numBuckets, stats.occupancySums[shelf].length);
+            }
+        }
+        out.println(header);
+        for (int bucket = 0; bucket < numBuckets && bucket * stats.bucketSeconds <= stats.maxTime; bucket++) {
+            StringBuilder row = new StringBuilder(String.format("%8d", bucket * stats.bucketSeconds));
+            for (int shelf = 0; shelf < NUM_INDEXES; shelf++) {
+                long[] sums = stats.occupancySums[shelf];
+                if (sums == null) {
+                    continue;
+                }
+                long samples = bucket < sums.length ? stats.occupancySamples[shelf][bucket] : 0;
+                double occupancy = samples == 0 ? 0 : (double) sums[bucket] / samples;
+                if (shelfCapacities != null) {
+                    int capacity = shelfCapacities[shelf];
+                    occupancy = capacity == 0 ? 0 : 100 * occupancy / capacity;
+                }
+                row.append(String.format(" %16.1f", occupancy));
+            }
+            out.println(row);
+        }
+    }
+
+    static void printCounts(PrintStream out, String format, String name, long[] counts) {
+        out.printf(format, name, counts[RecordType.ARRIVED.ordinal()], counts[RecordType.PLACED.ordinal()],
+                counts[RecordType.MOVED.ordinal()], counts[RecordType.DISCARDED.ordinal()],
+                counts[RecordType.WASTED.ordinal()], counts[RecordType.DELIVERED.ordinal()]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: TraceAnalyzer <trace> [seconds per row of utilization]");
+            System.exit(1);
+        }
+        int bucketSeconds = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        try (TraceAnalyzer analyzer = new TraceAnalyzer(Paths.get(args[0]))) {
+            long startNanos = System.nanoTime();
+            Stats stats = analyzer.analyze(bucketSeconds);
+            analyzer.print(stats, System.out);
+            System.out.printf("%nScanned %d records in %d ms%n", stats.numRecords,
+                    (System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+}
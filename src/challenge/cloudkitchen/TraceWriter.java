@@ -0,0 +1,266 @@
+package challenge.cloudkitchen;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static challenge.cloudkitchen.BinaryOrderLog.writeStringTable;
+
+/**
+ * Write every life cycle event of orders to a compact binary trace, to be analyzed after the run by
+ * {@link TraceAnalyzer} instead of reading console output.
+ *
+ * <p>File layout, in the manner of {@link BinaryOrderLog}:
+ * <ul>
+ *     <li>Header ({@value #HEADER_SIZE} bytes): magic number, format version, record size, number of records and
+ *     offset of the tables. Until the trace is closed, the number of records and the offset are -1, and the
+ *     number of records is inferred from the size of the file.</li>
+ *     <li>Fixed width records ({@value #RECORD_SIZE} bytes each): type, index of the shelf, index of the
+ *     temperature of the order, time of the event and a value, the age of the order or the occupancy of the
+ *     shelf. Shelves and temperatures are indexed in the order they're first seen, up to {@value #MAX_INDEX};
+ *     {@value #NO_INDEX} stands for no shelf or no temperature.</li>
+ *     <li>Tables: names of the temperatures seen, shelf names by index and shelf capacities.</li>
+ * </ul>
+ * </p>
+ *
+ * <p>Records are appended to a buffer, written to the file channel whenever it's full or the event sink runs out
+ * of events. Events without a time of their own, like an order added to a shelf, get the latest time seen by the
+ * writer. Errors writing the trace, including a shelf or temperature past the last index, stop the trace and are
+ * thrown by {@link #close()}.</p>
+ */
+class TraceWriter implements EventConsumer, Closeable {
+
+    static final int MAGIC = 0x434B5452;
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 12;
+
+    static final int OFFSET_TYPE = 0;
+    static final int OFFSET_SHELF = 1;
+    static final int OFFSET_TEMPERATURE = 2;
+    static final int OFFSET_TIME = 4;
+    static final int OFFSET_VALUE = 8;
+
+    static final int WRITE_BUFFER_RECORDS = 1 << 14;
+
+    /**
+     * Types of records.
+     */
+    enum RecordType {
+        // New order, not on any shelf yet
+        ARRIVED,
+        PLACED,
+        // Moved off the overflow shelf of the record, right after the record placing it on its single temperature
+        // shelf. An order put back on overflow shelf because the move failed has no such record.
+        MOVED,
+        // Discarded to make room
+        DISCARDED,
+        WASTED,
+        DELIVERED,
+        // Number of orders on shelf, once per simulated second
+        OCCUPANCY;
+
+        static final RecordType[] VALUES = values();
+    }
+
+    static final int MAX_INDEX = 254;
+    static final int NO_INDEX = 255;
+    static final byte NO_SHELF = (byte) NO_INDEX;
+    static final byte NO_TEMPERATURE = (byte) NO_INDEX;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final Map<Shelf, Integer> shelfIndexes = new IdentityHashMap<>();
+    private final List<String> shelfNames = new ArrayList<>();
+    private final List<Integer> shelfCapacities = new ArrayList<>();
+    private final Map<String, Integer> temperatureIndexes = new HashMap<>();
+    private final List<String> temperatureNames = new ArrayList<>();
+    private long numRecords;
+    private int time;
+    private IOException error;
+
+    TraceWriter(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = writeHeader(-1, -1);
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        buffer = ByteBuffer.allocateDirect(RECORD_SIZE * WRITE_BUFFER_RECORDS);
+    }
+
+    static ByteBuffer writeHeader(long numRecords, long tableOffset) {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putShort(VERSION);
+        header.putShort((short) RECORD_SIZE);
+        header.putLong(numRecords);
+        header.putLong(tableOffset);
+        header.clear();
+        return header;
+    }
+
+    @Override
+    public void accept(EventSink.Event event) {
+        try {
+            append(event);
+        } catch (IllegalStateException e) {
+            // Kept for close() like write errors, the records that follow would be misread
+            if (error == null) {
+                error = new IOException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private void append(EventSink.Event event) {
+        time = Math.max(time, event.getTime());
+        switch (event.getType()) {
+            case NEW_ORDERS:
+                appendOrders(RecordType.ARRIVED, event);
+                break;
+            case ORDER_ADDED:
+                appendOrders(RecordType.PLACED, event);
+                break;
+            case ORDER_MOVED:
+                appendOrders(RecordType.MOVED, event);
+                break;
+            case ORDER_DISCARDED:
+                appendOrders(RecordType.DISCARDED, event);
+                break;
+            case ORDERS_WASTED:
+                appendOrders(RecordType.WASTED, event);
+                break;
+            case ORDERS_DELIVERED:
+                appendOrders(RecordType.DELIVERED, event);
+                break;
+            case SHELF_CONTENT:
+                append(RecordType.OCCUPANCY, getShelfIndex(event.getShelf()), NO_TEMPERATURE, event.size());
+                break;
+            default:
+                // Timestamps only move the time forward. Orders removed are recorded by what happens to them next,
+                // moved or put back on their shelf
+        }
+    }
+
+    private void appendOrders(RecordType type, EventSink.Event event) {
+        byte shelf = event.getShelf() == null ? NO_SHELF : getShelfIndex(event.getShelf());
+        for (int i = 0; i < event.size(); i++) {
+            Order order = event.getOrder(i);
+            if (order.hasArrived()) {
+                time = Math.max(time, order.getTimeArrived());
+            }
+            append(type, shelf, getTemperatureIndex(order),
+                    order.hasArrived() ? time - order.getTimeArrived() : 0);
+        }
+    }
+
+    private byte getShelfIndex(Shelf shelf) {
+        Integer index = shelfIndexes.get(shelf);
+        if (index == null) {
+            index = checkIndex(shelfNames.size(), "shelves");
+            shelfIndexes.put(shelf, index);
+            shelfNames.add(shelf.getShelfName());
+            shelfCapacities.add(shelf.capacity);
+        }
+        return (byte) (int) index;
+    }
+
+    private byte getTemperatureIndex(Order order) {
+        String name = order.getTempName();
+        if (name == null) {
+            return NO_TEMPERATURE;
+        }
+        Integer index = temperatureIndexes.get(name);
+        if (index == null) {
+            index = checkIndex(temperatureNames.size(), "temperatures");
+            temperatureIndexes.put(name, index);
+            temperatureNames.add(name);
+        }
+        return (byte) (int) index;
+    }
+
+    private static int checkIndex(int index, String what) {
+        if (index > MAX_INDEX) {
+            throw new IllegalStateException("Trace can't index more than " + (MAX_INDEX + 1) + " " + what);
+        }
+        return index;
+    }
+
+    private void append(RecordType type, byte shelf, byte temp, int value) {
+        int start = buffer.position();
+        buffer.put(start + OFFSET_TYPE, (byte) type.ordinal());
+        buffer.put(start + OFFSET_SHELF, shelf);
+        buffer.put(start + OFFSET_TEMPERATURE, temp);
+        buffer.putInt(start + OFFSET_TIME, time);
+        buffer.putInt(start + OFFSET_VALUE, value);
+        buffer.position(start + RECORD_SIZE);
+        numRecords++;
+        if (!buffer.hasRemaining()) {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (buffer.position() == 0) {
+            return;
+        }
+        try {
+            if (error == null) {
+                BinaryOrderLog.flush(buffer, channel);
+            }
+        } catch (IOException e) {
+            // Kept for close(), the sink's thread has nobody to report to
+            error = e;
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    long getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Write the remaining records, the tables and the final header. The event sink must have been flushed, so
+     * that no event is being written.
+     *
+     * @throws IOException if the trace couldn't be written.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+            if (error != null) {
+                throw error;
+            }
+            long tableOffset = channel.position();
+            DataOutputStream data = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            writeStringTable(data, temperatureNames);
+            writeStringTable(data, shelfNames);
+            for (int capacity : shelfCapacities) {
+                data.writeInt(capacity);
+            }
+            data.flush();
+            channel.write(writeHeader(numRecords, tableOffset), 0);
+        } finally {
+            channel.close();
+        }
+    }
+}
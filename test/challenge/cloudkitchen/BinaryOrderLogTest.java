@@ -0,0 +1,131 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class BinaryOrderLogTest {
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        Order order1 = new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana Split", "frozen", 20, 0.63);
+        Order order2 = new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "McFlury", "hot", 375.5, 0.4);
+        Order order3 = new Order("2ec069e3-576f-48eb-869f-74a540ef840c", "Banana Split", "frozen", 249, 0.3);
+        Path path = Files.createTempFile("orders", ".bin");
+        try {
+            long count = BinaryOrderLog.write(new ListOrderSource(Arrays.asList(order1, order2, order3)), path);
+            Assert.assertEquals(3, count);
+            Assert.assertTrue(BinaryOrderLog.isOrderLog(path));
+
+            try (BinaryOrderSource source = new BinaryOrderSource(path)) {
+                Assert.assertEquals(3, source.size());
+                for (Order expected : Arrays.asList(order1, order2, order3)) {
+                    Order order = source.next();
+                    Assert.assertEquals(expected.getId(), order.getId());
+                    Assert.assertEquals(expected.getName(), order.getName());
+                    Assert.assertEquals(expected.getTemp(), order.getTemp());
+                    Assert.assertEquals(expected.shelfLife, order.shelfLife, 0);
+                    Assert.assertEquals(expected.decayRate, order.decayRate, 0);
+                }
+                Assert.assertFalse(source.hasNext());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testTemperatureNames() throws IOException {
+        // Temperatures other than hot, cold and frozen keep their names, orders without one have none
+        Order order1 = new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana", "ambient", 20, 0.63);
+        Order order2 = new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "Water", (String) null, 375.5, 0.4);
+        Path path = Files.createTempFile("orders", ".bin");
+        try {
+            BinaryOrderLog.write(new ListOrderSource(Arrays.asList(order1, order2)), path);
+            try (BinaryOrderSource source = new BinaryOrderSource(path)) {
+                Assert.assertArrayEquals(new String[] {"AMBIENT"}, source.temperatures);
+                Assert.assertEquals("AMBIENT", source.next().getTempName());
+                Assert.assertNull(source.next().getTempName());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testNoName() throws IOException {
+        // An order read from JSON without a name is written and read back without one
+        Order order1 = new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", null, "hot", 20, 0.63);
+        Order order2 = new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "Water", "cold", 375.5, 0.4);
+        Path path = Files.createTempFile("orders", ".bin");
+        try {
+            BinaryOrderLog.write(new ListOrderSource(Arrays.asList(order1, order2)), path);
+            try (BinaryOrderSource source = new BinaryOrderSource(path)) {
+                Assert.assertArrayEquals(new String[] {"Water"}, source.names);
+                Order order = source.next();
+                Assert.assertNull(order.getName());
+                Assert.assertEquals(Constants.Temperature.HOT, order.getTemp());
+                Assert.assertEquals("Water", source.next().getName());
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testCorruptStringTable() throws IOException {
+        Order order = new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana", "hot", 20, 0.63);
+        Path path = Files.createTempFile("orders", ".bin");
+        try {
+            BinaryOrderLog.write(new ListOrderSource(Collections.singletonList(order)), path);
+            // Size of the temperature table, right after the records
+            for (int size : new int[] {-1, Integer.MAX_VALUE}) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    ByteBuffer buffer = ByteBuffer.allocate(4).putInt(0, size);
+                    channel.write(buffer, BinaryOrderLog.HEADER_SIZE + BinaryOrderLog.RECORD_SIZE);
+                }
+                try {
+                    new BinaryOrderSource(path).close();
+                    Assert.fail("Read a string table of " + size + " strings");
+                } catch (IOException e) {
+                    Assert.assertEquals("Corrupt string table: " + path, e.getMessage());
+                }
+            }
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testNonUuidId() throws IOException {
+        Path path = Files.createTempFile("orders", ".bin");
+        try {
+            Order order = new Order("0-0-0-0-1", "order1", "frozen", 300, 0.61);
+            BinaryOrderLog.write(new ListOrderSource(Collections.singletonList(order)), path);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Order id is not a UUID in canonical form: 0-0-0-0-1", e.getMessage());
+        } finally {
+            Files.delete(path);
+        }
+    }
+
+    @Test
+    public void testIsOrderLog() throws IOException {
+        Path path = Files.createTempFile("orders", ".json");
+        try {
+            Files.write(path, "[]".getBytes());
+            Assert.assertFalse(BinaryOrderLog.isOrderLog(path));
+        } finally {
+            Files.delete(path);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CheckpointTest {
+
+    List<Order> orders;
+    KitchenConfig config;
+
+    @Before
+    public void setup() {
+        orders = new ArrayList<>();
+        String[] temps = {"hot", "cold", "frozen", "unknown"};
+        for (int i = 0; i < 30; i++) {
+            orders.add(new Order("0-0-0-0-" + i, "order " + i, temps[i % temps.length], 20 + i, 0.5));
+        }
+        config = new KitchenConfig().setSingleTemperatureShelfCapacity(2).setOverflowShelfCapacity(4);
+    }
+
+    OrdersSimulator newSimulator() {
+        OrdersSimulator sim = new OrdersSimulator(10, new ListOrderSource(orders), true, config);
+        sim.kitchen.setEventSink(EventSink.NONE);
+        return sim;
+    }
+
+    @Test
+    public void testWriteAndRead() throws Exception {
+        OrdersSimulator sim = newSimulator();
+        sim.kitchen.ingest(sim.getNextOrderBatch(0), 0);
+        Checkpoint checkpoint = Checkpoint.capture(sim.kitchen, 1, 10);
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            checkpoint.write(file);
+            Checkpoint read = Checkpoint.read(file);
+            Assert.assertEquals(1, read.getTime());
+            Assert.assertEquals(10, read.getCount());
+            Assert.assertEquals(sim.kitchen.getNumDiscarded(), read.numDiscarded);
+            Assert.assertEquals(sim.kitchen.shelves.size(), read.shelves.size());
+            for (int i = 0; i < read.shelves.size(); i++) {
+                List<Order> expected = checkpoint.shelves.get(i);
+                List<Order> actual = read.shelves.get(i);
+                Assert.assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    Assert.assertEquals(expected.get(j).getId(), actual.get(j).getId());
+                    Assert.assertEquals(expected.get(j).getName(), actual.get(j).getName());
+                    Assert.assertEquals(expected.get(j).getTemp(), actual.get(j).getTemp());
+                    Assert.assertEquals(expected.get(j).getTempName(), actual.get(j).getTempName());
+                    Assert.assertEquals(expected.get(j).shelfLife, actual.get(j).shelfLife, 0);
+                    Assert.assertEquals(expected.get(j).getTimeArrived(), actual.get(j).getTimeArrived());
+                    Assert.assertEquals(expected.get(j).getTimePickedUp(), actual.get(j).getTimePickedUp());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testOrderWithoutName() throws Exception {
+        orders.set(0, new Order("0-0-0-0-0", null, "hot", 20, 0.5));
+        OrdersSimulator sim = newSimulator();
+        sim.kitchen.ingest(sim.getNextOrderBatch(0), 0);
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            Checkpoint.capture(sim.kitchen, 1, 10).write(file);
+            Order order = Checkpoint.read(file).shelves.get(0).get(0);
+            Assert.assertEquals("0-0-0-0-0", order.getId());
+            Assert.assertNull(order.getName());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        OrdersSimulator sim = newSimulator();
+        sim.kitchen.ingest(sim.getNextOrderBatch(0), 0);
+        Checkpoint checkpoint = Checkpoint.capture(sim.kitchen, 1, 10);
+
+        OrdersSimulator resumed = newSimulator();
+        resumed.resume(checkpoint);
+        Assert.assertEquals(sim.kitchen.countNumOrdersOnShelves(), resumed.kitchen.countNumOrdersOnShelves());
+        Assert.assertEquals(sim.kitchen.getNumDiscarded(), resumed.kitchen.getNumDiscarded());
+        resumed.simulate();
+        // Every order is accounted for exactly once, the first 10 by the checkpoint and the rest by the resumed run
+        Assert.assertEquals(orders.size(),
+                resumed.kitchen.getNumDelivered() + resumed.kitchen.getNumDiscarded() + resumed.kitchen.getNumWasted());
+        Assert.assertEquals(30, resumed.numOrdersRead);
+    }
+
+    @Test
+    public void testNotACheckpoint() throws Exception {
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            Files.write(file, new byte[Checkpoint.HEADER_SIZE]);
+            Checkpoint.read(file);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Not a checkpoint"));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testCorruptCheckpoint() throws Exception {
+        OrdersSimulator sim = newSimulator();
+        sim.kitchen.ingest(sim.getNextOrderBatch(0), 0);
+        Path file = Files.createTempFile("checkpoint", ".bin");
+        try {
+            Checkpoint.capture(sim.kitchen, 1, 10).write(file);
+            byte[] bytes = Files.readAllBytes(file);
+            // A huge number of orders on the first shelf, right after the header
+            ByteBuffer.wrap(bytes).putInt(Checkpoint.HEADER_SIZE, Integer.MAX_VALUE);
+            Files.write(file, bytes);
+            assertCorrupt(file);
+            // A truncated checkpoint
+            Files.write(file, Arrays.copyOf(bytes, Checkpoint.HEADER_SIZE + 2));
+            assertCorrupt(file);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    void assertCorrupt(Path file) {
+        try {
+            Checkpoint.read(file);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Corrupt checkpoint"));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConcurrentOverflowShelfTest {
+
+    ConcurrentOverflowShelf shelf;
+    Order coldOrder1, hotOrder1;
+
+    @Before
+    public void setup() {
+        shelf = new ConcurrentOverflowShelf();
+        coldOrder1 = new Order("0-0-0-0-2", "order2", "cold", 10, 0.19);
+        coldOrder1.arrive(0);
+        coldOrder1.setTimePickedUp(10);
+        hotOrder1 = new Order("0-0-0-0-3", "order3", "hot", 251, 0.22);
+        hotOrder1.arrive(0);
+        hotOrder1.setTimePickedUp(12);
+    }
+
+    @Test
+    public void testAddAndRemove() {
+        Assert.assertTrue(shelf.add(coldOrder1));
+        Assert.assertTrue(shelf.add(hotOrder1));
+        Assert.assertEquals(2, shelf.getCurrentOrders().size());
+        Assert.assertTrue(shelf.remove(coldOrder1));
+        Assert.assertFalse(shelf.remove(coldOrder1));
+        Assert.assertEquals(Collections.singletonList(hotOrder1), shelf.getCurrentOrders());
+        Assert.assertEquals(hotOrder1, shelf.removeRandomOrder());
+        Assert.assertNull(shelf.removeRandomOrder());
+    }
+
+    @Test
+    public void testCleanUp() {
+        shelf.add(coldOrder1);
+        shelf.add(hotOrder1);
+        // coldOrder1 goes to waste at 8 on overflow shelf
+        Assert.assertEquals(0, shelf.cleanUpWastedOrders(7));
+        Assert.assertEquals(1, shelf.cleanUpWastedOrders(8));
+        shelf.cleanUpDeliveredOrders(11);
+        Assert.assertEquals(1, shelf.getCurrentOrders().size());
+        shelf.cleanUpDeliveredOrders(12);
+        Assert.assertTrue(shelf.getCurrentOrders().isEmpty());
+        Assert.assertTrue(shelf.isAvailable());
+    }
+
+    @Test
+    public void testConcurrentAdd() throws InterruptedException {
+        // Threads racing to fill the shelf never place more orders than its capacity
+        AtomicInteger added = new AtomicInteger();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    Order order = new Order("0-0-0-" + thread + "-" + i, "order", "hot", 251, 0.22);
+                    order.arrive(0);
+                    order.setTimePickedUp(10);
+                    if (shelf.add(order)) {
+                        added.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(shelf.capacity, added.get());
+        Assert.assertEquals(shelf.capacity, shelf.getCurrentOrders().size());
+        Assert.assertFalse(shelf.isAvailable());
+    }
+
+    @Test
+    public void testZeroCapacity() {
+        ConcurrentOverflowShelf empty = new ConcurrentOverflowShelf(0, Constants.SHELF_DECAY_MODIFIER_OVERFLOW);
+        Assert.assertFalse(empty.isAvailable());
+        Assert.assertFalse(empty.add(hotOrder1));
+        Assert.assertNull(empty.removeRandomOrder());
+        Assert.assertNull(empty.evictOrder());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testNoEvictionPolicy() {
+        shelf.setEvictionPolicy(EvictionPolicy.Type.LOWEST_VALUE.create(shelf));
+    }
+}
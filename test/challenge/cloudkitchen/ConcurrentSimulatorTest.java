@@ -0,0 +1,58 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ConcurrentSimulatorTest {
+
+    @Test
+    public void testSimulate() throws InterruptedException {
+        // Shelves overflow with 40 orders per tick, so producers and couriers contend on overflow shelf
+        List<Order> orders = new ArrayList<>();
+        String[] temps = {"hot", "cold", "frozen"};
+        for (int i = 0; i < 400; i++) {
+            orders.add(new Order("0-0-0-0-" + i, "order" + i, temps[i % 3], 251, 0.22));
+        }
+        ConcurrentSimulator sim = new ConcurrentSimulator(40, new ListOrderSource(orders), 4, 8, 10);
+        sim.simulate();
+        Assert.assertEquals(400, sim.kitchen.numDelivered + sim.kitchen.numDiscarded + sim.kitchen.numWasted);
+        Assert.assertTrue(sim.kitchen.numDiscarded > 0);
+        Assert.assertFalse(sim.kitchen.hasNonEmptyShelf());
+    }
+
+    @Test
+    public void testSimulateWithLockFreeOverflow() throws InterruptedException {
+        List<Order> orders = new ArrayList<>();
+        String[] temps = {"hot", "cold", "frozen"};
+        for (int i = 0; i < 400; i++) {
+            orders.add(new Order("0-0-0-0-" + i, "order" + i, temps[i % 3], 251, 0.22));
+        }
+        ConcurrentSimulator sim = new ConcurrentSimulator(40, new ListOrderSource(orders), 4, 8, 10, true);
+        sim.simulate();
+        Assert.assertEquals(400, sim.kitchen.numDelivered + sim.kitchen.numDiscarded + sim.kitchen.numWasted);
+        Assert.assertTrue(sim.kitchen.numDiscarded > 0);
+        Assert.assertFalse(sim.kitchen.hasNonEmptyShelf());
+    }
+
+    @Test
+    public void testSimulateWithoutOverflowCapacity() throws InterruptedException {
+        // Orders that don't fit on their shelf are discarded right away instead of waiting for room
+        for (boolean lockFreeOverflow : new boolean[] {false, true}) {
+            List<Order> orders = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                orders.add(new Order("0-0-0-0-" + i, "order" + i, "hot", 251, 0.22));
+            }
+            KitchenConfig config = new KitchenConfig().setOverflowShelfCapacity(0);
+            ConcurrentSimulator sim = new ConcurrentSimulator(40, new ListOrderSource(orders), 4, 8, 10,
+                    lockFreeOverflow, config);
+            sim.kitchen.setEventSink(EventSink.NONE);
+            sim.simulate();
+            Assert.assertEquals(100, sim.kitchen.numDelivered + sim.kitchen.numDiscarded + sim.kitchen.numWasted);
+            Assert.assertTrue(sim.kitchen.numDiscarded > 0);
+            Assert.assertFalse(sim.kitchen.hasNonEmptyShelf());
+        }
+    }
+}
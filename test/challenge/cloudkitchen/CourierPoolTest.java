@@ -0,0 +1,91 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+public class CourierPoolTest {
+
+    SplittableRandom random;
+    Metrics metrics;
+
+    @Before
+    public void setup() {
+        random = new SplittableRandom(1);
+        metrics = new Metrics();
+    }
+
+    CourierPool newPool(int numCouriers, int batchSize) {
+        // Couriers take 5 seconds to get to the kitchen and are free again 10 seconds after a pickup
+        return new CourierPool(numCouriers, batchSize, random -> 5, Distribution.constant(10), metrics);
+    }
+
+    @Test
+    public void testCouriersQueueUp() {
+        CourierPool pool = newPool(2, 1);
+        Assert.assertEquals(5, pool.assign(0, random));
+        Assert.assertEquals(5, pool.assign(0, random));
+        // Both couriers are free again at 15
+        Assert.assertEquals(20, pool.assign(0, random));
+        Assert.assertEquals(20, pool.assign(3, random));
+        // Free couriers wait for orders
+        Assert.assertEquals(105, pool.assign(100, random));
+        Assert.assertEquals(5, metrics.courierTrips.sum());
+        Assert.assertEquals(5, metrics.courierOrders.sum());
+    }
+
+    @Test
+    public void testBatching() {
+        CourierPool pool = newPool(1, 2);
+        Assert.assertEquals(5, pool.assign(0, random));
+        Assert.assertEquals(5, pool.assign(1, random));
+        // Batch is full
+        Assert.assertEquals(20, pool.assign(2, random));
+        // Pickup at 20 has room for one more order, which arrives before it
+        Assert.assertEquals(20, pool.assign(19, random));
+        Assert.assertEquals(2, metrics.courierTrips.sum());
+        Assert.assertEquals(4, metrics.courierOrders.sum());
+    }
+
+    @Test
+    public void testNoBatchingAfterPickup() {
+        CourierPool pool = newPool(2, 3);
+        Assert.assertEquals(5, pool.assign(0, random));
+        // Courier picking up at 5 has left
+        Assert.assertEquals(10, pool.assign(5, random));
+        Assert.assertEquals(2, metrics.courierTrips.sum());
+    }
+
+    @Test
+    public void testSoonestPickup() {
+        CourierPool pool = newPool(3, 3);
+        Assert.assertEquals(5, pool.assign(0, random));
+        // A free courier would come later than the open pickup
+        Assert.assertEquals(5, pool.assign(1, random));
+        Assert.assertEquals(1, metrics.courierTrips.sum());
+    }
+
+    @Test
+    public void testKitchen() {
+        Kitchen kitchen = new Kitchen(new KitchenConfig().setPickUpDelay(Distribution.constant(5))
+                .setCourierPool(1, 2).setCourierTripTime(Distribution.constant(10)));
+        kitchen.setEventSink(EventSink.NONE);
+        Order[] orders = new Order[3];
+        for (int i = 0; i < orders.length; i++) {
+            orders[i] = new Order("0-0-0-0-" + i, "order" + i, "hot", 300, 0.5);
+        }
+        kitchen.ingest(Arrays.asList(orders), 0);
+        Assert.assertEquals(5, orders[0].getTimePickedUp());
+        Assert.assertEquals(5, orders[1].getTimePickedUp());
+        Assert.assertEquals(20, orders[2].getTimePickedUp());
+        Assert.assertEquals(2, kitchen.metrics.courierTrips.sum());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPool() {
+        new KitchenConfig().setCourierPool(2, 0);
+    }
+}
@@ -0,0 +1,56 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+public class DistributionTest {
+
+    static final int NUM_SAMPLES = 100000;
+
+    static double mean(Distribution distribution) {
+        SplittableRandom random = new SplittableRandom(1);
+        double sum = 0;
+        for (int i = 0; i < NUM_SAMPLES; i++) {
+            sum += distribution.sample(random);
+        }
+        return sum / NUM_SAMPLES;
+    }
+
+    @Test
+    public void testParse() {
+        Assert.assertEquals("constant(3.0)", Distribution.parse("3").toString());
+        Assert.assertEquals("constant(3.0)", Distribution.parse("constant(3)").toString());
+        Assert.assertEquals("uniform(2.0,6.0)", Distribution.parse(" uniform( 2, 6 ) ").toString());
+        Assert.assertEquals("exponential(4.0)", Distribution.parse("exponential(4)").toString());
+        Assert.assertEquals("normal(300.0,60.0)", Distribution.parse("normal(300,60)").toString());
+        Assert.assertEquals("poisson(2.5)", Distribution.parse("poisson(2.5)").toString());
+    }
+
+    @Test
+    public void testParseInvalid() {
+        String[] specs = {"gamma(1,2)", "uniform(2)", "uniform(6,2)", "exponential(0)", "normal(1,-1)",
+                "poisson(-1)", "uniform(2,6", "abc"};
+        for (String spec : specs) {
+            try {
+                Distribution.parse(spec);
+                Assert.fail("Parsed " + spec);
+            } catch (IllegalArgumentException e) {
+                // NumberFormatException is an IllegalArgumentException too
+            }
+        }
+    }
+
+    @Test
+    public void testMeans() {
+        Assert.assertEquals(3, mean(Distribution.constant(3)), 0);
+        Assert.assertEquals(4, mean(Distribution.uniform(2, 6)), 0.05);
+        Assert.assertEquals(4, mean(Distribution.exponential(4)), 0.1);
+        Assert.assertEquals(300, mean(Distribution.normal(300, 60)), 1);
+        // Exact draws below the limit, normal approximation above
+        Assert.assertEquals(2.5, mean(Distribution.poisson(2.5)), 0.05);
+        Assert.assertEquals(200, mean(Distribution.poisson(200)), 1);
+        Assert.assertEquals(0, mean(Distribution.poisson(0)), 0);
+    }
+}
@@ -0,0 +1,133 @@
+package challenge.cloudkitchen;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EventSinkTest {
+
+    List<String> lines;
+    EventSink sink;
+    Shelf hotShelf;
+    Order hotOrder1, hotOrder2;
+
+    @Before
+    public void setup() {
+        lines = new ArrayList<>();
+        sink = new EventSink(new EventConsumer() {
+            @Override
+            public void accept(EventSink.Event event) {
+                StringBuilder str = new StringBuilder();
+                ConsoleEventWriter.format(event, str);
+                lines.add(str.toString());
+            }
+
+            @Override
+            public void flush() {
+            }
+        }, 4, EventSink.Level.DEBUG);
+        hotOrder1 = new Order("0-0-0-0-1", "order1", "hot", 300, 0.5);
+        hotOrder1.arrive(0);
+        hotOrder1.setTimePickedUp(2);
+        hotOrder2 = new Order("0-0-0-0-2", "order2", "hot", 1, 0.5);
+        hotOrder2.arrive(0);
+        hotOrder2.setTimePickedUp(2);
+        hotShelf = new SingleTemperatureShelf(Constants.Temperature.HOT);
+        hotShelf.eventSink = sink;
+    }
+
+    @Test
+    public void testShelfEvents() {
+        hotShelf.add(hotOrder1);
+        hotShelf.add(hotOrder2);
+        hotShelf.printShelfContent();
+        hotShelf.cleanUpWastedOrders(1);
+        hotShelf.cleanUpWastedOrders(1);
+        hotShelf.cleanUpDeliveredOrders(2);
+        hotShelf.printShelfContent();
+        sink.flush();
+        Assert.assertEquals(List.of(
+                "Order added to HOT shelf: 1(HOT)",
+                "Order added to HOT shelf: 2(HOT)",
+                "HOT shelf Occupancy (2/10): 1 2 ",
+                "Orders wasted and removed from HOT shelf: 2(after 1s) ",
+                "Orders delivered and removed from HOT shelf: 1(after 2s) ",
+                "HOT shelf Occupancy (0/10): None"), lines);
+    }
+
+    @Test
+    public void testLevel() {
+        sink.setLevel(EventSink.Level.INFO);
+        hotShelf.add(hotOrder1);
+        hotShelf.printShelfContent();
+        hotShelf.cleanUpDeliveredOrders(2);
+        sink.setLevel(EventSink.Level.OFF);
+        hotShelf.add(hotOrder2);
+        hotShelf.cleanUpWastedOrders(1);
+        Assert.assertNull(sink.claim(EventSink.Type.TIMESTAMP, null, 0));
+        sink.flush();
+        Assert.assertEquals(List.of("Orders delivered and removed from HOT shelf: 1(after 2s) "), lines);
+    }
+
+    @Test
+    public void testConcurrentPublishers() throws InterruptedException {
+        int numThreads = 4;
+        int numEvents = 1000;
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < numThreads; t++) {
+            int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < numEvents; i++) {
+                    sink.publish(sink.claim(EventSink.Type.TIMESTAMP, null, thread * numEvents + i));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        sink.flush();
+        Assert.assertEquals(numThreads * numEvents, lines.size());
+        // Events of every thread come out in the order they were published
+        int[] last = new int[numThreads];
+        for (String line : lines) {
+            int time = Integer.parseInt(line.substring("Timestamp = ".length()));
+            int thread = time / numEvents;
+            Assert.assertEquals(last[thread], time % numEvents);
+            last[thread]++;
+        }
+    }
+
+    @Test
+    public void testParkedConsumer() throws InterruptedException {
+        sink.publish(sink.claim(EventSink.Type.TIMESTAMP, null, 0));
+        sink.flush();
+        // Out of events, the consumer parks until the next one is published
+        long deadline = System.nanoTime() + 10_000_000_000L;
+        while (!sink.consumerParked) {
+            Assert.assertTrue("Consumer didn't park", System.nanoTime() < deadline);
+            Thread.sleep(1);
+        }
+        sink.publish(sink.claim(EventSink.Type.TIMESTAMP, null, 1));
+        sink.flush();
+        Assert.assertEquals(List.of("Timestamp = 0", "Timestamp = 1"), lines);
+    }
+
+    @Test
+    public void testConsoleEventWriter() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EventSink console = new EventSink(new ConsoleEventWriter(out), 4, EventSink.Level.INFO);
+        EventSink.Event event = console.claim(EventSink.Type.NEW_ORDERS, null, 0);
+        event.add(hotOrder1);
+        event.add(hotOrder2);
+        console.publish(event);
+        console.publish(console.claim(EventSink.Type.NEW_ORDERS, null, 1));
+        console.flush();
+        Assert.assertEquals("New orders: 1(HOT) 2(HOT) " + System.lineSeparator()
+                + "New orders: None" + System.lineSeparator(), out.toString());
+    }
+}
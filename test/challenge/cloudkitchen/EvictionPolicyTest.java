@@ -0,0 +1,74 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class EvictionPolicyTest {
+
+    Order order1, order2, order3;
+
+    @Before
+    public void setup() {
+        // On overflow shelf (decay modifier 2):
+        // order1 goes to waste at 150, picked up at 60 with a value of 0.6
+        // order2 goes to waste at 15, picked up at 5 with a value of 0.67
+        // order3 goes to waste at 16.7, picked up at 40 with a value of -1.4
+        order1 = new Order("0-0-0-0-1", "order1", "hot", 300, 0.5);
+        order1.arrive(0);
+        order1.setTimePickedUp(60);
+        order2 = new Order("0-0-0-0-2", "order2", "cold", 30, 0.5);
+        order2.arrive(0);
+        order2.setTimePickedUp(5);
+        order3 = new Order("0-0-0-0-3", "order3", "frozen", 50, 1);
+        order3.arrive(0);
+        order3.setTimePickedUp(40);
+    }
+
+    List<Order> evictAll(EvictionPolicy.Type type) {
+        OverflowShelf shelf = new OverflowShelf(3, 2, type);
+        shelf.eventSink = EventSink.NONE;
+        shelf.addAll(Arrays.asList(order1, order2, order3));
+        return shelf.evictOrders(4);
+    }
+
+    @Test
+    public void testPolicies() {
+        Assert.assertEquals(Arrays.asList(order3, order1, order2), evictAll(EvictionPolicy.Type.LOWEST_VALUE));
+        Assert.assertEquals(Arrays.asList(order2, order3, order1), evictAll(EvictionPolicy.Type.SOONEST_EXPIRY));
+        Assert.assertEquals(Arrays.asList(order1, order3, order2), evictAll(EvictionPolicy.Type.LATEST_PICK_UP));
+        List<Order> evicted = evictAll(EvictionPolicy.Type.RANDOM);
+        Assert.assertEquals(3, evicted.size());
+        Assert.assertTrue(evicted.containsAll(Arrays.asList(order1, order2, order3)));
+    }
+
+    @Test
+    public void testSetEvictionPolicy() {
+        // Orders already on shelf are indexed by the new policy, removed orders are no longer candidates
+        OverflowShelf shelf = new OverflowShelf(3, 2);
+        shelf.eventSink = EventSink.NONE;
+        shelf.addAll(Arrays.asList(order1, order2, order3));
+        shelf.setEvictionPolicy(EvictionPolicy.Type.SOONEST_EXPIRY.create(shelf));
+        shelf.remove(order2);
+        Assert.assertEquals(order3, shelf.evictOrder());
+        Assert.assertEquals(Arrays.asList(order1), shelf.getCurrentOrders());
+        Assert.assertEquals(order1, shelf.evictOrder());
+        Assert.assertNull(shelf.evictOrder());
+    }
+
+    @Test
+    public void testParse() {
+        Assert.assertEquals(EvictionPolicy.Type.LOWEST_VALUE, EvictionPolicy.Type.parse("lowest-value"));
+        Assert.assertEquals(EvictionPolicy.Type.LATEST_PICK_UP, EvictionPolicy.Type.parse("LATEST_PICK_UP"));
+        Assert.assertEquals("soonest-expiry", EvictionPolicy.Type.SOONEST_EXPIRY.toString());
+        try {
+            EvictionPolicy.Type.parse("oldest");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+}
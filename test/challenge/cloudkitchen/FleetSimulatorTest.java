@@ -0,0 +1,41 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FleetSimulatorTest {
+
+    @Test
+    public void testSimulate() throws InterruptedException {
+        List<Order> orders = new ArrayList<>();
+        String[] temps = {"hot", "cold", "frozen"};
+        for (int i = 0; i < 60; i++) {
+            orders.add(new Order("0-0-0-0-" + i, "order" + i, temps[i % 3], 251, 0.22));
+        }
+        FleetSimulator fleet = new FleetSimulator(3, 2, true);
+        fleet.simulate(new ListOrderSource(orders));
+
+        // Every order is accounted for by exactly one kitchen
+        int total = 0;
+        for (Kitchen kitchen : fleet.kitchens) {
+            total += kitchen.getNumDelivered() + kitchen.getNumDiscarded() + kitchen.getNumWasted();
+        }
+        Assert.assertEquals(60, total);
+        Assert.assertEquals(60, fleet.numDelivered + fleet.numDiscarded + fleet.numWasted);
+        for (Kitchen kitchen : fleet.kitchens) {
+            Assert.assertFalse(kitchen.hasNonEmptyShelf());
+        }
+    }
+
+    @Test
+    public void testGetKitchenIndex() {
+        FleetSimulator fleet = new FleetSimulator(4, 2, true);
+        Order order = new Order("0-0-0-0-1", "order1", "hot", 251, 0.22);
+        int index = fleet.getKitchenIndex(order);
+        Assert.assertTrue(index >= 0 && index < 4);
+        Assert.assertEquals(index, fleet.getKitchenIndex(new Order("0-0-0-0-1", "order1", "cold", 10, 0.1)));
+    }
+}
@@ -0,0 +1,66 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HistogramTest {
+
+    @Test
+    public void testEmpty() {
+        Histogram histogram = new Histogram();
+        Assert.assertEquals(0, histogram.getCount());
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(0, histogram.getMax());
+        Assert.assertEquals(0, histogram.getValueAtPercentile(50));
+        Assert.assertEquals(0, histogram.getMean(), 0);
+    }
+
+    @Test
+    public void testSmallValuesAreExact() {
+        Histogram histogram = new Histogram();
+        for (int value = 1; value <= 10; value++) {
+            histogram.record(value);
+        }
+        Assert.assertEquals(10, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(10, histogram.getMax());
+        Assert.assertEquals(5.5, histogram.getMean(), 0);
+        Assert.assertEquals(5, histogram.getValueAtPercentile(50));
+        Assert.assertEquals(9, histogram.getValueAtPercentile(90));
+        Assert.assertEquals(10, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void testAdd() {
+        Histogram histogram = new Histogram();
+        Histogram other = new Histogram();
+        for (int value = 1; value <= 10; value++) {
+            (value % 2 == 0 ? histogram : other).record(value);
+        }
+        histogram.add(other);
+        histogram.add(new Histogram());
+        Assert.assertEquals(10, histogram.getCount());
+        Assert.assertEquals(1, histogram.getMin());
+        Assert.assertEquals(10, histogram.getMax());
+        Assert.assertEquals(5.5, histogram.getMean(), 0);
+        Assert.assertEquals(5, histogram.getValueAtPercentile(50));
+    }
+
+    @Test
+    public void testRelativeError() {
+        for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+            int index = Histogram.getIndex(value);
+            long highest = Histogram.getHighestValue(index);
+            Assert.assertTrue(value + " <= " + highest, value <= highest);
+            Assert.assertTrue(value + " ~ " + highest, highest - value <= value / Histogram.HALF_SUB_BUCKET_COUNT);
+            // The next bucket starts right after the highest value of this one
+            Assert.assertEquals(index + 1, Histogram.getIndex(highest + 1));
+        }
+
+        Histogram histogram = new Histogram();
+        histogram.record(1_000_000);
+        histogram.record(-5);
+        Assert.assertEquals(0, histogram.getMin());
+        Assert.assertEquals(1_000_000, histogram.getValueAtPercentile(99));
+    }
+}
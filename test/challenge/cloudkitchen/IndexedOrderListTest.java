@@ -0,0 +1,76 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+public class IndexedOrderListTest {
+
+    IndexedOrderList list;
+    Order order1, order2, order3;
+
+    @Before
+    public void setup() {
+        list = new IndexedOrderList(1);
+        order1 = new Order("0-0-0-0-1", "order1", "frozen", 300, 0.61);
+        order2 = new Order("0-0-0-0-2", "order2", "cold", 10, 0.19);
+        order3 = new Order("0-0-0-0-3", "order3", "hot", 251, 0.22);
+        list.add(order1);
+        list.add(order2);
+        list.add(order3);
+    }
+
+    @Test
+    public void testAdd() {
+        Assert.assertEquals(3, list.size());
+        Assert.assertEquals(order3, list.get(2));
+        Assert.assertTrue(list.containsId("0-0-0-0-2"));
+        Assert.assertEquals(order2, list.getById("0-0-0-0-2"));
+
+        // Adding an order with an id that's already in the list fails
+        try {
+            list.add(new Order("0-0-0-0-2", "another order2", "cold", 10, 0.19));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals(3, list.size());
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        // Removing an order moves the last order to its position
+        Assert.assertTrue(list.remove(order1));
+        Assert.assertEquals(2, list.size());
+        Assert.assertEquals(order3, list.get(0));
+        Assert.assertEquals(0, list.indexOf(order3));
+        Assert.assertFalse(list.containsId("0-0-0-0-1"));
+
+        // Removing an order that's not in the list fails
+        Assert.assertFalse(list.remove(order1));
+
+        // An order with the same id but not the same object is not removed
+        Assert.assertFalse(list.remove(new Order("0-0-0-0-2", "another order2", "cold", 10, 0.19)));
+        Assert.assertEquals(2, list.size());
+
+        Assert.assertEquals(order2, list.remove(1));
+        Assert.assertEquals(Arrays.asList(order3), list);
+    }
+
+    @Test
+    public void testRemoveAll() {
+        Assert.assertTrue(list.removeAll(Arrays.asList(order1, order3)));
+        Assert.assertEquals(Arrays.asList(order2), list);
+        Assert.assertEquals(0, list.indexOf(order2));
+    }
+
+    @Test
+    public void testClear() {
+        list.clear();
+        Assert.assertEquals(0, list.size());
+        Assert.assertFalse(list.contains(order1));
+        list.add(order1);
+        Assert.assertEquals(order1, list.get(0));
+    }
+}
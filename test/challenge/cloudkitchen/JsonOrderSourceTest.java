@@ -0,0 +1,46 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+
+public class JsonOrderSourceTest {
+
+    @Test
+    public void testNext() {
+        String json = "[{\"id\": \"0-0-0-0-1\", \"name\": \"order1\", \"temp\": \"frozen\", "
+                + "\"shelfLife\": 300, \"decayRate\": 0.61},"
+                + " {\"id\": \"0-0-0-0-2\", \"name\": \"order2\", \"temp\": \"hot\", "
+                + "\"shelfLife\": 20.5, \"decayRate\": 1}]";
+        OrderSource source = new JsonOrderSource(new StringReader(json));
+        Assert.assertTrue(source.hasNext());
+        Order order = source.next();
+        Assert.assertEquals("0-0-0-0-1", order.getId());
+        Assert.assertEquals(Constants.Temperature.FROZEN, order.getTemp());
+        Assert.assertEquals(300, order.shelfLife, 0);
+        Assert.assertEquals(0.61, order.decayRate, 0);
+        order = source.next();
+        Assert.assertEquals("0-0-0-0-2", order.getId());
+        Assert.assertEquals(20.5, order.shelfLife, 0);
+        Assert.assertFalse(source.hasNext());
+        Assert.assertNull(source.next());
+    }
+
+    @Test
+    public void testEmptyInput() {
+        OrderSource source = new JsonOrderSource(new StringReader("[]"));
+        Assert.assertFalse(source.hasNext());
+    }
+
+    @Test
+    public void testInvalidInput() {
+        OrderSource source = new JsonOrderSource(new StringReader("[{\"id\": \"0-0-0-0-1\","));
+        try {
+            source.next();
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().startsWith("Invalid order input"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class MetricsTest {
+
+    private Kitchen kitchen;
+
+    @Before
+    public void setUp() {
+        kitchen = new Kitchen(new KitchenConfig().setPickUpTimeRange(3, 3));
+        kitchen.setEventSink(EventSink.NONE);
+    }
+
+    @Test
+    public void testKitchenMetrics() {
+        kitchen.ingest(Collections.singletonList(new Order("0-0-0-0-1", "order1", "hot", 300, 0.5)), 0);
+        Map<String, Number> snapshot = kitchen.metrics.snapshot();
+        Assert.assertEquals(1L, snapshot.get("shelf.hot.occupancy"));
+        Assert.assertEquals(0L, snapshot.get("shelf.overflow.occupancy"));
+        Assert.assertEquals(0L, snapshot.get(Metrics.DELIVERED));
+
+        kitchen.checkWastedOrder(3);
+        kitchen.checkDeliveredOrder(3);
+        snapshot = kitchen.metrics.snapshot();
+        Assert.assertEquals(0L, snapshot.get("shelf.hot.occupancy"));
+        Assert.assertEquals(1L, snapshot.get(Metrics.DELIVERED));
+        Assert.assertEquals(0L, snapshot.get(Metrics.WASTED));
+        Assert.assertEquals(1L, snapshot.get(Metrics.DWELL_TIME + ".count"));
+        Assert.assertEquals(3L, snapshot.get(Metrics.DWELL_TIME + ".max"));
+        // (300 - 3 - 0.5 * 3) / 300
+        Assert.assertEquals(985L, snapshot.get(Metrics.VALUE_AT_PICK_UP + ".p50"));
+    }
+
+    @Test
+    public void testOverflowMetrics() {
+        KitchenConfig config = new KitchenConfig().setSingleTemperatureShelfCapacity(1).setOverflowShelfCapacity(1);
+        kitchen = new Kitchen(config);
+        kitchen.setEventSink(EventSink.NONE);
+        kitchen.ingest(List.of(new Order("0-0-0-0-1", "order1", "hot", 300, 0.5),
+                new Order("0-0-0-0-2", "order2", "hot", 300, 0.5),
+                new Order("0-0-0-0-3", "order3", "hot", 300, 0.5)), 0);
+        Assert.assertEquals(1, kitchen.metrics.discarded.sum());
+        Assert.assertEquals(kitchen.getNumDiscarded(), kitchen.metrics.discarded.sum());
+        Assert.assertEquals(1L, kitchen.metrics.snapshot().get("shelf.overflow.occupancy"));
+    }
+
+    @Test
+    public void testReporter() throws Exception {
+        Path file = Files.createTempFile("metrics", ".csv");
+        try {
+            MetricsReporter reporter = new MetricsReporter(kitchen.metrics, file, 2);
+            for (int time = 0; time < 5; time++) {
+                reporter.onTick(time);
+            }
+            reporter.close();
+            List<String> lines = Files.readAllLines(file);
+            Assert.assertEquals(4, lines.size());
+            Assert.assertTrue(lines.get(0).startsWith("time,shelf.cold.occupancy,"));
+            Assert.assertTrue(lines.get(1).startsWith("0,"));
+            Assert.assertTrue(lines.get(3).startsWith("4,"));
+            Assert.assertEquals(lines.get(0).split(",").length, lines.get(3).split(",").length);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMBean() throws Exception {
+        kitchen.metrics.counter("test.counter").add(7);
+        ObjectName name = MetricsDynamicMBean.register(kitchen.metrics, "test");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            Assert.assertEquals(7L, server.getAttribute(name, "test.counter"));
+            Assert.assertEquals(0L, server.getAttribute(name, Metrics.DELIVERED));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OrderHeapTest {
+
+    OrderHeap heap;
+    Order order1, order2, order3, order4;
+
+    @Before
+    public void setup() {
+        // Orders are keyed by shelf life
+        heap = new OrderHeap(order -> order.shelfLife);
+        order1 = new Order("0-0-0-0-1", "order1", "frozen", 300, 0.61);
+        order2 = new Order("0-0-0-0-2", "order2", "cold", 10, 0.19);
+        order3 = new Order("0-0-0-0-3", "order3", "hot", 251, 0.22);
+        order4 = new Order("0-0-0-0-4", "order4", "hot", 120, 0.22);
+        heap.add(order1);
+        heap.add(order2);
+        heap.add(order3);
+        heap.add(order4);
+    }
+
+    @Test
+    public void testPoll() {
+        Assert.assertEquals(order2, heap.peek());
+        Assert.assertEquals(10, heap.peekKey(), 0);
+        Assert.assertEquals(order2, heap.poll());
+        Assert.assertEquals(order4, heap.poll());
+        Assert.assertEquals(order3, heap.poll());
+        Assert.assertEquals(order1, heap.poll());
+        Assert.assertNull(heap.poll());
+        Assert.assertEquals(Double.POSITIVE_INFINITY, heap.peekKey(), 0);
+    }
+
+    @Test
+    public void testAddTwice() {
+        Assert.assertFalse(heap.add(order1));
+        Assert.assertEquals(4, heap.size());
+    }
+
+    @Test
+    public void testRemove() {
+        Assert.assertTrue(heap.remove(order4));
+        Assert.assertFalse(heap.remove(order4));
+        Assert.assertFalse(heap.contains(order4));
+        Assert.assertTrue(heap.remove(order2));
+        Assert.assertEquals(order3, heap.poll());
+        Assert.assertEquals(order1, heap.poll());
+        Assert.assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testIndexOrderList() {
+        // Heap registered with a list of orders follows the list's content
+        IndexedOrderList list = new IndexedOrderList();
+        list.add(order1);
+        OrderHeap index = new OrderHeap(order -> order.shelfLife);
+        list.addIndex(index);
+        list.add(order2);
+        Assert.assertEquals(2, index.size());
+        list.remove(order2);
+        Assert.assertEquals(order1, index.peek());
+        list.clear();
+        Assert.assertTrue(index.isEmpty());
+    }
+}
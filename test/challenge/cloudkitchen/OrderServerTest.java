@@ -0,0 +1,98 @@
+package challenge.cloudkitchen;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+public class OrderServerTest {
+
+    LiveOrderSource source;
+    OrderServer server;
+    volatile boolean saturated;
+    Socket socket;
+    BufferedReader in;
+    PrintWriter out;
+
+    @Before
+    public void setup() throws Exception {
+        source = new LiveOrderSource(3);
+        saturated = false;
+        server = new OrderServer(source, () -> saturated);
+        server.start(0);
+        socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        out = new PrintWriter(socket.getOutputStream(), true, StandardCharsets.UTF_8);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        socket.close();
+        server.close();
+    }
+
+    String send(String line) throws Exception {
+        out.println(line);
+        return in.readLine();
+    }
+
+    static String order(int i, String temp) {
+        return "{\"id\":\"0-0-0-0-" + i + "\",\"name\":\"order" + i + "\",\"temp\":\"" + temp
+                + "\",\"shelfLife\":300,\"decayRate\":0.5}";
+    }
+
+    @Test
+    public void testAccept() throws Exception {
+        Assert.assertEquals("OK 1", send(order(1, "hot")));
+        Assert.assertEquals("OK 2", send("[" + order(2, "cold") + "," + order(3, "frozen") + "]"));
+        Assert.assertEquals(3, source.size());
+        Order order = source.next();
+        Assert.assertEquals("0-0-0-0-1", order.getId());
+        Assert.assertEquals(Constants.Temperature.HOT, order.getTemp());
+        Assert.assertEquals(300, order.shelfLife, 0);
+    }
+
+    @Test
+    public void testBackpressure() throws Exception {
+        // The queue takes 3 orders, the client is told to send the rest again
+        Assert.assertEquals("BUSY 3", send("[" + order(1, "hot") + "," + order(2, "hot") + ","
+                + order(3, "hot") + "," + order(4, "hot") + "]"));
+        source.next();
+        Assert.assertEquals("OK 1", send(order(4, "hot")));
+
+        // No order is taken while the kitchen is saturated, even with room in the queue
+        source.next();
+        saturated = true;
+        Assert.assertEquals("BUSY 0", send(order(5, "hot")));
+        Assert.assertEquals(2, source.size());
+    }
+
+    @Test
+    public void testInvalidOrders() throws Exception {
+        Assert.assertTrue(send("not json").startsWith("ERROR "));
+        Assert.assertTrue(send("{\"name\":\"no id\"}").startsWith("ERROR "));
+        // Nothing is queued when any order of a line is invalid
+        Assert.assertTrue(send("[" + order(1, "hot") + ",42]").startsWith("ERROR "));
+        Assert.assertEquals(0, source.size());
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        Assert.assertEquals("OK 1", send(order(1, "hot")));
+        server.close();
+        source.close();
+        Assert.assertFalse(source.offer(new Order("0-0-0-0-2", "order2", "hot", 300, 0.5)));
+        // Orders already queued are still handed out before the source is exhausted
+        Assert.assertTrue(source.hasNext());
+        Assert.assertNotNull(source.next());
+        Assert.assertFalse(source.hasNext());
+        Assert.assertNull(source.next());
+    }
+}
@@ -0,0 +1,81 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class OrderTableTest {
+
+    @Test
+    public void testLoadAndGet() {
+        Order order1 = new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana Split", "frozen", 20, 0.63);
+        Order order2 = new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "McFlury", "hot", 375.5, 0.4);
+        Order order3 = new Order("2ec069e3-576f-48eb-869f-74a540ef840c", "Banana Split", "cold", 249, 0.3);
+        List<Order> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            expected.addAll(Arrays.asList(order1, order2, order3));
+        }
+        OrderTable table = OrderTable.load(new ListOrderSource(expected));
+        Assert.assertEquals(60, table.size());
+        Assert.assertEquals(2, table.names.size());
+
+        for (int handle = 0; handle < table.size(); handle++) {
+            Order order = table.get(handle);
+            Assert.assertEquals(expected.get(handle).getId(), order.getId());
+            Assert.assertEquals(expected.get(handle).getName(), order.getName());
+            Assert.assertEquals(expected.get(handle).getTemp(), order.getTemp());
+            Assert.assertEquals(expected.get(handle).shelfLife, order.shelfLife, 0);
+            Assert.assertEquals(expected.get(handle).decayRate, order.decayRate, 0);
+            Assert.assertFalse(order.hasArrived());
+        }
+        Assert.assertEquals("74a540ef840c", table.get(2).getShortId());
+    }
+
+    @Test
+    public void testOpenSource() {
+        OrderTable table = new OrderTable();
+        table.add(new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana Split", "frozen", 20, 0.63));
+        table.add(new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "McFlury", "hot", 375.5, 0.4));
+
+        // Every source replays the table from the start, with new orders
+        OrderSource source1 = table.openSource();
+        OrderSource source2 = table.openSource();
+        Order order = source1.next();
+        Assert.assertEquals("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", order.getId());
+        Assert.assertNotSame(order, source2.next());
+        Assert.assertEquals("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", source1.next().getId());
+        Assert.assertFalse(source1.hasNext());
+        Assert.assertNull(source1.next());
+        Assert.assertTrue(source2.hasNext());
+    }
+
+    @Test
+    public void testTemperatureNames() {
+        OrderTable table = new OrderTable();
+        int ambient = table.add(new Order("a8cfcb76-7f24-4420-a5ba-d46dd77bdffd", "Banana", "ambient", 20, 0.63));
+        int none = table.add(new Order("58e9b5fe-3fde-4a27-8e98-682e58a4a65d", "Water", (String) null, 375.5, 0.4));
+        Assert.assertEquals(Arrays.asList("AMBIENT"), table.temperatureNames);
+        Assert.assertEquals("AMBIENT", table.get(ambient).getTempName());
+        Assert.assertNull(table.getTemp(ambient));
+        Assert.assertNull(table.getTempName(none));
+        Assert.assertNull(table.get(none).getTempName());
+    }
+
+    @Test
+    public void testNonUuidId() {
+        try {
+            new OrderTable().add(new Order("0-0-0-0-1", "order1", "frozen", 300, 0.61));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Order id is not a UUID in canonical form: 0-0-0-0-1", e.getMessage());
+        }
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        new OrderTable().get(0);
+    }
+}
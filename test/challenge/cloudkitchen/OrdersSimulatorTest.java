@@ -4,8 +4,10 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.SplittableRandom;
 
 public class OrdersSimulatorTest {
 
@@ -36,15 +38,15 @@ public class OrdersSimulatorTest {
         hotOrder2.setTimePickedUp(10);
         orders = Arrays.asList(frozenOrder1, coldOrder1, hotOrder1, frozenOrder2, hotOrder2);
         sim = new OrdersSimulator(2, orders);
-        sim.frozenShelf.add(frozenOrder1);
-        sim.coldShelf.add(coldOrder1);
-        sim.hotShelf.add(hotOrder1);
-        sim.overflowShelf.add(frozenOrder2);
+        sim.kitchen.frozenShelf.add(frozenOrder1);
+        sim.kitchen.coldShelf.add(coldOrder1);
+        sim.kitchen.hotShelf.add(hotOrder1);
+        sim.kitchen.overflowShelf.add(frozenOrder2);
     }
 
     @Test
     public void testGetOrdersIdsStr() {
-        Assert.assertEquals("1(FROZEN) 2(COLD) 3(HOT) 4(FROZEN) 5(HOT) ", sim.getOrdersIdsStr(orders));
+        Assert.assertEquals("1(FROZEN) 2(COLD) 3(HOT) 4(FROZEN) 5(HOT) ", sim.kitchen.getOrdersIdsStr(orders));
     }
 
     @Test
@@ -53,23 +55,23 @@ public class OrdersSimulatorTest {
         // 2 orders on overflowShelf: frozenOrder1 (arrived at 0), frozenOrder2 (arrived at 0).
         // At time 10, inherent values of frozenOrder1 and frozenOrder2 are 0.926 and 0.943.
         // Getting movable order from this shelf should return frozenOrder1
-        sim.overflowShelf.currentOrders.clear();
-        sim.overflowShelf.currentOrders.add(frozenOrder1);
-        sim.overflowShelf.currentOrders.add(frozenOrder2);
-        Order order = sim.getMovableOrder(10);
+        sim.kitchen.overflowShelf.currentOrders.clear();
+        sim.kitchen.overflowShelf.currentOrders.add(frozenOrder1);
+        sim.kitchen.overflowShelf.currentOrders.add(frozenOrder2);
+        Order order = sim.kitchen.getMovableOrder(10);
         Assert.assertEquals(frozenOrder1, order);
 
         // Not able to get an order to move because the corresponding shelf is full
-        sim.frozenShelf.capacity = 1;
-        order = sim.getMovableOrder(10);
+        sim.kitchen.frozenShelf.capacity = 1;
+        order = sim.kitchen.getMovableOrder(10);
         Assert.assertNull(order);
     }
 
     @Test
     public void testGetShelf() {
-        Assert.assertEquals(sim.frozenShelf, sim.getShelf(frozenOrder1));
-        Assert.assertEquals(sim.coldShelf, sim.getShelf(coldOrder1));
-        Assert.assertEquals(sim.hotShelf, sim.getShelf(hotOrder1));
+        Assert.assertEquals(sim.kitchen.frozenShelf, sim.kitchen.getShelf(frozenOrder1));
+        Assert.assertEquals(sim.kitchen.coldShelf, sim.kitchen.getShelf(coldOrder1));
+        Assert.assertEquals(sim.kitchen.hotShelf, sim.kitchen.getShelf(hotOrder1));
     }
 
     @Test
@@ -83,15 +85,34 @@ public class OrdersSimulatorTest {
     @Test
     public void testMakeRoomOnOverflowShelf() {
         // Make room by moving order to another shelf
-        sim.makeRoomOnOverflowShelf(10);
-        Assert.assertEquals(0, sim.overflowShelf.getCurrentOrders().size());
+        sim.kitchen.makeRoomOnOverflowShelf(10);
+        Assert.assertEquals(0, sim.kitchen.overflowShelf.getCurrentOrders().size());
 
         // Make room by remove a random order
-        sim.overflowShelf.add(frozenOrder2);
-        sim.overflowShelf.add(hotOrder2);
-        sim.hotShelf.capacity = 1;
-        sim.makeRoomOnOverflowShelf(10);
-        Assert.assertEquals(1, sim.overflowShelf.getCurrentOrders().size());
+        sim.kitchen.overflowShelf.add(frozenOrder2);
+        sim.kitchen.overflowShelf.add(hotOrder2);
+        sim.kitchen.hotShelf.capacity = 1;
+        sim.kitchen.makeRoomOnOverflowShelf(10);
+        Assert.assertEquals(1, sim.kitchen.overflowShelf.getCurrentOrders().size());
+    }
+
+    @Test
+    public void testRunWithVirtualClock() throws InterruptedException {
+        // Every order ends up picked up, discarded or wasted without waiting for real seconds to pass
+        List<Order> newOrders = Arrays.asList(
+                new Order("0-0-0-new-1", "new order 1", "hot", 251, 0.22),
+                new Order("0-0-0-new-2", "new order 2", "cold", 3, 0.5),
+                new Order("0-0-0-new-3", "new order 3", "frozen", 251, 0.22));
+        OrdersSimulator virtualSim = new OrdersSimulator(1, newOrders, true);
+        long start = System.currentTimeMillis();
+        virtualSim.run();
+        // In real time the last order arrives at 2s and is picked up 2s later at the earliest, i.e. 4 sleeps
+        Assert.assertTrue(System.currentTimeMillis() - start < 4000);
+        Kitchen kitchen = virtualSim.kitchen;
+        Assert.assertFalse(kitchen.hasNonEmptyShelf());
+        Assert.assertEquals(3, kitchen.numDelivered + kitchen.numDiscarded + kitchen.numWasted);
+        // The cold order goes to waste after 2 seconds, before its earliest pick-up
+        Assert.assertEquals(1, kitchen.numWasted);
     }
 
     @Test
@@ -100,53 +121,143 @@ public class OrdersSimulatorTest {
         Order newHotOrder1 = new Order("0-0-0-new-1", "new order 1", "hot", 251, 0.22);
         Order newColdOrder1 = new Order("0-0-0-new-2", "new order 2", "cold", 251, 0.22);
         List<Order> batch = Arrays.asList(newHotOrder1, newColdOrder1);
-        sim.ingest(batch, 0);
-        Assert.assertEquals(2, sim.hotShelf.getCurrentOrders().size());
-        Assert.assertEquals(2, sim.coldShelf.getCurrentOrders().size());
-        Assert.assertEquals("0-0-0-new-1", sim.hotShelf.getCurrentOrders().get(1).getId());
-        Assert.assertEquals("0-0-0-new-2", sim.coldShelf.getCurrentOrders().get(1).getId());
+        sim.kitchen.ingest(batch, 0);
+        Assert.assertEquals(2, sim.kitchen.hotShelf.getCurrentOrders().size());
+        Assert.assertEquals(2, sim.kitchen.coldShelf.getCurrentOrders().size());
+        Assert.assertEquals("0-0-0-new-1", sim.kitchen.hotShelf.getCurrentOrders().get(1).getId());
+        Assert.assertEquals("0-0-0-new-2", sim.kitchen.coldShelf.getCurrentOrders().get(1).getId());
 
         // Successfully ingest a new order by moving an order from overflow shelf to single temperature shelf
         // hotShelf (full): hotOrder1
         // overflowShelf (full): frozenOrder1
         // ingesting hotOrder2 requires moving frozenOrder1 to frozenShelf and adding hotOrder2 to overflow shelf
-        sim.hotShelf.currentOrders.clear();
-        sim.coldShelf.currentOrders.clear();
-        sim.frozenShelf.currentOrders.clear();
-        sim.overflowShelf.currentOrders.clear();
-        sim.hotShelf.add(hotOrder1);
-        sim.hotShelf.capacity = 1;
-        sim.overflowShelf.add(frozenOrder1);
-        sim.overflowShelf.capacity = 1;
+        sim.kitchen.hotShelf.currentOrders.clear();
+        sim.kitchen.coldShelf.currentOrders.clear();
+        sim.kitchen.frozenShelf.currentOrders.clear();
+        sim.kitchen.overflowShelf.currentOrders.clear();
+        sim.kitchen.hotShelf.add(hotOrder1);
+        sim.kitchen.hotShelf.capacity = 1;
+        sim.kitchen.overflowShelf.add(frozenOrder1);
+        sim.kitchen.overflowShelf.capacity = 1;
         batch = Arrays.asList(hotOrder2);
-        sim.ingest(batch, 0);
-        Assert.assertEquals(1, sim.frozenShelf.getCurrentOrders().size());
-        Assert.assertEquals(frozenOrder1, sim.frozenShelf.getCurrentOrders().get(0));
-        Assert.assertEquals(1, sim.overflowShelf.getCurrentOrders().size());
-        Assert.assertEquals(hotOrder2, sim.overflowShelf.getCurrentOrders().get(0));
+        sim.kitchen.ingest(batch, 0);
+        Assert.assertEquals(1, sim.kitchen.frozenShelf.getCurrentOrders().size());
+        Assert.assertEquals(frozenOrder1, sim.kitchen.frozenShelf.getCurrentOrders().get(0));
+        Assert.assertEquals(1, sim.kitchen.overflowShelf.getCurrentOrders().size());
+        Assert.assertEquals(hotOrder2, sim.kitchen.overflowShelf.getCurrentOrders().get(0));
 
         // Successfully ingest a new order by removing an order from overflow shelf
         // hotShelf (full): hotOrder1
         // frozenShelf (full): frozenOrder2
         // overflowShelf (full): frozenOrder1
         // ingesting hotOrder2 requires removing frozenOrder1 and adding hotOrder2 to overflow shelf
-        sim.hotShelf.currentOrders.clear();
-        sim.coldShelf.currentOrders.clear();
-        sim.frozenShelf.currentOrders.clear();
-        sim.overflowShelf.currentOrders.clear();
-        sim.hotShelf.add(hotOrder1);
-        sim.hotShelf.capacity = 1;
-        sim.frozenShelf.add(frozenOrder2);
-        sim.frozenShelf.capacity = 1;
-        sim.overflowShelf.add(frozenOrder1);
-        sim.overflowShelf.capacity = 1;
+        sim.kitchen.hotShelf.currentOrders.clear();
+        sim.kitchen.coldShelf.currentOrders.clear();
+        sim.kitchen.frozenShelf.currentOrders.clear();
+        sim.kitchen.overflowShelf.currentOrders.clear();
+        sim.kitchen.hotShelf.add(hotOrder1);
+        sim.kitchen.hotShelf.capacity = 1;
+        sim.kitchen.frozenShelf.add(frozenOrder2);
+        sim.kitchen.frozenShelf.capacity = 1;
+        sim.kitchen.overflowShelf.add(frozenOrder1);
+        sim.kitchen.overflowShelf.capacity = 1;
         batch = Arrays.asList(hotOrder2);
-        sim.ingest(batch, 0);
-        Assert.assertEquals(1, sim.hotShelf.getCurrentOrders().size());
-        Assert.assertEquals(hotOrder1, sim.hotShelf.getCurrentOrders().get(0));
-        Assert.assertEquals(1, sim.frozenShelf.getCurrentOrders().size());
-        Assert.assertEquals(frozenOrder2, sim.frozenShelf.getCurrentOrders().get(0));
-        Assert.assertEquals(1, sim.overflowShelf.getCurrentOrders().size());
-        Assert.assertEquals(hotOrder2, sim.overflowShelf.getCurrentOrders().get(0));
+        sim.kitchen.ingest(batch, 0);
+        Assert.assertEquals(1, sim.kitchen.hotShelf.getCurrentOrders().size());
+        Assert.assertEquals(hotOrder1, sim.kitchen.hotShelf.getCurrentOrders().get(0));
+        Assert.assertEquals(1, sim.kitchen.frozenShelf.getCurrentOrders().size());
+        Assert.assertEquals(frozenOrder2, sim.kitchen.frozenShelf.getCurrentOrders().get(0));
+        Assert.assertEquals(1, sim.kitchen.overflowShelf.getCurrentOrders().size());
+        Assert.assertEquals(hotOrder2, sim.kitchen.overflowShelf.getCurrentOrders().get(0));
+    }
+
+    @Test
+    public void testSeed() {
+        // Kitchens seeded the same dispatch couriers at the same times and discard the same orders
+        OrdersSimulator[] sims = new OrdersSimulator[2];
+        List<List<Order>> kept = new ArrayList<>();
+        for (int i = 0; i < sims.length; i++) {
+            sims[i] = new OrdersSimulator(2, new ListOrderSource(new ArrayList<>()), true,
+                    new KitchenConfig().setSingleTemperatureShelfCapacity(1).setOverflowShelfCapacity(5));
+            sims[i].kitchen.setEventSink(EventSink.NONE);
+            sims[i].kitchen.setRandom(new SplittableRandom(42));
+            List<Order> batch = new ArrayList<>();
+            for (int j = 0; j < 20; j++) {
+                batch.add(new Order("0-0-0-0-" + j, "order" + j, "hot", 300, 0.5));
+            }
+            sims[i].kitchen.ingest(batch, 0);
+            kept.add(new ArrayList<>(sims[i].kitchen.overflowShelf.getCurrentOrders()));
+        }
+        Assert.assertEquals(kept.get(0).size(), kept.get(1).size());
+        for (int j = 0; j < kept.get(0).size(); j++) {
+            Assert.assertEquals(kept.get(0).get(j).getId(), kept.get(1).get(j).getId());
+            Assert.assertEquals(kept.get(0).get(j).getTimePickedUp(), kept.get(1).get(j).getTimePickedUp());
+        }
+    }
+
+    @Test
+    public void testIngestBatch() {
+        // hotShelf (full): hotOrder1, coldShelf (full): coldOrder1, frozenShelf (room for 1)
+        // overflowShelf (full): frozenOrder2, coldOrder2
+        // Ingesting 4 hot orders at once: frozenOrder2 is moved to frozen shelf and coldOrder2 is discarded to
+        // make room for 2 of them, the last 2 can't fit on overflow shelf at all and are discarded right away
+        sim.kitchen.setEventSink(EventSink.NONE);
+        Order coldOrder2 = new Order("0-0-0-0-6", "order6", "cold", 269, 0.19);
+        coldOrder2.arrive(0);
+        coldOrder2.setTimePickedUp(10);
+        sim.kitchen.frozenShelf.currentOrders.clear();
+        sim.kitchen.hotShelf.capacity = 1;
+        sim.kitchen.coldShelf.capacity = 1;
+        sim.kitchen.frozenShelf.capacity = 1;
+        sim.kitchen.overflowShelf.add(coldOrder2);
+        sim.kitchen.overflowShelf.capacity = 2;
+        List<Order> batch = Arrays.asList(new Order("0-0-0-new-1", "new order 1", "hot", 251, 0.22),
+                new Order("0-0-0-new-2", "new order 2", "hot", 251, 0.22),
+                new Order("0-0-0-new-3", "new order 3", "hot", 251, 0.22),
+                new Order("0-0-0-new-4", "new order 4", "hot", 251, 0.22));
+        sim.kitchen.ingest(batch, 0);
+        Assert.assertEquals(Arrays.asList(hotOrder1), sim.kitchen.hotShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(frozenOrder2), sim.kitchen.frozenShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(batch.get(0), batch.get(1)), sim.kitchen.overflowShelf.getCurrentOrders());
+        Assert.assertEquals(3, sim.kitchen.getNumDiscarded());
+        Assert.assertEquals(1, sim.kitchen.metrics.movedFromOverflow.sum());
+        // Every order of the batch got a courier
+        for (Order order : batch) {
+            Assert.assertTrue(order.hasTimePickedUp());
+        }
+    }
+
+    @Test
+    public void testPromoteFromOverflow() {
+        // hotShelf (full): hot1 picked up at 5, overflowShelf: hot2 and hot3, hot2 goes to waste first
+        // Once hot1 is picked up, hot2 is promoted to the hot shelf, unless promotion is off
+        for (boolean promote : new boolean[] {false, true}) {
+            OrdersSimulator sim = new OrdersSimulator(2, new ListOrderSource(new ArrayList<>()), true,
+                    new KitchenConfig().setSingleTemperatureShelfCapacity(1).setPromoteFromOverflow(promote));
+            sim.kitchen.setEventSink(EventSink.NONE);
+            Order hot1 = new Order("0-0-0-0-1", "order1", "hot", 300, 0.5);
+            Order hot2 = new Order("0-0-0-0-2", "order2", "hot", 100, 0.5);
+            Order hot3 = new Order("0-0-0-0-3", "order3", "hot", 300, 0.5);
+            for (Order order : Arrays.asList(hot1, hot2, hot3)) {
+                order.arrive(0);
+                order.setTimePickedUp(order == hot1 ? 5 : 20);
+                sim.kitchen.pickupWheel.schedule(order, order.getTimePickedUp());
+            }
+            sim.kitchen.hotShelf.add(hot1);
+            sim.kitchen.overflowShelf.add(hot2);
+            sim.kitchen.overflowShelf.add(hot3);
+            sim.kitchen.checkWastedOrder(5);
+            sim.kitchen.checkDeliveredOrder(5);
+            Assert.assertEquals(1, sim.kitchen.getNumDelivered());
+            if (promote) {
+                Assert.assertEquals(Arrays.asList(hot2), sim.kitchen.hotShelf.getCurrentOrders());
+                Assert.assertEquals(Arrays.asList(hot3), sim.kitchen.overflowShelf.getCurrentOrders());
+                Assert.assertEquals(1, sim.kitchen.metrics.promotedFromOverflow.sum());
+            } else {
+                Assert.assertTrue(sim.kitchen.hotShelf.getCurrentOrders().isEmpty());
+                Assert.assertEquals(2, sim.kitchen.overflowShelf.getCurrentOrders().size());
+                Assert.assertEquals(0, sim.kitchen.metrics.promotedFromOverflow.sum());
+            }
+        }
     }
 }
@@ -0,0 +1,179 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.Constants.*;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+public class ShelfLayoutTest {
+
+    Properties properties;
+
+    @Before
+    public void setup() {
+        properties = new Properties();
+        properties.setProperty("shelves", "hot, cold, frozen, ambient, overflow, spill");
+        properties.setProperty("shelf.hot.capacity", "1");
+        properties.setProperty("shelf.ambient.temperature", "ambient");
+        properties.setProperty("shelf.ambient.capacity", "2");
+        properties.setProperty("shelf.overflow.capacity", "1");
+        properties.setProperty("shelf.spill.capacity", "1");
+        properties.setProperty("shelf.spill.decayModifier", "3");
+    }
+
+    static Order newOrder(String id, String temp) {
+        Order order = new Order("0-0-0-0-" + id, "order" + id, temp, 300, 0.5);
+        order.arrive(0);
+        order.setTimePickedUp(10);
+        return order;
+    }
+
+    @Test
+    public void testLoad() {
+        ShelfLayout layout = ShelfLayout.load(properties);
+        List<ShelfLayout.ShelfSpec> shelves = layout.getShelves();
+        Assert.assertEquals(6, shelves.size());
+        Assert.assertEquals("HOT", shelves.get(0).temp);
+        Assert.assertEquals(Temperature.HOT.ordinal(), shelves.get(0).zone);
+        Assert.assertEquals(1, shelves.get(0).capacity);
+        Assert.assertEquals(Constants.SHELF_DECAY_MODIFIER_SINGLE_TEMPERATURE, shelves.get(0).decayModifier);
+        Assert.assertEquals("AMBIENT", shelves.get(3).temp);
+        Assert.assertEquals(3, shelves.get(3).zone);
+        Assert.assertTrue(shelves.get(4).isOverflow());
+        Assert.assertEquals(Constants.SHELF_DECAY_MODIFIER_OVERFLOW, shelves.get(4).decayModifier);
+        Assert.assertTrue(shelves.get(5).isOverflow());
+        Assert.assertEquals(3, shelves.get(5).decayModifier);
+        Assert.assertEquals("hot 1/1, cold 10/1, frozen 10/1, ambient 2/1, overflow 1/2, spill 1/3",
+                layout.toString());
+    }
+
+    @Test
+    public void testInvalidLayouts() {
+        String[][] layouts = {{"shelves", "hot,cold"}, {"shelves", "hot,overflow,hot"}, {"shelves", ""},
+                {"shelves", "hot,warm,overflow", "shelf.warm.temperature", "hot"}};
+        for (String[] layout : layouts) {
+            Properties properties = new Properties();
+            for (int i = 0; i < layout.length; i += 2) {
+                properties.setProperty(layout[i], layout[i + 1]);
+            }
+            try {
+                ShelfLayout.load(properties);
+                Assert.fail("Loaded " + properties);
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void testTemperatureZones() {
+        ShelfLayout layout = ShelfLayout.load(properties);
+        Assert.assertEquals(4, layout.getNumZones());
+        Assert.assertEquals(Temperature.COLD.ordinal(), layout.getZone(newOrder("1", "cold")));
+        Assert.assertEquals(3, layout.getZone(newOrder("2", "Ambient")));
+        Assert.assertEquals("AMBIENT", layout.getZoneName(3));
+        Order lukewarm = newOrder("3", "lukewarm");
+        Assert.assertNull(lukewarm.getTemp());
+        Assert.assertEquals("LUKEWARM", lukewarm.getTempName());
+        Assert.assertEquals(-1, layout.getZone(lukewarm));
+
+        // Zones belong to a layout, another one numbers its own temperatures
+        Properties other = new Properties();
+        other.setProperty("shelves", "hot, lukewarm, overflow");
+        other.setProperty("shelf.lukewarm.temperature", "lukewarm");
+        ShelfLayout otherLayout = ShelfLayout.load(other);
+        Assert.assertEquals(3, otherLayout.getZone(lukewarm));
+        Assert.assertEquals(-1, otherLayout.getZone(newOrder("2", "ambient")));
+        Assert.assertEquals(4, ShelfLayout.load(properties).getNumZones());
+    }
+
+    @Test
+    public void testKitchen() {
+        // Orders go to the shelf of their temperature, then to overflow shelves in order, then room is made on the
+        // first overflow shelf
+        Kitchen kitchen = new Kitchen(new KitchenConfig().setShelfLayout(ShelfLayout.load(properties)));
+        kitchen.setEventSink(EventSink.NONE);
+        Assert.assertEquals(6, kitchen.shelves.size());
+        Assert.assertEquals(2, kitchen.overflowShelves.size());
+        Shelf ambientShelf = kitchen.getShelf("AMBIENT");
+        Assert.assertEquals("AMBIENT shelf", ambientShelf.getShelfName());
+        Assert.assertEquals("SPILL shelf", kitchen.overflowShelves.get(1).getShelfName());
+
+        Order ambient1 = newOrder("1", "ambient");
+        Order ambient2 = newOrder("2", "ambient");
+        Order hot1 = newOrder("3", "hot");
+        Order hot2 = newOrder("4", "hot");
+        Order hot3 = newOrder("5", "hot");
+        Order hot4 = newOrder("6", "hot");
+        kitchen.ingest(Arrays.asList(ambient1, ambient2, hot1, hot2, hot3), 0);
+        Assert.assertEquals(Arrays.asList(ambient1, ambient2), ambientShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(hot1), kitchen.hotShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(hot2), kitchen.overflowShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(hot3), kitchen.overflowShelves.get(1).getCurrentOrders());
+        Assert.assertEquals(5, kitchen.countNumOrdersOnShelves());
+
+        kitchen.ingest(Arrays.asList(hot4), 0);
+        Assert.assertEquals(Arrays.asList(hot4), kitchen.overflowShelf.getCurrentOrders());
+        Assert.assertEquals(1, kitchen.getNumDiscarded());
+        Assert.assertEquals(5, kitchen.countNumOrdersOnShelves());
+
+        // The count of orders on shelves follows every change to shelves
+        ambientShelf.currentOrders.clear();
+        kitchen.hotShelf.remove(hot1);
+        Assert.assertEquals(2, kitchen.countNumOrdersOnShelves());
+        kitchen.checkDeliveredOrder(10);
+        Assert.assertEquals(0, kitchen.countNumOrdersOnShelves());
+        Assert.assertFalse(kitchen.hasNonEmptyShelf());
+    }
+
+    @Test
+    public void testMoveFromEveryOverflowShelf() {
+        // Orders on any overflow shelf are moved to the shelf of their temperature to make room
+        Kitchen kitchen = new Kitchen(new KitchenConfig().setShelfLayout(ShelfLayout.load(properties)));
+        kitchen.setEventSink(EventSink.NONE);
+        Shelf ambientShelf = kitchen.getShelf("AMBIENT");
+        Shelf spillShelf = kitchen.overflowShelves.get(1);
+        Order hot1 = newOrder("1", "hot");
+        Order hot2 = newOrder("2", "hot");
+        Order ambient1 = newOrder("3", "ambient");
+        Order ambient2 = newOrder("4", "ambient");
+        Order ambient3 = newOrder("5", "ambient");
+        kitchen.ingest(Arrays.asList(hot1, hot2, ambient1, ambient2, ambient3), 0);
+        Assert.assertEquals(Arrays.asList(hot2), kitchen.overflowShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(ambient3), spillShelf.getCurrentOrders());
+
+        ambientShelf.remove(ambient1);
+        Order hot3 = newOrder("6", "hot");
+        kitchen.ingest(Arrays.asList(hot3), 0);
+        Assert.assertEquals(Arrays.asList(ambient2, ambient3), ambientShelf.getCurrentOrders());
+        Assert.assertEquals(Arrays.asList(hot3), spillShelf.getCurrentOrders());
+        Assert.assertEquals(0, kitchen.getNumDiscarded());
+        Assert.assertNull(kitchen.getOverflowShelf(ambient3));
+        Assert.assertSame(spillShelf, kitchen.getOverflowShelf(hot3));
+    }
+
+    @Test
+    public void testPromoteFromEveryOverflowShelf() {
+        Kitchen kitchen = new Kitchen(new KitchenConfig().setShelfLayout(ShelfLayout.load(properties))
+                .setPromoteFromOverflow(true));
+        kitchen.setEventSink(EventSink.NONE);
+        Shelf ambientShelf = kitchen.getShelf("AMBIENT");
+        Order hot1 = newOrder("1", "hot");
+        Order hot2 = newOrder("2", "hot");
+        Order ambient1 = newOrder("3", "ambient");
+        Order ambient2 = newOrder("4", "ambient");
+        Order ambient3 = newOrder("5", "ambient");
+        kitchen.ingest(Arrays.asList(hot1, hot2, ambient1, ambient2, ambient3), 0);
+        Assert.assertEquals(Arrays.asList(ambient3), kitchen.overflowShelves.get(1).getCurrentOrders());
+
+        ambientShelf.cleanUpDeliveredOrders(Arrays.asList(ambient1), ambient1.getTimePickedUp());
+        kitchen.promoteFromOverflow(ambient1.getTimePickedUp());
+        Assert.assertEquals(Arrays.asList(ambient2, ambient3), ambientShelf.getCurrentOrders());
+        Assert.assertTrue(kitchen.overflowShelves.get(1).getCurrentOrders().isEmpty());
+    }
+}
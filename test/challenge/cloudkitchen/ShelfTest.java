@@ -4,6 +4,9 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.List;
+
 public class ShelfTest {
 
     Shelf overflowShelf;
@@ -41,6 +44,19 @@ public class ShelfTest {
         Assert.assertEquals(0.9659, hotShelf.computeInherentValue(hotOrder1, 8), 0.0001);
     }
 
+    @Test
+    public void testComputeExpiryTime() {
+        // coldOrder1 reaches 0 after 10 / (1 + 0.19 * 2) = 7.25s on overflow shelf, 10 / 1.19 = 8.4s on hot shelf
+        Assert.assertEquals(8, overflowShelf.computeExpiryTime(coldOrder1));
+        Assert.assertEquals(9, hotShelf.computeExpiryTime(coldOrder1));
+        Assert.assertTrue(overflowShelf.computeInherentValue(coldOrder1, 7) > 0);
+        Assert.assertTrue(overflowShelf.computeInherentValue(coldOrder1, 8) <= 0);
+
+        // Expiry time is relative to the order's arrival
+        coldOrder1.arrive(5);
+        Assert.assertEquals(13, overflowShelf.computeExpiryTime(coldOrder1));
+    }
+
     @Test
     public void testCleanUpWastedOrders() {
         frozenOrder1.arrive(0);
@@ -50,6 +66,17 @@ public class ShelfTest {
         overflowShelf.cleanUpWastedOrders(10);
         Assert.assertEquals(1, overflowShelf.getCurrentOrders().size());
         Assert.assertEquals(frozenOrder1, overflowShelf.getCurrentOrders().get(0));
+
+        // Expiry time is recomputed when an order is moved to a shelf with a different decay modifier.
+        // coldOrder1 goes to waste at 8 on overflow shelf, at 9 on a single temperature shelf
+        Shelf coldShelf = new SingleTemperatureShelf(Constants.Temperature.COLD);
+        overflowShelf.add(coldOrder1);
+        overflowShelf.remove(coldOrder1);
+        coldShelf.add(coldOrder1);
+        coldShelf.cleanUpWastedOrders(8);
+        Assert.assertEquals(1, coldShelf.getCurrentOrders().size());
+        coldShelf.cleanUpWastedOrders(9);
+        Assert.assertEquals(0, coldShelf.getCurrentOrders().size());
     }
 
     @Test
@@ -131,6 +158,28 @@ public class ShelfTest {
         Assert.assertEquals(0, hotShelf.currentOrders.size());
     }
 
+    @Test
+    public void testAddAll() {
+        // Orders that fit are added in the order of the batch, the rest are rejected
+        Order newOrder = new Order("0-0-0-0-5", "new order", "hot", 251, 0.22);
+        newOrder.arrive(0);
+        newOrder.setTimePickedUp(10);
+        hotShelf.capacity = 2;
+        List<Order> rejected = hotShelf.addAll(Arrays.asList(frozenOrder1, hotOrder1, newOrder, hotOrder2));
+        Assert.assertEquals(Arrays.asList(frozenOrder1, hotOrder2), rejected);
+        Assert.assertEquals(Arrays.asList(hotOrder1, newOrder), hotShelf.getCurrentOrders());
+
+        // Nothing is rejected when there's room for the whole batch
+        Assert.assertTrue(overflowShelf.addAll(Arrays.asList(frozenOrder1, coldOrder1)).isEmpty());
+        Assert.assertEquals(2, overflowShelf.currentOrders.size());
+
+        // Orders are evicted until the shelf runs out of orders
+        List<Order> removed = ((OverflowShelf) overflowShelf).evictOrders(3);
+        Assert.assertEquals(2, removed.size());
+        Assert.assertTrue(removed.containsAll(Arrays.asList(frozenOrder1, coldOrder1)));
+        Assert.assertEquals(0, overflowShelf.currentOrders.size());
+    }
+
     @Test
     public void testRemove() {
         // Successfully remove an order from shelf
@@ -146,4 +195,25 @@ public class ShelfTest {
         Assert.assertFalse(removed);
         Assert.assertEquals(2, overflowShelf.currentOrders.size());
     }
+
+    @Test
+    public void testPeekMovableOrder() {
+        // On overflow shelf, frozenOrder1 goes to waste at 135.1 and frozenOrder2 at 174.3
+        OverflowShelf shelf = (OverflowShelf) overflowShelf;
+        shelf.add(frozenOrder2);
+        shelf.add(frozenOrder1);
+        shelf.add(coldOrder1);
+        Assert.assertEquals(135.1, shelf.computeZeroValueTime(frozenOrder1), 0.1);
+        Assert.assertEquals(frozenOrder1, shelf.peekMovableOrder(Constants.Temperature.FROZEN));
+        Assert.assertEquals(coldOrder1, shelf.peekMovableOrder(Constants.Temperature.COLD));
+        Assert.assertNull(shelf.peekMovableOrder(Constants.Temperature.HOT));
+
+        // The index follows orders leaving the shelf
+        shelf.remove(frozenOrder1);
+        Assert.assertEquals(frozenOrder2, shelf.peekMovableOrder(Constants.Temperature.FROZEN));
+        shelf.cleanUpWastedOrders(8);
+        Assert.assertNull(shelf.peekMovableOrder(Constants.Temperature.COLD));
+        shelf.currentOrders.clear();
+        Assert.assertNull(shelf.peekMovableOrder(Constants.Temperature.FROZEN));
+    }
 }
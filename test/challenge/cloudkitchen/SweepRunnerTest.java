@@ -0,0 +1,80 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class SweepRunnerTest {
+
+    @Test
+    public void testParseValues() {
+        Assert.assertEquals(Arrays.asList(5, 10, 20, 30), SweepRunner.parseValues("5,10:30:10"));
+        Assert.assertEquals(Arrays.asList(1, 2, 3), SweepRunner.parseValues("1:3"));
+        Assert.assertEquals(Collections.singletonList(7), SweepRunner.parseValues("7"));
+        try {
+            SweepRunner.parseValues("3:1");
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid range: 3:1", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testGrid() {
+        List<KitchenConfig> configs = SweepRunner.grid(Arrays.asList(5, 10), Collections.singletonList(15),
+                Collections.singletonList(1), Collections.singletonList(2), Arrays.asList(2, 8), Arrays.asList(4, 6));
+        // Minimum pick-up time 8 is greater than both maximums
+        Assert.assertEquals(4, configs.size());
+        Assert.assertEquals("shelves 5/15, decay modifiers 1/2, pick-up 2s - 4s", configs.get(0).toString());
+        Assert.assertEquals("shelves 10/15, decay modifiers 1/2, pick-up 2s - 6s", configs.get(3).toString());
+    }
+
+    @Test
+    public void testKitchenConfig() {
+        KitchenConfig config = new KitchenConfig()
+                .setSingleTemperatureShelfCapacity(3)
+                .setOverflowShelfCapacity(4)
+                .setOverflowDecayModifier(5)
+                .setPickUpTimeRange(7, 7);
+        Kitchen kitchen = new Kitchen(config);
+        Assert.assertEquals(3, kitchen.hotShelf.capacity);
+        Assert.assertEquals(3, kitchen.frozenShelf.capacity);
+        Assert.assertEquals(4, kitchen.overflowShelf.capacity);
+        Assert.assertEquals(5, kitchen.overflowShelf.shelfDecayModifier);
+        Order order = new Order("0-0-0-0-1", "order1", "hot", 300, 0.5);
+        kitchen.dispatch(order, 10);
+        Assert.assertEquals(17, order.getTimePickedUp());
+
+        // The kitchen keeps its own copy of the config
+        config.setSingleTemperatureShelfCapacity(20);
+        Assert.assertEquals(3, kitchen.getConfig().getSingleTemperatureShelfCapacity());
+    }
+
+    @Test
+    public void testSimulate() throws Exception {
+        OrderTable orders = new OrderTable();
+        for (int i = 0; i < 200; i++) {
+            orders.add(new Order(new UUID(0, i).toString(), "order" + i, i % 2 == 0 ? "hot" : "cold",
+                    20 + i % 50, 0.5));
+        }
+        List<KitchenConfig> configs = SweepRunner.grid(Arrays.asList(1, 10), Collections.singletonList(15),
+                Collections.singletonList(1), Collections.singletonList(2), Collections.singletonList(2),
+                Collections.singletonList(6));
+        SweepRunner runner = new SweepRunner(orders, Arrays.asList(5, 20), configs, 3);
+        List<SweepRunner.Result> results = runner.simulate();
+        Assert.assertEquals(4, results.size());
+        for (SweepRunner.Result result : results) {
+            Assert.assertEquals(200, result.numDelivered + result.numDiscarded + result.numWasted);
+        }
+        Assert.assertEquals(5, results.get(0).ingestionRate);
+        Assert.assertEquals(1, results.get(0).config.getSingleTemperatureShelfCapacity());
+        Assert.assertEquals(20, results.get(3).ingestionRate);
+        Assert.assertEquals(10, results.get(3).config.getSingleTemperatureShelfCapacity());
+        // Shelves of 1 order can't hold 20 orders a second
+        Assert.assertTrue(results.get(2).getLossPercentage() > 0);
+    }
+}
@@ -0,0 +1,119 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.Constants.*;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+public class SyntheticOrderSourceTest {
+
+    static Properties getProperties(String... keyValues) {
+        Properties properties = new Properties();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.setProperty(keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+
+    @Test
+    public void testNumOrders() {
+        SyntheticOrderSource source = new SyntheticOrderSource(
+                getProperties("orders", "1000", "rate", "10"), new SplittableRandom(1));
+        int numOrders = 0;
+        int numSeconds = 0;
+        while (source.hasNext()) {
+            Order order = source.next();
+            if (order == null) {
+                numSeconds++;
+            } else {
+                numOrders++;
+                Assert.assertTrue(order.shelfLife >= 100 && order.shelfLife <= 500);
+                Assert.assertTrue(order.decayRate >= 0.05 && order.decayRate <= 1);
+            }
+        }
+        Assert.assertEquals(1000, numOrders);
+        // About 10 orders arrive each second
+        Assert.assertTrue("" + numSeconds, numSeconds > 80 && numSeconds < 120);
+        Assert.assertNull(source.next());
+        Assert.assertNull(source.getPickUpDelay());
+    }
+
+    @Test
+    public void testTemperatureMix() {
+        SyntheticOrderSource source = new SyntheticOrderSource(
+                getProperties("orders", "30000", "rate", "100", "mix.hot", "2", "mix.cold", "1", "mix.frozen", "0",
+                        "pickUp", "exponential(4)"),
+                new SplittableRandom(1));
+        int[] counts = new int[Temperature.values().length];
+        while (source.hasNext()) {
+            Order order = source.next();
+            if (order != null) {
+                counts[order.getTemp().ordinal()]++;
+            }
+        }
+        Assert.assertEquals(20000, counts[Temperature.HOT.ordinal()], 500);
+        Assert.assertEquals(10000, counts[Temperature.COLD.ordinal()], 500);
+        Assert.assertEquals(0, counts[Temperature.FROZEN.ordinal()]);
+        Assert.assertEquals("exponential(4.0)", source.getPickUpDelay().toString());
+    }
+
+    @Test
+    public void testTemperatureZoneMix() {
+        // Other temperatures only get orders when given a weight
+        SyntheticOrderSource source = new SyntheticOrderSource(
+                getProperties("orders", "1000", "rate", "100", "mix.hot", "0", "mix.cold", "0", "mix.frozen", "0",
+                        "mix.ambient", "1"),
+                new SplittableRandom(1));
+        while (source.hasNext()) {
+            Order order = source.next();
+            if (order != null) {
+                Assert.assertNull(order.getTemp());
+                Assert.assertEquals("AMBIENT", order.getTempName());
+            }
+        }
+    }
+
+    @Test
+    public void testSeed() {
+        Properties properties = getProperties("orders", "100", "burst.probability", "0.5");
+        SyntheticOrderSource source1 = new SyntheticOrderSource(properties, new SplittableRandom(7));
+        SyntheticOrderSource source2 = new SyntheticOrderSource(properties, new SplittableRandom(7));
+        while (source1.hasNext()) {
+            Order order1 = source1.next();
+            Order order2 = source2.next();
+            Assert.assertEquals(order1 == null, order2 == null);
+            if (order1 != null) {
+                Assert.assertEquals(order1.getId(), order2.getId());
+                Assert.assertEquals(order1.shelfLife, order2.shelfLife, 0);
+            }
+        }
+        Assert.assertFalse(source2.hasNext());
+    }
+
+    @Test
+    public void testNoArrivals() {
+        // Orders only arrive in bursts
+        SyntheticOrderSource source = new SyntheticOrderSource(
+                getProperties("orders", "100", "rate", "0", "burst.probability", "0.5"), new SplittableRandom(1));
+        int numOrders = 0;
+        while (source.hasNext()) {
+            numOrders += source.next() == null ? 0 : 1;
+        }
+        Assert.assertEquals(100, numOrders);
+        // Nothing to generate
+        Assert.assertFalse(new SyntheticOrderSource(getProperties("orders", "0", "rate", "0"),
+                new SplittableRandom(1)).hasNext());
+        for (Properties properties : new Properties[] {getProperties("orders", "100", "rate", "0"),
+                getProperties("orders", "100", "rate", "0", "burst.probability", "0.5", "burst.rate", "0")}) {
+            try {
+                new SyntheticOrderSource(properties, new SplittableRandom(1));
+                Assert.fail("Accepted " + properties + " without any arrival");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+}
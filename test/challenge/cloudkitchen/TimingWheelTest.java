@@ -0,0 +1,64 @@
+package challenge.cloudkitchen;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TimingWheelTest {
+
+    TimingWheel<String> wheel;
+    List<String> due;
+
+    @Before
+    public void setup() {
+        wheel = new TimingWheel<>();
+        due = new ArrayList<>();
+    }
+
+    @Test
+    public void testAdvance() {
+        wheel.schedule("a", 3);
+        wheel.schedule("b", 5);
+        wheel.schedule("c", 3);
+        wheel.advance(2, due);
+        Assert.assertTrue(due.isEmpty());
+        wheel.advance(3, due);
+        Assert.assertEquals(Arrays.asList("a", "c"), due);
+        // Jumping several seconds at once collects everything due in between
+        wheel.advance(10, due);
+        Assert.assertEquals(Arrays.asList("b"), due);
+        Assert.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testScheduleInThePast() {
+        wheel.advance(10, due);
+        wheel.schedule("a", 4);
+        wheel.schedule("b", 10);
+        wheel.advance(10, due);
+        Assert.assertEquals(Arrays.asList("a", "b"), due);
+    }
+
+    @Test
+    public void testCascade() {
+        // Items on higher levels are returned exactly at their due time
+        int[] times = {63, 64, 65, 100, 4095, 4096, 4097, 300000, 20000000};
+        for (int time : times) {
+            wheel.schedule(Integer.toString(time), time);
+        }
+        wheel.schedule("1", 1);
+        for (int time : times) {
+            wheel.advance(time - 1, due);
+            for (String item : due) {
+                Assert.assertTrue(Integer.parseInt(item) < time);
+            }
+            wheel.advance(time, due);
+            Assert.assertEquals(Arrays.asList(Integer.toString(time)), due);
+        }
+        Assert.assertEquals(0, wheel.size());
+    }
+}
@@ -0,0 +1,185 @@
+package challenge.cloudkitchen;
+
+import challenge.cloudkitchen.TraceWriter.RecordType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.SplittableRandom;
+
+public class TraceAnalyzerTest {
+
+    @Test
+    public void testTraceSimulation() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("orders", "2000");
+        properties.setProperty("rate", "10");
+        OrdersSimulator sim = new OrdersSimulator(Integer.MAX_VALUE,
+                new SyntheticOrderSource(properties, new SplittableRandom(1)), true, new KitchenConfig());
+        sim.kitchen.setRandom(new SplittableRandom(2));
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            sim.kitchen.traceEvents(file);
+            sim.simulate();
+            sim.kitchen.closeMetrics();
+            try (TraceAnalyzer analyzer = new TraceAnalyzer(file)) {
+                Assert.assertEquals(sim.kitchen.traceWriter.getNumRecords(), analyzer.size());
+                Assert.assertArrayEquals(new String[] {"HOT shelf", "COLD shelf", "FROZEN shelf", "OVERFLOW shelf"},
+                        analyzer.shelfNames);
+                Assert.assertArrayEquals(new int[] {10, 10, 10, 15}, analyzer.shelfCapacities);
+                // A single window, and one window per record, give the same results
+                TraceAnalyzer.Stats stats = analyzer.analyze(60);
+                TraceAnalyzer.Stats split = new TraceAnalyzer.Stats(60);
+                for (int i = 0; i < analyzer.size(); i++) {
+                    split.accept(analyzer.channel.map(FileChannel.MapMode.READ_ONLY,
+                            TraceWriter.HEADER_SIZE + (long) i * TraceWriter.RECORD_SIZE, TraceWriter.RECORD_SIZE),
+                            0);
+                }
+                for (TraceAnalyzer.Stats result : new TraceAnalyzer.Stats[] {stats, split}) {
+                    Assert.assertEquals(2000, count(result, RecordType.ARRIVED));
+                    Assert.assertEquals(sim.kitchen.getNumDelivered(), count(result, RecordType.DELIVERED));
+                    Assert.assertEquals(sim.kitchen.getNumWasted(), count(result, RecordType.WASTED));
+                    Assert.assertEquals(sim.kitchen.getNumDiscarded(), count(result, RecordType.DISCARDED));
+                    long numDwellTimes = 0;
+                    for (Histogram dwellTime : result.dwellTimes) {
+                        numDwellTimes += dwellTime == null ? 0 : dwellTime.getCount();
+                    }
+                    Assert.assertEquals(2000, numDwellTimes);
+                    Assert.assertNotNull(result.occupancySums[3]);
+                }
+                Assert.assertEquals(stats.dwellTimes[0].getValueAtPercentile(50),
+                        split.dwellTimes[0].getValueAtPercentile(50));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static long count(TraceAnalyzer.Stats stats, RecordType type) {
+        long count = 0;
+        for (long[] counts : stats.tempCounts) {
+            count += counts[type.ordinal()];
+        }
+        return count;
+    }
+
+    @Test
+    public void testUnfinishedTrace() throws Exception {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            TraceWriter writer = new TraceWriter(file);
+            EventSink.Event event = new EventSink.Event();
+            event.type = EventSink.Type.NEW_ORDERS;
+            event.time = 5;
+            Order order = new Order("0-0-0-0-1", "order1", "cold", 300, 0.5);
+            order.arrive(5);
+            event.add(order);
+            writer.accept(event);
+            // Records are written, the tables and final header are not
+            writer.flush();
+            try (TraceAnalyzer analyzer = new TraceAnalyzer(file)) {
+                Assert.assertEquals(1, analyzer.size());
+                Assert.assertNull(analyzer.shelfNames);
+                TraceAnalyzer.Stats stats = analyzer.analyze(1);
+                Assert.assertEquals(1, count(stats, RecordType.ARRIVED));
+                Assert.assertEquals(5, stats.maxTime);
+                Assert.assertEquals("#0", analyzer.getTemperatureName(0));
+            }
+            writer.close();
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    static EventSink.Event newOrdersEvent(Order... orders) {
+        EventSink.Event event = new EventSink.Event();
+        event.type = EventSink.Type.NEW_ORDERS;
+        for (Order order : orders) {
+            order.arrive(0);
+            event.add(order);
+        }
+        return event;
+    }
+
+    @Test
+    public void testTemperatureTable() throws Exception {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            // Only the temperatures of traced orders are in the table, orders without one have no index
+            TraceWriter writer = new TraceWriter(file);
+            writer.accept(newOrdersEvent(new Order("0-0-0-0-1", "order1", "frozen", 300, 0.5),
+                    new Order("0-0-0-0-2", "order2", "lukewarm", 300, 0.5),
+                    new Order("0-0-0-0-3", "order3", (String) null, 300, 0.5),
+                    new Order("0-0-0-0-4", "order4", "Frozen", 300, 0.5)));
+            writer.close();
+            try (TraceAnalyzer analyzer = new TraceAnalyzer(file)) {
+                Assert.assertArrayEquals(new String[] {"FROZEN", "LUKEWARM"}, analyzer.temperatureNames);
+                TraceAnalyzer.Stats stats = analyzer.analyze(1);
+                Assert.assertEquals(2, stats.tempCounts[0][RecordType.ARRIVED.ordinal()]);
+                Assert.assertEquals(1, stats.tempCounts[TraceWriter.NO_INDEX][RecordType.ARRIVED.ordinal()]);
+                Assert.assertEquals("none", analyzer.getTemperatureName(TraceWriter.NO_INDEX));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testMovedOnlyWhenPlaced() throws Exception {
+        Kitchen kitchen = new Kitchen(new KitchenConfig().setSingleTemperatureShelfCapacity(1));
+        Order onShelf = new Order("0-0-0-0-1", "order1", "hot", 300, 0.5);
+        Order onOverflow = new Order("0-0-0-0-2", "order2", "hot", 300, 0.5);
+        for (Order order : new Order[] {onShelf, onOverflow}) {
+            order.arrive(0);
+            order.setTimePickedUp(10);
+        }
+        Assert.assertTrue(kitchen.hotShelf.add(onShelf));
+        Assert.assertTrue(kitchen.overflowShelf.add(onOverflow));
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            kitchen.traceEvents(file);
+            // The hot shelf is full, the order goes back on overflow shelf without being moved
+            Assert.assertFalse(kitchen.moveFromOverflow(onOverflow));
+            kitchen.hotShelf.remove(onShelf);
+            Assert.assertTrue(kitchen.moveFromOverflow(onOverflow));
+            kitchen.closeMetrics();
+            try (TraceAnalyzer analyzer = new TraceAnalyzer(file)) {
+                TraceAnalyzer.Stats stats = analyzer.analyze(1);
+                Assert.assertEquals(1, count(stats, RecordType.MOVED));
+                Assert.assertEquals(kitchen.metrics.movedFromOverflow.sum(), count(stats, RecordType.MOVED));
+                // The overflow shelf is the first shelf seen, the order being put back on it
+                Assert.assertEquals("OVERFLOW shelf", analyzer.shelfNames[0]);
+                Assert.assertEquals(1, stats.shelfCounts[0][RecordType.MOVED.ordinal()]);
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void testTooManyShelves() throws Exception {
+        Path file = Files.createTempFile("trace", ".bin");
+        try {
+            // Shelf indexes don't wrap around past the last one, the trace fails instead
+            TraceWriter writer = new TraceWriter(file);
+            for (int i = 0; i <= TraceWriter.MAX_INDEX + 1; i++) {
+                EventSink.Event event = new EventSink.Event();
+                event.type = EventSink.Type.SHELF_CONTENT;
+                event.shelf = new SingleTemperatureShelf("HOT", 1, 1);
+                writer.accept(event);
+            }
+            try {
+                writer.close();
+                Assert.fail("Closed a trace of " + (TraceWriter.MAX_INDEX + 2) + " shelves");
+            } catch (IOException e) {
+                // Expected
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+}